@@ -0,0 +1,467 @@
+package com.spring.task.cache;
+
+import com.spring.task.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer of inventory deltas, used when {@code inventory.write-behind.enabled} is set.
+ *
+ * Deltas are summed per product in a LongAdder, whose striped cells let concurrent writers add without locking or
+ * contending on one counter. Every {@code inventory.write-behind.flush-interval}, or as soon as
+ * {@code flush-threshold} deltas are waiting, the sums are written with one UPDATE per {@code batch-size} products
+ * in a single transaction, in ascending id order like reservations. The remaining sums are flushed on shutdown. A
+ * failed flush puts its sums back, so they are retried with the next one.
+ *
+ * {@link #pending} includes the sums of a flush until its transaction completes, so reads adding it to the stored
+ * inventory see every accepted delta; for the instant between the commit and its completion a read can count a
+ * flushed sum twice. A product's sum is only ever taken while its row is locked: flushes lock the rows they write,
+ * skipping those another transaction holds, and reservations lock the row before they {@link #drain} the sum into
+ * their own conditional UPDATE. Writes setting an absolute inventory {@link #discard} the sum while they hold the
+ * row, so no delta accepted before them is added on top of their value; a taken sum put back after a failed write is
+ * dropped if such a write replaced the inventory after it was taken. A product's entry is removed by the first
+ * flush that finds it idle, so the buffer only holds products adjusted since the last flushes.
+ *
+ * The age of the oldest delta when its flush commits is published as the {@code inventory.write_behind.lag} timer,
+ * alongside the {@code inventory.write_behind.pending} and {@code inventory.write_behind.flushed} meters.
+ */
+@Component
+public class InventoryDeltaBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryDeltaBuffer.class);
+
+    private final ProductRepository productRepository;
+    private final ProductResponseCache productResponseCache;
+    private final WriteGenerations writeGenerations;
+    private final TransactionTemplate transactionTemplate;
+    private final long flushThreshold;
+    private final int batchSize;
+
+    private final ConcurrentHashMap<Long, Entry> deltas = new ConcurrentHashMap<>();
+    // sums taken by the running flush or by reservations, until they commit or put them back
+    private final ConcurrentHashMap<Long, Long> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder waiting = new LongAdder();
+    // System.nanoTime() of the oldest unflushed delta, 0 when there is none
+    private final AtomicLong oldestNanos = new AtomicLong();
+    private final AtomicLong lastDeltaMillis = new AtomicLong(-1);
+    private final AtomicLong generation = new AtomicLong();
+    // orders takes of sums against absolute writes replacing them
+    private final AtomicLong overwriteSequence = new AtomicLong();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final ExecutorService flusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Timer lagTimer;
+    private final Counter flushedCounter;
+
+    public InventoryDeltaBuffer(ProductRepository productRepository,
+                                ProductResponseCache productResponseCache,
+                                WriteGenerations writeGenerations,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${inventory.write-behind.flush-threshold:10000}") long flushThreshold,
+                                @Value("${inventory.write-behind.batch-size:500}") int batchSize,
+                                MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productResponseCache = productResponseCache;
+        this.writeGenerations = writeGenerations;
+        this.transactionTemplate = transactionTemplate;
+        this.flushThreshold = flushThreshold;
+        this.batchSize = batchSize;
+        this.lagTimer = Timer.builder("inventory.write_behind.lag")
+                .description("Age of the oldest buffered inventory delta when its flush committed")
+                .register(meterRegistry);
+        this.flushedCounter = Counter.builder("inventory.write_behind.flushed")
+                .description("Product inventories written by write-behind flushes")
+                .register(meterRegistry);
+        Gauge.builder("inventory.write_behind.pending", waiting, LongAdder::sum)
+                .description("Inventory deltas waiting to be flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Buffers a delta to the inventory of the product, which the caller has checked to exist. Never blocks; a flush
+     * is started in the background once the flush threshold is reached.
+     */
+    public void add(Long productId, int delta) {
+        addToEntry(productId, delta);
+        generation.incrementAndGet();
+        lastDeltaMillis.set(System.currentTimeMillis());
+        oldestNanos.compareAndSet(0, System.nanoTime());
+        waiting.increment();
+        if (waiting.sum() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * The sum of the product's deltas not yet committed to the database.
+     */
+    public long pending(Long productId) {
+        Entry entry = deltas.get(productId);
+        long buffered = entry != null ? entry.sum.sum() : 0;
+        return buffered + inFlight.getOrDefault(productId, 0L);
+    }
+
+    /**
+     * Whether the product has an entry in the buffer, which it only gets once checked to exist.
+     */
+    public boolean contains(Long productId) {
+        return deltas.containsKey(productId);
+    }
+
+    /**
+     * Whether the product has a sum waiting to be flushed, which a reservation must lock the row to drain.
+     */
+    public boolean isBuffered(Long productId) {
+        Entry entry = deltas.get(productId);
+        return entry != null && entry.sum.sum() != 0;
+    }
+
+    /**
+     * Takes the product's buffered sum for the current transaction to write along with its own update, which makes
+     * a check of the stored inventory plus the sum consistent with what is written. The caller must hold the
+     * product's row lock: sums a flush is already writing are then committed to the row, and no absolute write can
+     * replace the inventory before the sum is written. The sum is put back if the transaction does not commit.
+     *
+     * @throws IllegalStateException if there is a sum to take and no transaction
+     */
+    public long drain(Long productId) {
+        Entry entry = deltas.get(productId);
+        if (entry == null) {
+            return 0;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Buffered inventory deltas can only be drained within a transaction");
+        }
+        Taken taken = take(productId, entry);
+        if (taken.sum() != 0) {
+            Map<Long, Taken> drained = Map.of(productId, taken);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(drained, status == STATUS_COMMITTED);
+                }
+            });
+        }
+        return taken.sum();
+    }
+
+    /**
+     * Drops the product's buffered sum, for writes that set its inventory to an absolute value, which replaces every
+     * delta accepted before it. Must be called after the write, while the transaction holds the product's row lock.
+     * Sums taken before and put back later are dropped as well once the transaction commits; if it rolls back,
+     * everything dropped is restored.
+     */
+    public void discard(Long productId) {
+        Entry entry = deltas.get(productId);
+        if (entry == null) {
+            return;
+        }
+        Overwrite overwrite;
+        synchronized (entry) {
+            // removed while idle, so there is nothing to replace
+            if (entry.removed) {
+                return;
+            }
+            overwrite = new Overwrite(overwriteSequence.incrementAndGet());
+            overwrite.dropped = entry.sum.sumThenReset();
+            entry.overwrites.add(overwrite);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    endOverwrite(productId, entry, overwrite, status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            endOverwrite(productId, entry, overwrite, true);
+        }
+    }
+
+    /**
+     * Whether any delta may not have been committed yet; deltas drained by reservations are only known to be
+     * committed once the next flush finds nothing to write.
+     */
+    public boolean hasPending() {
+        return waiting.sum() > 0 || !inFlight.isEmpty();
+    }
+
+    /**
+     * Incremented by every delta, so it tells apart states of the buffer with the same stored inventory.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * When the last delta was added, in epoch millis, or -1 if none was.
+     */
+    public long lastDeltaMillis() {
+        return lastDeltaMillis.get();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.write-behind.flush-interval:PT1S}", initialDelayString = "${inventory.write-behind.flush-interval:PT1S}")
+    public void flush() {
+        flushRequested.set(false);
+        // a flush already running writes what is waiting
+        if (flushLock.tryLock()) {
+            try {
+                writeDeltas();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushLock.lock();
+        try {
+            writeDeltas();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeDeltas() {
+        long oldest = oldestNanos.getAndSet(0);
+        waiting.reset();
+        List<Long> ids = new ArrayList<>();
+        deltas.forEach((id, entry) -> {
+            if (entry.sum.sum() != 0) {
+                ids.add(id);
+            } else {
+                removeIfIdle(id, entry);
+            }
+        });
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Taken> batch = new TreeMap<>();
+        AtomicBoolean completes = new AtomicBoolean();
+        AtomicInteger deferred = new AtomicInteger();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int updated = transactionTemplate.execute(status -> {
+                // released with the commit rather than after it returns, so reads stop adding the sums right away
+                if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                    completes.set(true);
+                    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                        @Override
+                        public void afterCompletion(int completionStatus) {
+                            complete(batch, completionStatus == STATUS_COMMITTED);
+                        }
+                    });
+                }
+                // rows other transactions hold are left for the next flush rather than waited for
+                List<Long> locked = new ArrayList<>();
+                for (List<Long> chunk : chunks(ids)) {
+                    locked.addAll(productRepository.lockUnlockedByIds(chunk));
+                }
+                for (Long id : locked) {
+                    Taken taken = take(id, deltas.get(id));
+                    if (taken.sum() != 0) {
+                        batch.put(id, taken);
+                    }
+                }
+                if (locked.size() < ids.size()) {
+                    deferred.set(ids.size() - locked.size() - dropDeleted(ids, locked));
+                }
+                int rows = 0;
+                for (List<Long> chunk : chunks(new ArrayList<>(batch.keySet()))) {
+                    Map<Long, Integer> sums = new TreeMap<>();
+                    chunk.forEach(id -> sums.put(id, Math.toIntExact(batch.get(id).sum())));
+                    rows += productRepository.addInventory(sums, now);
+                }
+                return rows;
+            });
+            if (!completes.get()) {
+                complete(batch, true);
+            }
+            flushedCounter.increment(updated);
+            if (deferred.get() > 0) {
+                waiting.add(deferred.get());
+                if (oldest != 0) {
+                    oldestNanos.compareAndSet(0, oldest);
+                }
+                logger.debug("Deferred inventory deltas of {} locked product(s) to the next flush", deferred.get());
+            } else if (oldest != 0) {
+                lagTimer.record(System.nanoTime() - oldest, TimeUnit.NANOSECONDS);
+            }
+            logger.debug("Flushed inventory deltas of {} product(s)", updated);
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush inventory deltas of {} product(s), retrying with the next flush", ids.size(), e);
+            if (!completes.get()) {
+                complete(batch, false);
+            }
+            waiting.add(ids.size());
+            if (oldest != 0) {
+                oldestNanos.compareAndSet(0, oldest);
+            }
+        }
+    }
+
+    // drops the sums of products that were not locked because they no longer exist, returning how many there were
+    private int dropDeleted(List<Long> ids, List<Long> locked) {
+        List<Long> unlocked = new ArrayList<>(ids);
+        unlocked.removeAll(locked);
+        unlocked.removeAll(productRepository.findExistingIds(unlocked));
+        unlocked.forEach(id -> deltas.get(id).sum.reset());
+        if (!unlocked.isEmpty()) {
+            logger.warn("Dropped inventory deltas of {} deleted product(s)", unlocked.size());
+        }
+        return unlocked.size();
+    }
+
+    // callers hold the product's row lock; a taken sum is in flight, which keeps the entry from being removed
+    private Taken take(Long productId, Entry entry) {
+        synchronized (entry) {
+            long sum = entry.removed ? 0 : entry.sum.sumThenReset();
+            if (sum != 0) {
+                inFlight.merge(productId, sum, Long::sum);
+            }
+            return new Taken(sum, overwriteSequence.get());
+        }
+    }
+
+    private void addToEntry(Long productId, long amount) {
+        while (amount != 0) {
+            Entry entry = deltas.get(productId);
+            if (entry == null) {
+                entry = deltas.computeIfAbsent(productId, id -> new Entry());
+            }
+            entry.sum.add(amount);
+            if (!entry.removed) {
+                return;
+            }
+            // the entry was removed meanwhile, so whatever reached it moves to the current one
+            amount = entry.sum.sumThenReset();
+        }
+    }
+
+    // removes an entry without a sum, sum in flight or absolute write in progress
+    private void removeIfIdle(Long productId, Entry entry) {
+        synchronized (entry) {
+            if (entry.sum.sum() != 0 || !entry.overwrites.isEmpty() || inFlight.containsKey(productId)) {
+                return;
+            }
+            entry.removed = true;
+            deltas.remove(productId, entry);
+        }
+        // a delta added concurrently may have reached the entry before it was marked removed
+        addToEntry(productId, entry.sum.sumThenReset());
+    }
+
+    private void endOverwrite(Long productId, Entry entry, Overwrite overwrite, boolean committed) {
+        synchronized (entry) {
+            entry.overwrites.remove(overwrite);
+            if (committed) {
+                entry.overwrittenAt = Math.max(entry.overwrittenAt, overwrite.at);
+            } else {
+                putBack(entry, overwrite.dropped, overwrite.at - 1);
+            }
+        }
+        if (committed && overwrite.dropped != 0) {
+            logger.info("Discarded buffered inventory delta {} of product {} replaced by an absolute inventory",
+                    overwrite.dropped, productId);
+        }
+    }
+
+    // a sum taken at takenAt is dropped if an absolute write replacing it commits; guarded by the entry
+    private void putBack(Entry entry, long sum, long takenAt) {
+        if (sum == 0 || entry.overwrittenAt > takenAt) {
+            return;
+        }
+        for (Overwrite overwrite : entry.overwrites) {
+            if (overwrite.at > takenAt) {
+                overwrite.dropped += sum;
+                return;
+            }
+        }
+        entry.sum.add(sum);
+    }
+
+    // ends the in-flight state of written sums, putting them back into the buffer if they were not committed
+    private void complete(Map<Long, Taken> sums, boolean committed) {
+        sums.forEach((id, taken) -> {
+            if (committed) {
+                productResponseCache.invalidate(id);
+            } else {
+                Entry entry = deltas.get(id);
+                synchronized (entry) {
+                    putBack(entry, taken.sum(), taken.takenAt());
+                }
+            }
+            inFlight.computeIfPresent(id, (key, inFlightSum) -> inFlightSum == taken.sum() ? null : inFlightSum - taken.sum());
+        });
+        if (committed && !sums.isEmpty()) {
+            // the list tag drops the buffer generation once nothing is pending, so the stored inventories have to move it
+            writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        }
+    }
+
+    private <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += batchSize) {
+            chunks.add(items.subList(from, Math.min(items.size(), from + batchSize)));
+        }
+        return chunks;
+    }
+
+    // the buffered sum of one product, and the uncommitted absolute writes replacing it
+    private static final class Entry {
+        final LongAdder sum = new LongAdder();
+        // set once, under the entry, when it is taken out of the map
+        volatile boolean removed;
+        // in ascending order of their sequence numbers; guarded by the entry
+        final List<Overwrite> overwrites = new ArrayList<>(1);
+        // sequence number of the last committed absolute write; guarded by the entry
+        long overwrittenAt;
+    }
+
+    private static final class Overwrite {
+        final long at;
+        // guarded by the entry
+        long dropped;
+
+        Overwrite(long at) {
+            this.at = at;
+        }
+    }
+
+    private record Taken(long sum, long takenAt) {
+    }
+}
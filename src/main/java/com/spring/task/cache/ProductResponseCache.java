@@ -0,0 +1,162 @@
+package com.spring.task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.task.payload.response.CategoryResponse;
+import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.payload.response.RoleResponse;
+import com.spring.task.payload.response.UserResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Bounded read-through cache of fully assembled ProductResponse objects keyed by product id.
+ *
+ * The cache is bounded by the estimated heap size of its entries. Misses are loaded through Caffeine's atomic
+ * {@code get}, so concurrent misses on one id wait for a single load. Products that do not exist are not cached.
+ *
+ * Invalidations are repeated once the surrounding transaction commits. Evicting by category or owner role scans
+ * the cached entries; a load that was already running when such a scan happened is marked stale and reloaded on
+ * its next read, since it may have read the rows before the change.
+ *
+ * Hit, miss, load and eviction metrics are published under {@code cache.*} with {@code cache=productResponse},
+ * including the total load time {@code cache.load.duration}; {@code cache.hit.ratio} is published alongside.
+ */
+@Component
+public class ProductResponseCache {
+    private static final Logger logger = LoggerFactory.getLogger(ProductResponseCache.class);
+    private static final String CACHE_NAME = "productResponse";
+
+    private final Cache<Long, CachedProduct> cache;
+    // bumped by every scanning eviction, see CachedProduct.stale
+    private final AtomicLong scanEpoch = new AtomicLong();
+
+    public ProductResponseCache(@Value("${product.cache.max-bytes:67108864}") long maxBytes,
+                                @Value("${product.cache.ttl:PT10M}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Long id, CachedProduct cached) -> cached.weight)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        logger.info("Product response cache initialized with max size: {} bytes", maxBytes);
+    }
+
+    /**
+     * Returns the cached response of the product, loading it on a miss. The loader returns null for a missing
+     * product, which is returned as null and not cached.
+     */
+    public ProductResponse get(Long id, Function<Long, ProductResponse> loader) {
+        CachedProduct cached = cache.get(id, key -> load(key, loader));
+        if (cached != null && cached.stale) {
+            cache.asMap().remove(id, cached);
+            cached = cache.get(id, key -> load(key, loader));
+        }
+        return cached != null ? cached.response : null;
+    }
+
+    public void invalidate(Long id) {
+        if (id == null) {
+            return;
+        }
+        cache.invalidate(id);
+        afterCommit(() -> cache.invalidate(id));
+    }
+
+    public void invalidateByCategory(Long categoryId) {
+        invalidateMatching(response -> response.getCategory() != null
+                && Objects.equals(response.getCategory().getId(), categoryId));
+    }
+
+    public void invalidateByRole(Long roleId) {
+        invalidateMatching(response -> response.getUserResponse() != null && response.getUserResponse().getRoles() != null
+                && response.getUserResponse().getRoles().stream().anyMatch(role -> Objects.equals(role.getId(), roleId)));
+    }
+
+    // runs the pending evictions first, which Caffeine otherwise does asynchronously
+    public long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private void invalidateMatching(Predicate<ProductResponse> predicate) {
+        Runnable scan = () -> {
+            scanEpoch.incrementAndGet();
+            cache.asMap().values().removeIf(cached -> predicate.test(cached.response));
+        };
+        scan.run();
+        afterCommit(scan);
+    }
+
+    private CachedProduct load(Long id, Function<Long, ProductResponse> loader) {
+        long epoch = scanEpoch.get();
+        ProductResponse response = loader.apply(id);
+        return response != null ? new CachedProduct(response, scanEpoch.get() != epoch) : null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class CachedProduct {
+        private final ProductResponse response;
+        // a scanning eviction ran while this was loaded, so it may predate the change that eviction was for
+        private final boolean stale;
+        private final int weight;
+
+        private CachedProduct(ProductResponse response, boolean stale) {
+            this.response = response;
+            this.stale = stale;
+            this.weight = weigh(response);
+        }
+
+        // rough heap size in bytes: object headers and fields plus compact (Latin-1) string contents
+        private static int weigh(ProductResponse response) {
+            int weight = 120 + length(response.getSku()) + length(response.getName()) + length(response.getDescription())
+                    + length(response.getWeightUnit()) + length(response.getBrand());
+            CategoryResponse category = response.getCategory();
+            if (category != null) {
+                weight += 80 + length(category.getName()) + length(category.getDescription()) + length(category.getImageUrl());
+            }
+            UserResponse user = response.getUserResponse();
+            if (user != null) {
+                weight += 80 + length(user.getName()) + length(user.getEmail());
+                if (user.getRoles() != null) {
+                    for (RoleResponse role : user.getRoles()) {
+                        weight += 80 + length(role.getName());
+                    }
+                }
+            }
+            return weight;
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : 40 + value.length();
+        }
+    }
+}
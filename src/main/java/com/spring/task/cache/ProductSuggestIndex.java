@@ -0,0 +1,484 @@
+package com.spring.task.cache;
+
+import com.spring.task.payload.response.ProductSuggestion;
+import com.spring.task.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-process autocomplete index over product names and brands, answering suggestions without touching the database.
+ *
+ * The bulk of the index is an immutable snapshot of primitive arrays: the sorted distinct terms with the product
+ * ordinals containing each, so a prefix is one binary search and a union of postings, and a sorted table of term
+ * trigrams used to find candidates for typo-tolerant matching. It is built with parallel streams (on the common
+ * fork-join pool) from the database once the application is ready.
+ *
+ * Product changes go to a small concurrent overlay that shadows the snapshot and is scanned linearly; once the overlay
+ * reaches the rebuild threshold, a new snapshot including it is built in the background and swapped in. Changes made
+ * inside a transaction are applied after it commits.
+ *
+ * Publishes {@code product.suggest.lookup} (timer with p50/p99), {@code product.suggest.index.size} and the estimated
+ * heap footprint {@code product.suggest.index.memory} in bytes.
+ */
+@Component
+public class ProductSuggestIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductSuggestIndex.class);
+    static final int MAX_QUERY_LENGTH = 64;
+    // shortest query term typos are tolerated for; one edit from 4 characters on, two from 8
+    private static final int MIN_FUZZY_LENGTH = 4;
+    private static final Comparator<Candidate> RANKING = Comparator
+            .comparing(Candidate::fuzzy)
+            .thenComparing(candidate -> !candidate.namePrefix())
+            .thenComparingInt(candidate -> candidate.entry().name().length())
+            .thenComparingLong(candidate -> candidate.entry().id());
+
+    private final ProductRepository productRepository;
+    private final int rebuildThreshold;
+    private final Timer lookupTimer;
+    private final ConcurrentHashMap<Long, Entry> overlay = new ConcurrentHashMap<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private volatile Snapshot snapshot = Snapshot.build(List.of());
+
+    public ProductSuggestIndex(ProductRepository productRepository,
+                               @Value("${product.suggest.rebuild-threshold:1024}") int rebuildThreshold,
+                               MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.rebuildThreshold = rebuildThreshold;
+        this.lookupTimer = Timer.builder("product.suggest.lookup")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("product.suggest.index.size", this, index -> index.size()).register(meterRegistry);
+        Gauge.builder("product.suggest.index.memory", this, index -> index.estimatedBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        List<Entry> entries = productRepository.findAllNamesAndBrands().stream()
+                .map(product -> new Entry(product.getId(), product.getName(), product.getBrand()))
+                .collect(Collectors.toList());
+        snapshot = Snapshot.build(entries);
+        logger.info("Product suggest index built with {} products and {} terms in {} ms, about {} KB",
+                entries.size(), snapshot.terms.length, (System.nanoTime() - start) / 1_000_000, estimatedBytes() / 1024);
+    }
+
+    /**
+     * Adds or replaces the product, after the surrounding transaction commits.
+     */
+    public void put(Long id, String name, String brand) {
+        if (id == null || name == null) {
+            return;
+        }
+        Entry entry = new Entry(id, name, brand);
+        afterCommit(() -> apply(entry));
+    }
+
+    public void putAll(Collection<ProductSuggestion> products) {
+        List<Entry> entries = products.stream()
+                .filter(product -> product.getId() != null && product.getName() != null)
+                .map(product -> new Entry(product.getId(), product.getName(), product.getBrand()))
+                .collect(Collectors.toList());
+        afterCommit(() -> entries.forEach(this::apply));
+    }
+
+    /**
+     * Removes the product, after the surrounding transaction commits.
+     */
+    public void remove(Long id) {
+        if (id == null) {
+            return;
+        }
+        Entry tombstone = new Entry(id, null, null);
+        afterCommit(() -> apply(tombstone));
+    }
+
+    /**
+     * Returns up to limit products whose name or brand words start with every word of the query. When there are
+     * fewer such products, words within one or two edits of a prefix also match. Exact matches come first, then
+     * products whose name starts with the query, then shorter names.
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        long start = System.nanoTime();
+        try {
+            String[] tokens = tokenize(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+            if (tokens.length == 0 || limit <= 0) {
+                return List.of();
+            }
+            PriorityQueue<Candidate> best = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            Snapshot current = snapshot;
+            boolean hasChanges = !overlay.isEmpty();
+
+            BitSet exact = current.match(tokens, false);
+            BitSet matched = exact.cardinality() < limit ? current.match(tokens, true) : exact;
+            for (int ordinal = matched.nextSetBit(0); ordinal >= 0; ordinal = matched.nextSetBit(ordinal + 1)) {
+                Entry entry = current.entries[ordinal];
+                if (!hasChanges || !overlay.containsKey(entry.id())) {
+                    offer(best, limit, new Candidate(entry, !exact.get(ordinal), namePrefix(entry, tokens[0])));
+                }
+            }
+            for (Entry entry : overlay.values()) {
+                if (entry.name() == null) {
+                    continue;
+                }
+                if (matchesAll(tokens, entry.terms, false)) {
+                    offer(best, limit, new Candidate(entry, false, namePrefix(entry, tokens[0])));
+                } else if (matchesAll(tokens, entry.terms, true)) {
+                    offer(best, limit, new Candidate(entry, true, namePrefix(entry, tokens[0])));
+                }
+            }
+
+            List<Candidate> ranked = new ArrayList<>(best);
+            ranked.sort(RANKING);
+            return ranked.stream()
+                    .map(candidate -> new ProductSuggestion(candidate.entry().id(), candidate.entry().name(), candidate.entry().brand()))
+                    .collect(Collectors.toList());
+        } finally {
+            lookupTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int size() {
+        Snapshot current = snapshot;
+        int size = current.entries.length;
+        for (Entry entry : overlay.values()) {
+            boolean inSnapshot = current.contains(entry.id());
+            if (entry.name() == null && inSnapshot) {
+                size--;
+            } else if (entry.name() != null && !inSnapshot) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public long estimatedBytes() {
+        return snapshot.estimatedBytes + overlay.size() * 200L;
+    }
+
+    private void apply(Entry entry) {
+        overlay.put(entry.id(), entry);
+        if (overlay.size() >= rebuildThreshold && rebuilding.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(this::rebuild).whenComplete((ignored, e) -> {
+                rebuilding.set(false);
+                if (e != null) {
+                    logger.error("Rebuilding the product suggest index failed", e);
+                }
+            });
+        }
+    }
+
+    // merges the overlay into a new snapshot; overlay entries changed again meanwhile stay in the overlay
+    void rebuild() {
+        Map<Long, Entry> changes = Map.copyOf(overlay);
+        Snapshot current = snapshot;
+        List<Entry> entries = new ArrayList<>(current.entries.length + changes.size());
+        for (Entry entry : current.entries) {
+            if (!changes.containsKey(entry.id())) {
+                entries.add(entry);
+            }
+        }
+        changes.values().stream().filter(entry -> entry.name() != null).forEach(entries::add);
+        snapshot = Snapshot.build(entries);
+        changes.forEach(overlay::remove);
+        logger.debug("Product suggest index rebuilt with {} products", entries.size());
+    }
+
+    private static void offer(PriorityQueue<Candidate> best, int limit, Candidate candidate) {
+        best.offer(candidate);
+        if (best.size() > limit) {
+            best.poll();
+        }
+    }
+
+    private static boolean namePrefix(Entry entry, String token) {
+        return entry.name().toLowerCase(Locale.ROOT).startsWith(token);
+    }
+
+    private static boolean matchesAll(String[] tokens, String[] terms, boolean fuzzy) {
+        for (String token : tokens) {
+            int maxEdits = fuzzy ? maxEdits(token) : 0;
+            boolean found = false;
+            for (String term : terms) {
+                if (term.startsWith(token) || (maxEdits > 0 && prefixDistance(token, term, maxEdits) <= maxEdits)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static int maxEdits(String token) {
+        return token.length() < MIN_FUZZY_LENGTH ? 0 : token.length() < 8 ? 1 : 2;
+    }
+
+    /**
+     * Smallest edit distance between the token and any prefix of the term, counting a swap of two adjacent characters
+     * as one edit, giving up early once it exceeds maxEdits.
+     */
+    static int prefixDistance(String token, String term, int maxEdits) {
+        int[] beforePrevious = new int[term.length() + 1];
+        int[] previous = new int[term.length() + 1];
+        int[] row = new int[term.length() + 1];
+        for (int j = 0; j <= term.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= token.length(); i++) {
+            row[0] = i;
+            int rowMin = row[0];
+            for (int j = 1; j <= term.length(); j++) {
+                int cost = token.charAt(i - 1) == term.charAt(j - 1) ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && token.charAt(i - 1) == term.charAt(j - 2) && token.charAt(i - 2) == term.charAt(j - 1)) {
+                    row[j] = Math.min(row[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (rowMin > maxEdits) {
+                return rowMin;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = row;
+            row = recycled;
+        }
+        int distance = Integer.MAX_VALUE;
+        for (int value : previous) {
+            distance = Math.min(distance, value);
+        }
+        return distance;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // a product as indexed; a null name marks a removed product in the overlay
+    static final class Entry {
+        private final long id;
+        private final String name;
+        private final String brand;
+        private final String[] terms;
+
+        Entry(long id, String name, String brand) {
+            this.id = id;
+            this.name = name;
+            this.brand = brand;
+            this.terms = tokenize(brand != null ? name + " " + brand : name);
+        }
+
+        long id() {
+            return id;
+        }
+
+        String name() {
+            return name;
+        }
+
+        String brand() {
+            return brand;
+        }
+    }
+
+    private record Candidate(Entry entry, boolean fuzzy, boolean namePrefix) {
+    }
+
+    /**
+     * Immutable index over a fixed set of products, referenced by their ordinal in entries.
+     */
+    private static final class Snapshot {
+        private final Entry[] entries;
+        private final long[] sortedIds;
+        // distinct terms in ascending order and, per term, the ascending ordinals of the products containing it
+        private final String[] terms;
+        private final int[][] postings;
+        // distinct trigrams of the boundary-padded terms in ascending order and, per trigram, the term indexes
+        private final long[] trigrams;
+        private final int[][] trigramTerms;
+        private final long estimatedBytes;
+
+        private Snapshot(Entry[] entries, String[] terms, int[][] postings, long[] trigrams, int[][] trigramTerms) {
+            this.entries = entries;
+            this.sortedIds = Arrays.stream(entries).mapToLong(Entry::id).sorted().toArray();
+            this.terms = terms;
+            this.postings = postings;
+            this.trigrams = trigrams;
+            this.trigramTerms = trigramTerms;
+            this.estimatedBytes = estimateBytes();
+        }
+
+        static Snapshot build(List<Entry> source) {
+            Map<Long, Entry> byId = new LinkedHashMap<>();
+            source.forEach(entry -> byId.put(entry.id(), entry));
+            Entry[] entries = byId.values().toArray(Entry[]::new);
+
+            Map<String, List<Integer>> termOrdinals = IntStream.range(0, entries.length).parallel().boxed()
+                    .flatMap(ordinal -> Arrays.stream(entries[ordinal].terms).distinct()
+                            .map(term -> Map.entry(term, ordinal)))
+                    .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                            Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+            String[] terms = termOrdinals.keySet().toArray(String[]::new);
+            Arrays.parallelSort(terms);
+            int[][] postings = Arrays.stream(terms).parallel()
+                    .map(term -> termOrdinals.get(term).stream().mapToInt(Integer::intValue).sorted().toArray())
+                    .toArray(int[][]::new);
+
+            Map<Long, List<Integer>> trigramIndexes = IntStream.range(0, terms.length).parallel().boxed()
+                    .flatMap(index -> Arrays.stream(trigramsOf(terms[index])).distinct().mapToObj(trigram -> Map.entry(trigram, index)))
+                    .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                            Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+            long[] trigrams = trigramIndexes.keySet().stream().mapToLong(Long::longValue).toArray();
+            Arrays.parallelSort(trigrams);
+            int[][] trigramTerms = Arrays.stream(trigrams).parallel()
+                    .mapToObj(trigram -> trigramIndexes.get(trigram).stream().mapToInt(Integer::intValue).sorted().toArray())
+                    .toArray(int[][]::new);
+            return new Snapshot(entries, terms, postings, trigrams, trigramTerms);
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(sortedIds, id) >= 0;
+        }
+
+        /**
+         * Ordinals of the products having, for every token, a term starting with it (or within the edit budget of
+         * such a term when fuzzy).
+         */
+        BitSet match(String[] tokens, boolean fuzzy) {
+            BitSet result = null;
+            for (String token : tokens) {
+                BitSet tokenMatches = new BitSet(entries.length);
+                int from = lowerBound(token);
+                for (int index = from; index < terms.length && terms[index].startsWith(token); index++) {
+                    addPostings(tokenMatches, index);
+                }
+                int maxEdits = maxEdits(token);
+                if (fuzzy && maxEdits > 0) {
+                    for (int index : fuzzyCandidates(token, maxEdits)) {
+                        if (prefixDistance(token, terms[index], maxEdits) <= maxEdits) {
+                            addPostings(tokenMatches, index);
+                        }
+                    }
+                }
+                if (result == null) {
+                    result = tokenMatches;
+                } else {
+                    result.and(tokenMatches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        // terms sharing enough trigrams with the token that they can be within maxEdits of one of their prefixes
+        private int[] fuzzyCandidates(String token, int maxEdits) {
+            long[] tokenTrigrams = Arrays.stream(trigramsOf(token)).distinct().toArray();
+            // the trailing boundary trigram of the token does not occur in a longer term
+            int required = Math.max(1, tokenTrigrams.length - 1 - 3 * maxEdits);
+            Map<Integer, Integer> shared = new HashMap<>();
+            for (long trigram : tokenTrigrams) {
+                int position = Arrays.binarySearch(trigrams, trigram);
+                if (position >= 0) {
+                    for (int index : trigramTerms[position]) {
+                        shared.merge(index, 1, Integer::sum);
+                    }
+                }
+            }
+            return shared.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= required)
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+        }
+
+        private void addPostings(BitSet bits, int termIndex) {
+            for (int ordinal : postings[termIndex]) {
+                bits.set(ordinal);
+            }
+        }
+
+        private int lowerBound(String token) {
+            int position = Arrays.binarySearch(terms, token);
+            return position >= 0 ? position : -position - 1;
+        }
+
+        private long estimateBytes() {
+            long bytes = 16L * 6 + 8L * sortedIds.length;
+            for (Entry entry : entries) {
+                bytes += 32 + stringBytes(entry.name()) + stringBytes(entry.brand()) + 8;
+            }
+            for (int index = 0; index < terms.length; index++) {
+                bytes += stringBytes(terms[index]) + 16 + 4L * postings[index].length + 8;
+            }
+            bytes += 8L * trigrams.length;
+            for (int[] termIndexes : trigramTerms) {
+                bytes += 16 + 4L * termIndexes.length + 8;
+            }
+            return bytes;
+        }
+
+        private static long stringBytes(String value) {
+            return value == null ? 0 : 40 + value.length();
+        }
+    }
+
+    // trigrams of the term padded with a leading and trailing boundary, each packed into the low 48 bits of a long
+    private static long[] trigramsOf(String term) {
+        String padded = " " + term + " ";
+        long[] result = new long[Math.max(0, padded.length() - 2)];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+        }
+        return result;
+    }
+}
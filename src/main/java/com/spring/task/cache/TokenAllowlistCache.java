@@ -0,0 +1,94 @@
+package com.spring.task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.spring.task.entity.AuthToken;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Bounded, concurrent cache of access tokens that are known to be present in tbl_token, keyed by the token's
+ * SHA-256 digest like the table itself.
+ *
+ * Every entry expires at the token's own {@code exp}, so an expired token is never reported as allowed.
+ * Entries are added by TokenServiceImpl when a token is saved or found in the database and removed when it is deleted.
+ * The cache is local to the node: a logout handled by another node is only seen here once the entry expires.
+ *
+ * Hit, miss and eviction counters are published under the {@code cache.*} metrics with {@code cache=tokenAllowlist}.
+ */
+@Component
+public class TokenAllowlistCache {
+    private static final Logger logger = LoggerFactory.getLogger(TokenAllowlistCache.class);
+    private static final String CACHE_NAME = "tokenAllowlist";
+
+    private final Cache<ByteBuffer, CachedToken> cache;
+
+    public TokenAllowlistCache(@Value("${token.cache.max-size:100000}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("Token allowlist cache initialized with max size: {}", maxSize);
+    }
+
+    public AuthToken get(byte[] tokenDigest) {
+        CachedToken cachedToken = cache.getIfPresent(ByteBuffer.wrap(tokenDigest));
+        return cachedToken != null ? cachedToken.authToken : null;
+    }
+
+    public void put(byte[] tokenDigest, AuthToken authToken, Instant expiresAt) {
+        if (expiresAt == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        cache.put(ByteBuffer.wrap(tokenDigest.clone()), new CachedToken(authToken, expiresAt));
+    }
+
+    public void invalidate(byte[] tokenDigest) {
+        if (tokenDigest != null) {
+            cache.invalidate(ByteBuffer.wrap(tokenDigest));
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static final class CachedToken {
+        private final AuthToken authToken;
+        private final Instant expiresAt;
+
+        private CachedToken(AuthToken authToken, Instant expiresAt) {
+            this.authToken = authToken;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class TokenExpiry implements Expiry<ByteBuffer, CachedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, CachedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, CachedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, CachedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
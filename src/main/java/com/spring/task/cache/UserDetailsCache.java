@@ -0,0 +1,140 @@
+package com.spring.task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.task.payload.response.CustomUserDetails;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of immutable CustomUserDetails keyed by email, exactly as users are looked up.
+ *
+ * Every email maps to one of a fixed set of version stripes, and a global epoch covers invalidating everything.
+ * A loader records the stamp (epoch and stripe version) before reading the database and its result is only stored if
+ * the stamp is unchanged, so a load that overlapped an invalidation can never put the older user back in the cache.
+ * Invalidations are repeated once the surrounding transaction commits, which also rejects loads that read the rows
+ * before the change became visible.
+ *
+ * Hit, miss and eviction counters are published under the {@code cache.*} metrics with {@code cache=userDetails}.
+ */
+@Component
+public class UserDetailsCache {
+    private static final Logger logger = LoggerFactory.getLogger(UserDetailsCache.class);
+    private static final String CACHE_NAME = "userDetails";
+    private static final int STRIPES = 256;
+
+    private final Cache<String, CachedUserDetails> cache;
+    private final AtomicLongArray stripeVersions = new AtomicLongArray(STRIPES);
+    private final AtomicLong epoch = new AtomicLong();
+
+    public UserDetailsCache(@Value("${user-details.cache.max-size:10000}") long maxSize,
+                            @Value("${user-details.cache.ttl:PT10M}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        logger.info("User details cache initialized with max size: {}", maxSize);
+    }
+
+    /**
+     * Returns the cached details of the user, loading and caching them on a miss.
+     * Exceptions of the loader, such as UsernameNotFoundException, are propagated and nothing is cached.
+     */
+    public CustomUserDetails get(String email, Function<String, CustomUserDetails> loader) {
+        String key = email;
+        CachedUserDetails cached = cache.getIfPresent(key);
+        long stripeVersion = stripeVersions.get(stripe(key));
+        long currentEpoch = epoch.get();
+        if (cached != null && cached.matches(currentEpoch, stripeVersion)) {
+            return cached.userDetails;
+        }
+
+        CustomUserDetails userDetails = loader.apply(email);
+        // only store what was read under an unchanged stamp; a concurrent invalidation wins
+        cache.asMap().compute(key, (k, existing) ->
+                epoch.get() == currentEpoch && stripeVersions.get(stripe(k)) == stripeVersion
+                        ? new CachedUserDetails(userDetails, currentEpoch, stripeVersion)
+                        : existing);
+        return userDetails;
+    }
+
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        String key = email;
+        invalidateKey(key);
+        afterCommit(() -> invalidateKey(key));
+    }
+
+    public void invalidateAll(Collection<String> emails) {
+        emails.forEach(this::invalidate);
+    }
+
+    public void invalidateAll() {
+        invalidateEverything();
+        afterCommit(this::invalidateEverything);
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private void invalidateKey(String key) {
+        stripeVersions.incrementAndGet(stripe(key));
+        cache.invalidate(key);
+    }
+
+    private void invalidateEverything() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        }
+    }
+
+    private static final class CachedUserDetails {
+        private final CustomUserDetails userDetails;
+        private final long epoch;
+        private final long stripeVersion;
+
+        private CachedUserDetails(CustomUserDetails userDetails, long epoch, long stripeVersion) {
+            this.userDetails = userDetails;
+            this.epoch = epoch;
+            this.stripeVersion = stripeVersion;
+        }
+
+        // an entry stored before a stripe collision's invalidation is also dropped; that only costs a reload
+        private boolean matches(long epoch, long stripeVersion) {
+            return this.epoch == epoch && this.stripeVersion == stripeVersion;
+        }
+    }
+}
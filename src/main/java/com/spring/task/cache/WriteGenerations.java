@@ -0,0 +1,73 @@
+package com.spring.task.cache;
+
+import com.spring.task.util.ResourceVersion;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory write generations of the products, categories and roles, the validators of the responses assembled
+ * from them in place of aggregates over their tables. Every write advances the generation of what it changed, right
+ * away and again once the surrounding transaction commits, so a response read in between is not taken as current.
+ *
+ * Like the caches invalidated next to them the generations belong to this node. Tags start with the startup time,
+ * so a tag handed out before a restart never matches again.
+ */
+@Component
+public class WriteGenerations {
+
+    public enum Resource {
+        PRODUCTS, CATEGORIES, ROLES
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Resource, Generation> generations = new EnumMap<>(Resource.class);
+
+    public WriteGenerations() {
+        for (Resource resource : Resource.values()) {
+            generations.put(resource, new Generation());
+        }
+    }
+
+    public void advance(Resource resource) {
+        Generation generation = generations.get(resource);
+        generation.advance();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.advance();
+                }
+            });
+        }
+    }
+
+    /**
+     * The version of a representation assembled from the given resources; Last-Modified is the latest write to any
+     * of them, or the startup time.
+     */
+    public ResourceVersion version(Resource... resources) {
+        StringBuilder tag = new StringBuilder(epoch);
+        long lastModified = -1;
+        for (Resource resource : resources) {
+            Generation generation = generations.get(resource);
+            tag.append('.').append(Long.toString(generation.count.get(), 36));
+            lastModified = Math.max(lastModified, generation.advancedAt.get());
+        }
+        return new ResourceVersion(tag.toString(), lastModified);
+    }
+
+    private static final class Generation {
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong advancedAt = new AtomicLong(System.currentTimeMillis());
+
+        private void advance() {
+            count.incrementAndGet();
+            advancedAt.accumulateAndGet(System.currentTimeMillis(), Math::max);
+        }
+    }
+}
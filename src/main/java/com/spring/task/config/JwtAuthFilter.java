@@ -2,9 +2,11 @@ package com.spring.task.config;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.service.TokenService;
 import com.spring.task.service.serviceimpl.UserDetailsServiceImpl;
 import com.spring.task.util.JwtUtils;
+import com.spring.task.util.VerifiedToken;
 import com.spring.task.web.ApiError;
 import io.jsonwebtoken.*;
 import jakarta.servlet.FilterChain;
@@ -13,6 +15,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -53,6 +56,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private TokenService tokenService;
 
+    // when disabled, tokens are trusted on signature and expiry alone and logouts are not seen by this node
+    @Value("${jwt.allowlist-check:true}")
+    private boolean allowlistCheck;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException, JwtException {
 
@@ -63,12 +70,20 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             token = authHeader.substring(7);
 
             try {
-                if (tokenService.findByToken(token).isPresent()) {
-                    username = jwtUtils.extractUsername(token);
+                // signature and expiry are checked once here; the verified claims are reused below
+                VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+                if (!allowlistCheck || tokenService.findByToken(token).isPresent()) {
+                    username = verifiedToken.getSubject();
 
                     if(username != null && SecurityContextHolder.getContext().getAuthentication() == null){
-                        UserDetails userDetails = userDetailsServiceImpl.loadUserByUsername(username);
-                        if(jwtUtils.validateToken(token, userDetails)){
+                        UserDetails userDetails;
+                        if (jwtUtils.isStatelessAuthorization() && verifiedToken.getRoles() != null) {
+                            // the roles were signed into the token, so no user lookup is needed
+                            userDetails = new CustomUserDetails(username, verifiedToken.getRoles());
+                        } else {
+                            userDetails = userDetailsServiceImpl.loadUserByUsername(username);
+                        }
+                        if(jwtUtils.validateToken(verifiedToken, userDetails)){
                             UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                             authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -92,6 +107,10 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             } catch (IllegalArgumentException e) {
                 this.onError(request, response, "JWT Token","JWT token is expired", HttpStatus.FORBIDDEN);
                 return;
+            } catch (JwtException e) {
+                logger.error("JWT token signature is invalid");
+                this.onError(request, response, "JWT Token", "Invalid token", HttpStatus.UNAUTHORIZED);
+                return;
             }
         }
 
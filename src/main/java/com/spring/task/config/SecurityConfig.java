@@ -1,7 +1,11 @@
 package com.spring.task.config;
 
+import com.spring.task.security.BoundedPasswordEncoder;
 import com.spring.task.service.serviceimpl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -18,6 +22,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
@@ -32,7 +38,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, AuthenticationProvider authenticationProvider) throws Exception {
         return httpSecurity
                 .csrf(csrf -> csrf.disable())
                 .headers((headerConfig) ->
@@ -42,26 +48,34 @@ public class SecurityConfig {
                 )
                 .authorizeHttpRequests( auth ->
                         auth
+                                // streamed responses complete in an async dispatch of an already authorized request
+                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                 .requestMatchers("/api/registerUser", "/api/authenticate", "/api/refreshToken").permitAll()
                                 .requestMatchers("/api/products/**", "/api/category/**", "/api/roles/**", "/api/users", "/api/profile", "/api/logout").authenticated()
+                                .requestMatchers("/actuator/**").hasAuthority("ROLE_ADMIN")
                 )
                 .sessionManagement(config ->
                             config.sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
-                .authenticationProvider(authenticationProvider())
+                .authenticationProvider(authenticationProvider)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class).build();
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    // BCrypt runs on its own bounded pool so login bursts are shed with 429 instead of starving request threads
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(@Value("${password.hash.pool-size:0}") int poolSize,
+                                           @Value("${password.hash.queue-capacity:64}") int queueCapacity,
+                                           @Value("${password.hash.retry-after:PT1S}") Duration retryAfter,
+                                           MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), threads, queueCapacity, retryAfter, meterRegistry);
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
         authenticationProvider.setUserDetailsService(userDetailsService());
-        authenticationProvider.setPasswordEncoder(passwordEncoder());
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
         return authenticationProvider;
     }
 
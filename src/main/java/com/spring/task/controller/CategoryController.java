@@ -5,16 +5,20 @@ import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.CategoryRequest;
 import com.spring.task.payload.response.CategoryResponse;
 import com.spring.task.service.CategoryService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
+import com.spring.task.web.ConditionalRequests;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class for handling category-related endpoints.
@@ -48,31 +52,43 @@ public class CategoryController {
     /**
      * Retrieves a category by its ID.
      * Only users with the 'ROLE_ADMIN' or 'ROLE_MANAGER' authority are allowed to access this endpoint.
+     * Answers 304 Not Modified without loading the category when the client's ETag or Last-Modified is current.
      *
-     * @param id The ID of the category to retrieve.
+     * @param id         The ID of the category to retrieve.
+     * @param webRequest The request, checked for If-None-Match and If-Modified-Since.
      * @return A ResponseEntity containing the ApiResponse with the details of the retrieved category.
      * @throws ResourceNotFoundException if the category with the specified ID is not found.
      */
     @GetMapping("{categoryId}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
-    public ResponseEntity<ApiResponse> getCategoryById(@PathVariable("categoryId") Long id) {
+    public ResponseEntity<ApiResponse> getCategoryById(@PathVariable("categoryId") Long id, WebRequest webRequest) {
+        Optional<ResourceVersion> version = categoryService.getCategoryVersion(id);
+        if (version.isPresent() && ConditionalRequests.isNotModified(webRequest, version.get())) {
+            return null;
+        }
         Category category = categoryService.getCategoryById(id).orElseThrow(() -> new ResourceNotFoundException("Error: Category is not found."));
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get Category By ID ", categoryService.mapEntityToResponse(category)), HttpStatus.OK);
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get Category By ID ", categoryService.mapEntityToResponse(category)));
     }
 
     /**
      * Retrieves all categories.
      * Only users with the 'ROLE_ADMIN' or 'ROLE_MANAGER' authority are allowed to access this endpoint.
+     * Answers 304 Not Modified without loading anything when no category changed since the client's ETag; the list
+     * is sent without Last-Modified.
      *
+     * @param webRequest The request, checked for If-None-Match.
      * @return A ResponseEntity containing the ApiResponse with a list of all categories.
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
-    public ResponseEntity<ApiResponse> getAllCategories() {
+    public ResponseEntity<ApiResponse> getAllCategories(WebRequest webRequest) {
+        if (ConditionalRequests.isCollectionNotModified(webRequest, categoryService.getCategoriesVersion())) {
+            return null;
+        }
         List<CategoryResponse> allCategoriesLst = categoryService.getAllCategoriesLst();
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all Categories", allCategoriesLst), HttpStatus.OK);
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all Categories", allCategoriesLst));
     }
 
     /**
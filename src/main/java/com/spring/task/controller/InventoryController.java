@@ -0,0 +1,84 @@
+package com.spring.task.controller;
+
+import com.spring.task.exception.InsufficientInventoryException;
+import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.InventoryAdjustment;
+import com.spring.task.payload.request.InventoryAdjustmentRequest;
+import com.spring.task.payload.request.InventoryItem;
+import com.spring.task.payload.request.InventoryRequest;
+import com.spring.task.service.InventoryService;
+import com.spring.task.web.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Controller class for adjusting product stock.
+ * Reservations and releases change only the inventory of the products, atomically and without reading them first,
+ * so concurrent orders of the same product can neither oversell it nor lose each other's updates.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/products/inventory/")
+public class InventoryController {
+
+    private final InventoryService inventoryService;
+
+    /**
+     * Reserves stock of one or more products, all or none.
+     * Users with ROLE_ADMIN or ROLE_MANAGER authority can access this endpoint.
+     *
+     * @param inventoryRequest The products and quantities to reserve; repeated products are summed.
+     * @return A response entity with the reserved quantities per product and a success message.
+     * @throws InsufficientInventoryException If a product has too few items in stock; nothing is reserved.
+     * @throws ResourceNotFoundException      If a product does not exist; nothing is reserved.
+     */
+    @PostMapping("reserve")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
+    public ResponseEntity<ApiResponse> reserveInventory(@Valid @RequestBody InventoryRequest inventoryRequest) {
+        List<InventoryItem> reserved = inventoryService.reserve(inventoryRequest.getItems());
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Inventory reserved successfully", reserved), HttpStatus.OK);
+    }
+
+    /**
+     * Returns previously reserved stock of one or more products, all or none.
+     * Users with ROLE_ADMIN or ROLE_MANAGER authority can access this endpoint.
+     *
+     * @param inventoryRequest The products and quantities to release; repeated products are summed.
+     * @return A response entity with the released quantities per product and a success message.
+     * @throws ResourceNotFoundException If a product does not exist; nothing is released.
+     */
+    @PostMapping("release")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
+    public ResponseEntity<ApiResponse> releaseInventory(@Valid @RequestBody InventoryRequest inventoryRequest) {
+        List<InventoryItem> released = inventoryService.release(inventoryRequest.getItems());
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Inventory released successfully", released), HttpStatus.OK);
+    }
+
+    /**
+     * Adds signed deltas to the inventory of one or more products, without checking the stock.
+     * In write-behind mode the deltas are buffered and written shortly after, and 202 Accepted is returned; reads
+     * include them right away.
+     * Users with ROLE_ADMIN or ROLE_MANAGER authority can access this endpoint.
+     *
+     * @param adjustmentRequest The products and deltas to add; repeated products are summed.
+     * @return A response entity with the deltas per product and a success message.
+     * @throws ResourceNotFoundException If a product does not exist; nothing is adjusted.
+     */
+    @PostMapping("adjust")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
+    public ResponseEntity<ApiResponse> adjustInventory(@Valid @RequestBody InventoryAdjustmentRequest adjustmentRequest) {
+        List<InventoryAdjustment> adjusted = inventoryService.adjust(adjustmentRequest.getItems());
+
+        HttpStatus status = inventoryService.isWriteBehind() ? HttpStatus.ACCEPTED : HttpStatus.OK;
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), status, "Inventory adjusted successfully", adjusted), status);
+    }
+}
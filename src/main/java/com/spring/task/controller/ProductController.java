@@ -1,20 +1,45 @@
 package com.spring.task.controller;
 
+import com.spring.task.cache.ProductSuggestIndex;
 import com.spring.task.entity.Product;
+import com.spring.task.enumration.ImportFormat;
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.exception.CommonException;
+import com.spring.task.exception.PreconditionFailedException;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.payload.request.ProductPatch;
 import com.spring.task.payload.request.ProductRequest;
+import com.spring.task.payload.response.ProductFacetsResponse;
+import com.spring.task.payload.response.ProductImportResponse;
+import com.spring.task.payload.response.ProductPageResponse;
 import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.payload.response.ProductSuggestion;
+import com.spring.task.service.ProductExportService;
+import com.spring.task.service.ProductImportService;
 import com.spring.task.service.ProductService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
+import com.spring.task.web.ConditionalRequests;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class for handling product-related endpoints.
@@ -28,7 +53,17 @@ import java.util.List;
 @RequestMapping("/api/products/")
 public class ProductController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final ProductService productService;
+    private final ProductExportService productExportService;
+    private final ProductImportService productImportService;
+    private final ProductSuggestIndex productSuggestIndex;
 
     /**
      * Creates a new product.
@@ -47,36 +82,183 @@ public class ProductController {
         return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.CREATED, "Product created successfully", productService.mapEntityToResponse(savedProduct)), HttpStatus.CREATED);
     }
 
+    /**
+     * Imports products in bulk from an uploaded CSV or NDJSON file.
+     * Only users with ROLE_ADMIN authority are allowed to access this endpoint.
+     * CSV files need a header row naming the product request fields. Valid rows are imported, the others are
+     * listed in the returned report with their row number and the reason they were rejected.
+     *
+     * @param file The uploaded .csv or .ndjson file.
+     * @return A response entity with the import report.
+     * @throws IOException if the upload cannot be read.
+     */
+    @PostMapping(value = "import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> importProducts(@RequestParam("file") MultipartFile file) throws IOException {
+        ImportFormat format = ImportFormat.fromFile(file.getOriginalFilename(), file.getContentType());
+        ProductImportResponse importReport;
+        try (InputStream inputStream = file.getInputStream()) {
+            importReport = productImportService.importProducts(inputStream, format);
+        }
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Products imported", importReport), HttpStatus.OK);
+    }
+
     /**
      * Retrieves a product by its ID.
      * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
      * Retrieves the product from the database by its ID and returns it in the response.
+     * Answers 304 Not Modified when the client's ETag or Last-Modified is current, validated against the cached
+     * product without a database read on a cache hit.
      *
-     * @param id The ID of the product to retrieve.
+     * @param id         The ID of the product to retrieve.
+     * @param webRequest The request, checked for If-None-Match and If-Modified-Since.
      * @return A response entity with the retrieved product and a success message.
      * @throws ResourceNotFoundException if the product with the given ID is not found.
      */
     @GetMapping("{productId}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
-    public ResponseEntity<ApiResponse> getProductById(@PathVariable("productId") Long id) {
-        Product productById = productService.getProductById(id).orElseThrow(() -> new ResourceNotFoundException("Error: Product is not found."));
+    public ResponseEntity<ApiResponse> getProductById(@PathVariable("productId") Long id, WebRequest webRequest) {
+        Optional<ResourceVersion> version = productService.getProductVersion(id);
+        if (version.isPresent() && ConditionalRequests.isNotModified(webRequest, version.get())) {
+            return null;
+        }
+        ProductResponse productById = productService.getProductResponseById(id).orElseThrow(() -> new ResourceNotFoundException("Error: Product is not found."));
+
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get Product By ID ", productById));
+    }
+
+    /**
+     * Searches products by name, brand and description, best matches first.
+     * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
+     * The query supports quoted phrases, OR and -exclusions; name matches rank above brand and description matches.
+     *
+     * @param query  The search terms.
+     * @param size   The page size, at most 100. Defaults to 20.
+     * @param cursor The nextCursor of the previous page of the same search.
+     * @return A response entity with one page of matching products and a success message.
+     */
+    @GetMapping("search")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
+    public ResponseEntity<ApiResponse> searchProducts(@RequestParam("q") String query,
+                                                      @RequestParam(value = "size", required = false) Integer size,
+                                                      @RequestParam(value = "cursor", required = false) String cursor) {
+        if (query.isBlank()) {
+            throw new IllegalArgumentException("Search query must not be blank");
+        }
+        int pageSize = size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        ProductPageResponse productPage = productService.searchProducts(query.strip(), cursor, pageSize);
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Search products", productPage), HttpStatus.OK);
+    }
+
+    /**
+     * Suggests products as the user types, from the in-memory suggest index.
+     * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
+     * Every word of the query is matched as a prefix of the product name or brand words; small typos are tolerated
+     * when there are not enough exact matches.
+     *
+     * @param query The text typed so far.
+     * @param limit The number of suggestions, at most 20. Defaults to 10.
+     * @return A response entity with the suggested products and a success message.
+     */
+    @GetMapping("suggest")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
+    public ResponseEntity<ApiResponse> suggestProducts(@RequestParam("q") String query,
+                                                       @RequestParam(value = "limit", defaultValue = "10") int limit) {
+        List<ProductSuggestion> suggestions = productSuggestIndex.suggest(query, Math.max(1, Math.min(limit, MAX_SUGGESTIONS)));
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get Product By ID ", productService.mapEntityToResponse(productById)), HttpStatus.OK);
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Suggest products", suggestions), HttpStatus.OK);
     }
 
     /**
-     * Retrieves all products.
+     * Retrieves products.
      * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
-     * Retrieves all products from the database and returns them in the response.
+     * Without paging or filter parameters all products are returned. Otherwise one keyset page of the products
+     * matching the filter is returned, along with the cursor of the next page; the filter has to be repeated with
+     * the cursor.
+     * Answers 304 Not Modified without loading anything when no product, category or role changed since the
+     * client's ETag; lists are sent without Last-Modified.
      *
-     * @return A response entity with the list of all products and a success message.
+     * @param sort       The sort key: id, name, price or updatedAt. Defaults to id.
+     * @param direction  The sort direction, asc or desc. Defaults to asc.
+     * @param size       The page size, at most 100. Defaults to 20.
+     * @param cursor     The nextCursor of the previous page; carries the sort order of the listing.
+     * @param withTotal  Whether to include an estimated total number of products; only given without a filter.
+     * @param categoryId Category IDs to include.
+     * @param brand      Brands to include.
+     * @param userId     The owner ID.
+     * @param minPrice   The lowest price, inclusive.
+     * @param maxPrice   The highest price, inclusive.
+     * @param inStock    Whether to only include products with inventory.
+     * @param webRequest The request, checked for If-None-Match.
+     * @return A response entity with the products and a success message.
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
-    public ResponseEntity<ApiResponse> getAllProducts() {
-        List<ProductResponse> getProducts = productService.getAllProductsLst();
+    public ResponseEntity<ApiResponse> getAllProducts(@RequestParam(value = "sort", required = false) String sort,
+                                                      @RequestParam(value = "direction", required = false) String direction,
+                                                      @RequestParam(value = "size", required = false) Integer size,
+                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                      @RequestParam(value = "withTotal", defaultValue = "false") boolean withTotal,
+                                                      @RequestParam(value = "categoryId", required = false) List<Long> categoryId,
+                                                      @RequestParam(value = "brand", required = false) List<String> brand,
+                                                      @RequestParam(value = "userId", required = false) Long userId,
+                                                      @RequestParam(value = "minPrice", required = false) Float minPrice,
+                                                      @RequestParam(value = "maxPrice", required = false) Float maxPrice,
+                                                      @RequestParam(value = "inStock", defaultValue = "false") boolean inStock,
+                                                      WebRequest webRequest) {
+        if (ConditionalRequests.isCollectionNotModified(webRequest, productService.getProductsVersion())) {
+            return null;
+        }
+        ProductFilter filter = new ProductFilter(categoryId, brand, userId, minPrice, maxPrice, inStock);
+        if (sort == null && direction == null && size == null && cursor == null && filter.isUnrestricted()) {
+            List<ProductResponse> getProducts = productService.getAllProductsLst();
+
+            return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all products", getProducts));
+        }
+
+        int pageSize = size != null ? Math.max(1, Math.min(size, MAX_PAGE_SIZE)) : DEFAULT_PAGE_SIZE;
+        Sort.Direction sortDirection = direction != null ? Sort.Direction.fromString(direction) : Sort.Direction.ASC;
+        ProductPageResponse productPage = productService.getProductsPage(filter, ProductSortKey.fromParameter(sort), sortDirection, cursor, pageSize, withTotal);
+
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get products page", productPage));
+    }
+
+    /**
+     * Counts the products matching a filter per brand and per category.
+     * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
+     * Takes the same filter parameters as the product listing.
+     *
+     * @return A response entity with the total and the brand and category counts, most frequent first.
+     */
+    @GetMapping("facets")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
+    public ResponseEntity<ApiResponse> getProductFacets(@RequestParam(value = "categoryId", required = false) List<Long> categoryId,
+                                                        @RequestParam(value = "brand", required = false) List<String> brand,
+                                                        @RequestParam(value = "userId", required = false) Long userId,
+                                                        @RequestParam(value = "minPrice", required = false) Float minPrice,
+                                                        @RequestParam(value = "maxPrice", required = false) Float maxPrice,
+                                                        @RequestParam(value = "inStock", defaultValue = "false") boolean inStock) {
+        ProductFacetsResponse facets = productService.getProductFacets(new ProductFilter(categoryId, brand, userId, minPrice, maxPrice, inStock));
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all products", getProducts), HttpStatus.OK);
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get product facets", facets), HttpStatus.OK);
+    }
+
+    /**
+     * Exports the whole product catalog as newline-delimited JSON, one product per line.
+     * Users with ROLE_ADMIN, ROLE_MANAGER, or ROLE_USER authority can access this endpoint.
+     * Products are streamed to the client while they are read from the database, so the response starts
+     * immediately and memory use does not depend on the catalog size.
+     *
+     * @return A response entity streaming the products.
+     */
+    @GetMapping("export")
+    @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER', 'ROLE_USER')")
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productExportService::exportProducts;
+
+        return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
     }
 
     /**
@@ -98,6 +280,66 @@ public class ProductController {
         return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Product updated successfully", productService.mapEntityToResponse(savedProduct)), HttpStatus.OK);
     }
 
+    /**
+     * Partially updates a product with a JSON merge patch.
+     * Only users with ROLE_ADMIN authority can access this endpoint.
+     * Only the members present in the document are written, in a single UPDATE; a member set to null clears the field,
+     * which only expiryDate allows. Sending the ETag of an earlier GET as If-Match makes the update fail with
+     * 412 Precondition Failed if the product has changed since.
+     *
+     * @param id           The ID of the product to be patched.
+     * @param productPatch The merge patch document.
+     * @param ifMatch      The ETag the product must still have, or * for any.
+     * @return A response entity with the patched product, its new ETag and a success message.
+     * @throws ResourceNotFoundException   If the product with the specified ID is not found.
+     * @throws PreconditionFailedException If the product no longer matches If-Match.
+     */
+    @PatchMapping(value = "{productId}", consumes = {MERGE_PATCH_JSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> patchProduct(@PathVariable("productId") Long id, @Valid @RequestBody ProductPatch productPatch,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Product patchedProduct = productService.patchProduct(id, productPatch, ifMatch);
+
+        HttpHeaders headers = new HttpHeaders();
+        productService.getProductVersion(id).ifPresent(version -> headers.setETag(version.eTag()));
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Product updated successfully", productService.mapEntityToResponse(patchedProduct)), headers, HttpStatus.OK);
+    }
+
+    /**
+     * Updates every product matching the given criteria in a single UPDATE: changes its price by a percentage or an
+     * amount, moves it to another category and/or sets its inventory.
+     * Only users with ROLE_ADMIN authority can access this endpoint.
+     *
+     * @param bulkUpdateRequest The criteria selecting the products and the changes to apply.
+     * @return A response entity with the number of updated products and a success message.
+     * @throws CommonException           If no criterion or no change is given.
+     * @throws ResourceNotFoundException If the target category is not found.
+     */
+    @PostMapping("bulk-update")
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> bulkUpdateProducts(@Valid @RequestBody ProductBulkUpdateRequest bulkUpdateRequest) {
+        int updated = productService.bulkUpdate(bulkUpdateRequest);
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Products updated: " + updated, updated), HttpStatus.OK);
+    }
+
+    /**
+     * Deletes the products with the specified IDs in a single DELETE.
+     * Only users with ROLE_ADMIN authority can access this endpoint.
+     * IDs of products that do not exist are ignored.
+     *
+     * @param ids The IDs of the products to be deleted, at most 1000.
+     * @return A response entity with the number of deleted products and a success message.
+     * @throws CommonException If more than 1000 IDs are given.
+     */
+    @DeleteMapping
+    @PreAuthorize("hasAuthority('ROLE_ADMIN')")
+    public ResponseEntity<ApiResponse> deleteProducts(@RequestParam("ids") List<Long> ids) {
+        int deleted = productService.deleteByIds(ids);
+
+        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Products deleted: " + deleted, deleted), HttpStatus.OK);
+    }
+
     /**
      * Deletes a product with the specified ID.
      * Only users with ROLE_ADMIN authority can access this endpoint.
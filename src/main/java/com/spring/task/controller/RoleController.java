@@ -5,16 +5,20 @@ import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.RoleRequest;
 import com.spring.task.payload.response.RoleResponse;
 import com.spring.task.service.RoleService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
+import com.spring.task.web.ConditionalRequests;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Controller class for handling role-related endpoints.
@@ -50,32 +54,44 @@ public class RoleController {
      * Retrieves a role by its ID.
      * Users with ROLE_ADMIN or ROLE_MANAGER authority can access this endpoint.
      * Retrieves a role based on the provided role ID.
+     * Answers 304 Not Modified without loading the role when the client's ETag or Last-Modified is current.
      *
-     * @param id The ID of the role to retrieve.
+     * @param id         The ID of the role to retrieve.
+     * @param webRequest The request, checked for If-None-Match and If-Modified-Since.
      * @return A response entity with the retrieved role details.
      * @throws ResourceNotFoundException If the role with the given ID is not found.
      */
     @GetMapping("{roleId}")
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
-    public ResponseEntity<ApiResponse> getRoleById(@PathVariable("roleId") Long id) {
+    public ResponseEntity<ApiResponse> getRoleById(@PathVariable("roleId") Long id, WebRequest webRequest) {
+        Optional<ResourceVersion> version = roleService.getRoleVersion(id);
+        if (version.isPresent() && ConditionalRequests.isNotModified(webRequest, version.get())) {
+            return null;
+        }
         Role getRole = roleService.getRoleById(id).orElseThrow(() -> new ResourceNotFoundException("Error: Role is not found."));
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all roles", roleService.mapEntityToResponse(getRole)), HttpStatus.OK);
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get all roles", roleService.mapEntityToResponse(getRole)));
     }
 
     /**
      * Retrieves all roles.
      * Users with ROLE_ADMIN or ROLE_MANAGER authority can access this endpoint.
      * Retrieves a list of all roles available in the system.
+     * Answers 304 Not Modified without loading anything when no role changed since the client's ETag; the list is
+     * sent without Last-Modified.
      *
+     * @param webRequest The request, checked for If-None-Match.
      * @return A response entity with the list of roles.
      */
     @GetMapping
     @PreAuthorize("hasAnyAuthority('ROLE_ADMIN', 'ROLE_MANAGER')")
-    public ResponseEntity<ApiResponse> getAllRoles() {
+    public ResponseEntity<ApiResponse> getAllRoles(WebRequest webRequest) {
+        if (ConditionalRequests.isCollectionNotModified(webRequest, roleService.getRolesVersion())) {
+            return null;
+        }
         List<RoleResponse> getRoles = roleService.getAllRoles();
 
-        return new ResponseEntity<>(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get role", getRoles), HttpStatus.OK);
+        return ConditionalRequests.ok(new ApiResponse(LocalDateTime.now(), HttpStatus.OK, "Get role", getRoles));
     }
 
     /**
@@ -3,6 +3,7 @@ package com.spring.task.controller;
 import com.spring.task.entity.User;
 import com.spring.task.exception.UnauthorizedException;
 import com.spring.task.payload.request.AuthRequest;
+import com.spring.task.payload.request.RefreshTokenRequest;
 import com.spring.task.payload.request.UserRequest;
 import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.payload.response.JwtResponse;
@@ -54,11 +55,25 @@ public class UserController {
      * Registers a new user with the provided user details.
      *
      * @param authRequest The request body containing the user details.
+     * @param request     the HTTP request, used for the client address login attempts are throttled by
      * @return A ResponseEntity containing the ApiResponse with information about the newly created user.
      */
     @PostMapping("authenticate")
-    public ResponseEntity<?> authenticateAndGetToken(@Valid @RequestBody AuthRequest authRequest) {
-        JwtResponse userToken = userService.authenticate(authRequest);
+    public ResponseEntity<?> authenticateAndGetToken(@Valid @RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        JwtResponse userToken = userService.authenticate(authRequest, request.getRemoteAddr());
+
+        return ResponseEntity.ok(userToken);
+    }
+
+    /**
+     * Exchanges a refresh token for a new access/refresh token pair without checking the password again.
+     *
+     * @param refreshTokenRequest The request body containing the refresh token.
+     * @return A ResponseEntity containing the new access and refresh tokens.
+     */
+    @PostMapping("refreshToken")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        JwtResponse userToken = userService.refreshToken(refreshTokenRequest);
 
         return ResponseEntity.ok(userToken);
     }
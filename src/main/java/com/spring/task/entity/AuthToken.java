@@ -5,23 +5,40 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
+/**
+ * Access and refresh tokens issued to a user, stored as SHA-256 digests so lookups are index probes on 32-byte keys.
+ * The raw tokens are never persisted.
+ */
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "tbl_token")
+@Table(name = "tbl_token", indexes = {
+        @Index(name = "ux_token_token_digest", columnList = "token_digest", unique = true),
+        @Index(name = "ux_token_refresh_token_digest", columnList = "refresh_token_digest", unique = true),
+        @Index(name = "idx_token_username", columnList = "username"),
+        @Index(name = "idx_token_expires_at", columnList = "expires_at")
+})
 public class AuthToken {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "token_id_seq")
+    @SequenceGenerator(name = "token_id_seq", sequenceName = "tbl_token_seq", allocationSize = 50)
     private Long id;
 
-    @Column(nullable = false)
-    private String token;
+    // NOT NULL is enforced by schema.sql, so the column can still be added to a table holding legacy rows
+    @Column(name = "token_digest", length = 32)
+    private byte[] tokenDigest;
 
-    @Column(nullable = false)
-    private String refreshToken;
+    @Column(name = "refresh_token_digest", length = 32)
+    private byte[] refreshTokenDigest;
 
     @Column(nullable = false)
     private String username;
+
+    // when both the access and the refresh token have expired; the row is useless after that and gets purged
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
 }
@@ -15,8 +15,12 @@ import java.time.LocalDateTime;
 @Table(name = "tbl_category")
 public class Category implements Serializable {
 
+    /** Unique index on lower(name), created by schema.sql. */
+    public static final String NAME_UNIQUE_INDEX = "ux_category_lower_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "category_id_seq")
+    @SequenceGenerator(name = "category_id_seq", sequenceName = "tbl_category_seq", allocationSize = 50)
     private Long id;
 
     private String name;
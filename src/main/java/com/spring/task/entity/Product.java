@@ -15,11 +15,25 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "tbl_products")
+@Table(name = "tbl_products", indexes = {
+        @Index(name = "idx_products_name_id", columnList = "name, id"),
+        @Index(name = "idx_products_price_id", columnList = "price, id"),
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_products_category_price_id", columnList = "category, price, id"),
+        @Index(name = "idx_products_brand_price_id", columnList = "brand, price, id"),
+        @Index(name = "idx_products_user_id_price_id", columnList = "user_id, price, id")
+})
 public class Product implements Serializable {
 
+    /** Sequence handing out product ids; each value reserves a block of ID_ALLOCATION_SIZE ids ending at it. */
+    public static final String ID_SEQUENCE = "tbl_products_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+    /** Unique index on lower(name), created by schema.sql. */
+    public static final String NAME_UNIQUE_INDEX = "ux_products_lower_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(unique = true)
@@ -59,4 +73,8 @@ public class Product implements Serializable {
 
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
+    /** Optimistic lock, bumped by every update; schema.sql makes the column default to 0 for bulk inserts. */
+    @Version
+    private Long version;
 }
\ No newline at end of file
@@ -15,8 +15,12 @@ import java.time.LocalDateTime;
 @Table(name = "tbl_role")
 public class Role implements Serializable {
 
+    /** Unique index on lower(name), created by schema.sql. */
+    public static final String NAME_UNIQUE_INDEX = "ux_role_lower_name";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "role_id_seq")
+    @SequenceGenerator(name = "role_id_seq", sequenceName = "tbl_role_seq", allocationSize = 50)
     private Long id;
 
     private String name;
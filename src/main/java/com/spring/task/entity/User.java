@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -19,7 +20,8 @@ import java.util.Set;
 public class User implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_seq")
+    @SequenceGenerator(name = "user_id_seq", sequenceName = "tbl_user_seq", allocationSize = 50)
     @Column(name = "ID")
     private Long id;
 
@@ -30,7 +32,9 @@ public class User implements Serializable {
     @JsonIgnore
     private String password;
 
+    // roles of users loaded together, e.g. product owners, are read in batches instead of one query per user
     @ManyToMany(fetch = FetchType.EAGER)
+    @BatchSize(size = 50)
     private Set<Role> roles = new HashSet<>();
 
     @Column(name = "created_at")
@@ -0,0 +1,25 @@
+package com.spring.task.enumration;
+
+import java.util.Locale;
+
+public enum ImportFormat {
+    CSV,
+    NDJSON;
+
+    /**
+     * Picks the format from the uploaded file name, falling back to its content type.
+     *
+     * @throws IllegalArgumentException if neither identifies CSV or NDJSON
+     */
+    public static ImportFormat fromFile(String fileName, String contentType) {
+        String name = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+        String type = contentType != null ? contentType.toLowerCase(Locale.ROOT) : "";
+        if (name.endsWith(".csv") || type.startsWith("text/csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || type.startsWith("application/x-ndjson")) {
+            return NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import file, expected a .csv or .ndjson upload");
+    }
+}
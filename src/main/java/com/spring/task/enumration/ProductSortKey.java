@@ -0,0 +1,54 @@
+package com.spring.task.enumration;
+
+import com.spring.task.entity.Product;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Columns the product listing can be ordered by. Each is paired with the product id, so every sort order is total
+ * and can be resumed from the last row of a page.
+ */
+public enum ProductSortKey {
+    ID("id", Long::valueOf, product -> product.getId()),
+    NAME("name", value -> value, Product::getName),
+    PRICE("price", Float::valueOf, Product::getPrice),
+    UPDATED_AT("updatedAt", LocalDateTime::parse, Product::getUpdatedAt);
+
+    private final String attribute;
+    private final Function<String, Comparable<?>> parser;
+    private final Function<Product, Object> extractor;
+
+    ProductSortKey(String attribute, Function<String, Comparable<?>> parser, Function<Product, Object> extractor) {
+        this.attribute = attribute;
+        this.parser = parser;
+        this.extractor = extractor;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public Comparable<?> parse(String value) {
+        return value != null ? parser.apply(value) : null;
+    }
+
+    public String format(Product product) {
+        Object value = extractor.apply(product);
+        return value != null ? value.toString() : null;
+    }
+
+    public static ProductSortKey fromParameter(String parameter) {
+        if (parameter == null || parameter.isBlank()) {
+            return ID;
+        }
+        for (ProductSortKey sortKey : values()) {
+            if (sortKey.attribute.equalsIgnoreCase(parameter) || sortKey.name().equalsIgnoreCase(parameter)) {
+                return sortKey;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort key: " + parameter.toLowerCase(Locale.ROOT)
+                + ", expected one of id, name, price, updatedAt");
+    }
+}
@@ -3,6 +3,7 @@ package com.spring.task.exception;
 import com.spring.task.web.ApiError;
 import com.spring.task.web.ResponseEntityBuilder;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -103,6 +104,49 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.UNAUTHORIZED, "JWT token exception", details));
     }
 
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<?> handleUnauthorizedException(UnauthorizedException ex) {
+        List<String> details = new ArrayList<>();
+        details.add(ex.getMessage());
+
+        return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.UNAUTHORIZED, "Unauthorized", details));
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<?> handleTooManyRequestsException(TooManyRequestsException ex) {
+        List<String> details = new ArrayList<>();
+        details.add(ex.getMessage());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", details), headers);
+    }
+
+    @ExceptionHandler(InsufficientInventoryException.class)
+    public ResponseEntity<?> handleInsufficientInventoryException(InsufficientInventoryException ex) {
+        List<String> details = new ArrayList<>();
+        details.add(ex.getMessage());
+
+        return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.CONFLICT, "Insufficient Inventory", details));
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<?> handlePreconditionFailedException(PreconditionFailedException ex) {
+        List<String> details = new ArrayList<>();
+        details.add(ex.getMessage());
+
+        return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.PRECONDITION_FAILED, "Precondition Failed", details));
+    }
+
+    // a versioned entity was changed by another transaction between being read and written back
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        List<String> details = new ArrayList<>();
+        details.add("The resource was modified concurrently, reload it and retry");
+
+        return ResponseEntityBuilder.build(buildErrorResponse(HttpStatus.CONFLICT, "Conflict", details));
+    }
+
     @ExceptionHandler({Exception.class})
     public ResponseEntity<Object> handleAll(Exception ex, WebRequest request) {
         List<String> details = new ArrayList<String>();
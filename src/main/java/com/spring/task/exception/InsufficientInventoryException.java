@@ -0,0 +1,16 @@
+package com.spring.task.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.Serial;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class InsufficientInventoryException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public InsufficientInventoryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryAdjustment {
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    // added to the inventory, negative to take items out
+    private int delta;
+}
@@ -0,0 +1,20 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryAdjustmentRequest {
+
+    @NotEmpty(message = "Items are required")
+    @Size(max = 1000, message = "At most 1000 items can be adjusted at once")
+    private List<@Valid InventoryAdjustment> items;
+}
@@ -0,0 +1,19 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryItem {
+
+    @NotNull(message = "Product ID is required")
+    private Long productId;
+
+    @Positive(message = "Quantity must be positive")
+    private int quantity;
+}
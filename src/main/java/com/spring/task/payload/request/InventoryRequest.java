@@ -0,0 +1,20 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InventoryRequest {
+
+    @NotEmpty(message = "Items are required")
+    @Size(max = 100, message = "At most 100 items can be adjusted at once")
+    private List<@Valid InventoryItem> items;
+}
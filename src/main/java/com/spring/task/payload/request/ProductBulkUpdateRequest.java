@@ -0,0 +1,53 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Changes applied to every product matching the criteria. As in ProductFilter, values within a criterion are
+ * alternatives and the criteria are combined with AND; at least one criterion is required. Null changes leave the
+ * column unchanged, and pricePercent and priceAmount cannot be combined.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductBulkUpdateRequest {
+
+    @Size(max = 1000, message = "At most 1000 product IDs can be given")
+    private List<@NotNull(message = "Product ID is required") Long> ids;
+
+    private List<Long> categoryIds;
+
+    private List<String> brands;
+
+    private Long userId;
+
+    // price * (1 + pricePercent / 100), rounded to cents
+    @DecimalMin(value = "-100", inclusive = false, message = "Price percent must be greater than -100")
+    private Float pricePercent;
+
+    // price + priceAmount; products whose price would not stay positive are left out
+    private Float priceAmount;
+
+    private Long categoryId;
+
+    @PositiveOrZero(message = "Inventory must not be negative")
+    private Integer inventory;
+
+    public ProductFilter toFilter() {
+        return ProductFilter.builder()
+                .categoryIds(categoryIds)
+                .brands(brands)
+                .userId(userId)
+                .build();
+    }
+}
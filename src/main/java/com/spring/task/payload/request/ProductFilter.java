@@ -0,0 +1,32 @@
+package com.spring.task.payload.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Catalog filter; empty or null criteria do not restrict the result. Values within categoryIds and brands are
+ * alternatives, the criteria are combined with AND.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductFilter {
+
+    private List<Long> categoryIds;
+    private List<String> brands;
+    private Long userId;
+    private Float minPrice;
+    private Float maxPrice;
+    // only products with inventory > 0
+    private boolean inStock;
+
+    public boolean isUnrestricted() {
+        return (categoryIds == null || categoryIds.isEmpty()) && (brands == null || brands.isEmpty())
+                && userId == null && minPrice == null && maxPrice == null && !inStock;
+    }
+}
@@ -0,0 +1,44 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * JSON merge patch (RFC 7386) of a product. A member missing from the document leaves its field null and the column
+ * unchanged; a member set to null reads as Optional.empty() and clears the column, which only expiryDate allows.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductPatch {
+
+    private Optional<@NotEmpty(message = "Name is required") @Size(max = 255, message = "Name must be at most 255 characters") String> name;
+
+    private Optional<@NotEmpty(message = "Description is required") @Size(max = 1000, message = "Description must be at most 1000 characters") String> description;
+
+    private Optional<@NotNull(message = "Price is required") @Positive(message = "Price must be positive") Float> price;
+
+    private Optional<@NotNull(message = "Weight is required") @Positive(message = "Weight must be positive") Float> weight;
+
+    private Optional<@NotEmpty(message = "Weight unit is required") String> weightUnit;
+
+    private Optional<@NotEmpty(message = "Brand is required") @Size(max = 255, message = "Brand must be at most 255 characters") String> brand;
+
+    private Optional<@NotNull(message = "Category ID is required") Long> categoryId;
+
+    private Optional<LocalDateTime> expiryDate;
+
+    private Optional<@NotEmpty(message = "User ID is required") String> userId;
+
+    private Optional<@NotNull(message = "Inventory is required") Integer> inventory;
+}
@@ -0,0 +1,17 @@
+package com.spring.task.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class RefreshTokenRequest {
+
+    @NotEmpty(message = "Refresh token is required")
+    private String refreshToken;
+}
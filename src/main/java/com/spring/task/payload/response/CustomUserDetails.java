@@ -10,11 +10,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
-public class CustomUserDetails extends User implements UserDetails {
+/**
+ * Immutable principal built from a user and its roles, safe to share between requests through UserDetailsCache.
+ */
+public final class CustomUserDetails implements UserDetails {
 
-    private String username;
-    private String password;
-    Collection<? extends GrantedAuthority> authorities;
+    private final String username;
+    private final String password;
+    private final List<GrantedAuthority> authorities;
 
     public CustomUserDetails(User user) {
         this.username = user.getEmail();
@@ -25,11 +28,27 @@ public class CustomUserDetails extends User implements UserDetails {
 
             auths.add(new SimpleGrantedAuthority(role.getName().toUpperCase()));
         }
-        this.authorities = auths;
+        this.authorities = List.copyOf(auths);
+    }
+
+    /**
+     * Builds the details of a user authorized from the role names carried by a verified access token.
+     * No password is held since such a principal is never used for a credentials check.
+     */
+    public CustomUserDetails(String username, Collection<String> roleNames) {
+        this.username = username;
+        this.password = null;
+        List<GrantedAuthority> auths = new ArrayList<>();
+
+        for(String roleName : roleNames){
+
+            auths.add(new SimpleGrantedAuthority(roleName.toUpperCase()));
+        }
+        this.authorities = List.copyOf(auths);
     }
 
     @Override
-    public Collection<? extends GrantedAuthority> getAuthorities() {
+    public Collection<GrantedAuthority> getAuthorities() {
         return authorities;
     }
 
@@ -0,0 +1,16 @@
+package com.spring.task.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacetCount {
+
+    // category id, null for brands
+    private Long id;
+    private String name;
+    private long count;
+}
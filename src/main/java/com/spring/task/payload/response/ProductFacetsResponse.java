@@ -0,0 +1,21 @@
+package com.spring.task.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductFacetsResponse {
+
+    // number of products matching the filter
+    private long total;
+    // most frequent first
+    private List<FacetCount> brands;
+    private List<FacetCount> categories;
+}
@@ -0,0 +1,15 @@
+package com.spring.task.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductImportError {
+
+    // 1-based number of the data row, not counting a CSV header
+    private long row;
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.spring.task.payload.response;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class ProductImportResponse {
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private List<ProductImportError> errors = new ArrayList<>();
+    // set when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+}
@@ -0,0 +1,23 @@
+package com.spring.task.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductPageResponse {
+
+    private List<ProductResponse> content;
+    private int size;
+    private boolean hasNext;
+    // opaque token for the next page, null on the last page
+    private String nextCursor;
+    // planner estimate of the table size, only filled when requested
+    private Long estimatedTotal;
+}
@@ -1,5 +1,6 @@
 package com.spring.task.payload.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +28,7 @@ public class ProductResponse {
     private int inventory;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // the ETag is built from it; not part of the body
+    @JsonIgnore
+    private Long version;
 }
\ No newline at end of file
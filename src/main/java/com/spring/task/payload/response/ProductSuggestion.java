@@ -0,0 +1,15 @@
+package com.spring.task.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProductSuggestion {
+
+    private Long id;
+    private String name;
+    private String brand;
+}
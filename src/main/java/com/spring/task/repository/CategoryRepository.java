@@ -6,14 +6,15 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
-    Optional<Category> findByNameIgnoreCase(String name);
-
-    @Query("SELECT COUNT(c) > 0 FROM Category c WHERE LOWER(c.name) = LOWER(:name) AND c.id <> :id")
-    boolean existsByNameIgnoreCaseAndIdNot(@Param("name") String name, @Param("id") Long id);
+    @Query("SELECT c.id FROM Category c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 
+    @Query("SELECT COUNT(c) AS rowCount, MAX(c.updatedAt) AS lastModified FROM Category c WHERE c.id = :id")
+    VersionProbe probeVersion(@Param("id") Long id);
 }
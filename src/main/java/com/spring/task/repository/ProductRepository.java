@@ -1,18 +1,137 @@
 package com.spring.task.repository;
 
 import com.spring.task.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    // product reads load the category, owner and owner roles mapped into ProductResponse in the same statement
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "user", "user.roles"})
+    List<Product> findAll();
+
+    @Override
+    @EntityGraph(attributePaths = {"category", "user", "user.roles"})
+    Optional<Product> findById(Long id);
+
+    @EntityGraph(attributePaths = {"category", "user", "user.roles"})
+    List<Product> findByIdIn(Collection<Long> ids);
+
+    /**
+     * Streams every product with its category and owner in id order over a forward-only cursor.
+     * Must be consumed inside a transaction; rows are read in batches of the fetch size and never dirty-checked.
+     * Owner roles are not join fetched, which would make the cursor consolidate rows, and are batch loaded instead.
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.category JOIN FETCH p.user ORDER BY p.id")
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    Stream<Product> streamAllForExport();
+
+    @Query("SELECT LOWER(p.name) FROM Product p WHERE LOWER(p.name) IN :names")
+    List<String> findExistingNamesIgnoreCase(@Param("names") Collection<String> names);
+
+    /**
+     * Reads one page of full-text matches for a websearch-style query (quoted phrases, OR, -negation) over the
+     * weighted search_vector column maintained by schema.sql, best match first and ties broken by id. Matching is
+     * served by the GIN index on search_vector; the page starts after the (afterScore, afterId) position, pass
+     * +Infinity and 0 for the first page.
+     */
+    @Query(value = "SELECT id, score FROM ("
+            + "SELECT p.id AS id, ts_rank(p.search_vector, q.query) AS score "
+            + "FROM tbl_products p, websearch_to_tsquery('english', :query) AS q(query) "
+            + "WHERE p.search_vector @@ q.query) hits "
+            + "WHERE score < :afterScore OR (score = :afterScore AND id > :afterId) "
+            + "ORDER BY score DESC, id LIMIT :limit", nativeQuery = true)
+    List<SearchHit> searchIds(@Param("query") String query, @Param("afterScore") float afterScore,
+                              @Param("afterId") long afterId, @Param("limit") int limit);
+
+    interface SearchHit {
+        Long getId();
+
+        Float getScore();
+    }
+
+    @Query("SELECT p.id AS id, p.name AS name, p.brand AS brand FROM Product p")
+    List<NameAndBrand> findAllNamesAndBrands();
+
+    interface NameAndBrand {
+        Long getId();
+
+        String getName();
+
+        String getBrand();
+    }
+
+    // planner statistics instead of COUNT(*); -1 until the table has been analyzed
+    @Query(value = "SELECT CAST(reltuples AS BIGINT) FROM pg_class WHERE oid = CAST('tbl_products' AS regclass)", nativeQuery = true)
+    long estimateCount();
+
+    /**
+     * Takes quantity items of the product's stock in one conditional UPDATE; returns 0 if the product is missing or
+     * has fewer items in stock. The drained buffered delta is written along with the reservation and counted as stock. The check and the decrement cannot interleave with another reservation: those wait
+     * for this row's lock, then re-check the condition against the new inventory, so stock never goes negative.
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.inventory = p.inventory + :drained - :quantity, p.version = p.version + 1, p.updatedAt = :now "
+            + "WHERE p.id = :id AND p.inventory + :drained >= :quantity")
+    int reserveInventory(@Param("id") Long id, @Param("quantity") int quantity, @Param("drained") int drained,
+                         @Param("now") LocalDateTime now);
+
+    /**
+     * Locks the product's row for the current transaction, as an UPDATE of it would; returns nothing if it does not
+     * exist.
+     */
+    @Query(value = "SELECT id FROM tbl_products WHERE id = :id FOR NO KEY UPDATE", nativeQuery = true)
+    Optional<Long> lockById(@Param("id") Long id);
+
+    /**
+     * Locks the rows of the given products that no other transaction holds locked, in ascending id order, and
+     * returns their ids; locked and missing products are skipped instead of waited for.
+     */
+    @Query(value = "SELECT id FROM tbl_products WHERE id IN (:ids) ORDER BY id FOR NO KEY UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockUnlockedByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes the products in one statement, without loading them first as deleteAllById does.
+     */
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Product p SET p.inventory = p.inventory + :quantity, p.version = p.version + 1, p.updatedAt = :now "
+            + "WHERE p.id = :id")
+    int releaseInventory(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    // the columns the ETag of a product is built from, read by primary key without loading the product
+    @Query("SELECT p.version AS version, p.inventory AS inventory, p.updatedAt AS updatedAt FROM Product p WHERE p.id = :id")
+    Optional<ProductVersionProbe> probeVersion(@Param("id") Long id);
+
+    interface ProductVersionProbe {
+        Long getVersion();
 
-    Optional<Product> findByNameIgnoreCase(String name);
+        int getInventory();
 
-    @Query("SELECT COUNT(p) > 0 FROM Product p WHERE LOWER(p.name) = LOWER(:name) AND p.id <> :id")
-    boolean existsByNameIgnoreCaseAndIdNot(@Param("name") String name, @Param("id") Long id);
+        LocalDateTime getUpdatedAt();
+    }
 }
@@ -0,0 +1,65 @@
+package com.spring.task.repository;
+
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.util.ProductCursor;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Reads the ids of one page of products matching the filter, ordered by the sort key and id, starting right after
+     * the cursor position. No count query is run; whether a next page exists is known from reading one extra row.
+     *
+     * Only ids are selected so the products can then be loaded with their associations by
+     * {@link ProductRepository#findByIdIn}, which a LIMIT query fetching a collection could not do in the database.
+     *
+     * @param after the position of the last row of the previous page, or null for the first page
+     */
+    Slice<Long> findIdPageAfter(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction, ProductCursor after, int size);
+
+    /**
+     * Counts the products matching the filter per brand, per category and in total, in one grouped query.
+     */
+    List<FacetRow> countFacets(ProductFilter filter);
+
+    /**
+     * Sets the given attributes of one product, increments its version and, unless expectedVersion is null, only
+     * does so while the version is still the expected one. Runs as a single UPDATE statement without loading the
+     * product; associations are given as references.
+     *
+     * @param changes attribute names mapped to their new values
+     * @return the number of updated rows, 0 if the product is gone or its version has moved on
+     */
+    int updateIfVersion(Long id, Long expectedVersion, Map<String, Object> changes);
+
+    /**
+     * Adds a signed delta to the inventory of each given product, incrementing its version and setting updatedAt, in
+     * one UPDATE statement. Products that no longer exist are skipped.
+     *
+     * @param deltas product ids mapped to the amount to add to their inventory
+     * @return the number of updated rows
+     */
+    int addInventory(Map<Long, Integer> deltas, LocalDateTime now);
+
+    /**
+     * Applies the changes of the request to every product matching its ids and filter criteria in one UPDATE,
+     * incrementing their versions and setting updatedAt.
+     *
+     * @return the ids of the updated products
+     */
+    List<Long> bulkUpdate(ProductBulkUpdateRequest request, LocalDateTime now);
+
+    /**
+     * One group of {@link #countFacets}: a brand (categoryId null), a category (brand null) or, with both null and
+     * total set, all matching products.
+     */
+    record FacetRow(String brand, Long categoryId, String categoryName, long count, boolean total) {
+    }
+}
@@ -0,0 +1,246 @@
+package com.spring.task.repository;
+
+import com.spring.task.entity.Product;
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.util.ProductCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset pagination, faceting, conditional and bulk updates over tbl_products. Pages are read with a {@code (sortKey, id) > (lastValue, lastId)}
+ * predicate served by the composite indexes on Product, so any page costs the same as the first one. Filter criteria
+ * become plain column predicates in the same statement, matching the (category | brand | user_id, price, id) indexes.
+ *
+ * Null sort values follow PostgreSQL's default ordering: last when ascending, first when descending.
+ */
+public class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Slice<Long> findIdPageAfter(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction, ProductCursor after, int size) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Product> product = query.from(Product.class);
+        Path<Comparable<Object>> key = product.get(sortKey.getAttribute());
+        Path<Long> id = product.get("id");
+        boolean ascending = direction.isAscending();
+        query.select(id);
+
+        List<Predicate> predicates = filterPredicates(cb, product, filter);
+        if (after != null) {
+            predicates.add(sortKey == ProductSortKey.ID
+                    ? beyond(cb, id, after.id(), ascending)
+                    : keysetPredicate(cb, key, id, after, ascending));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(ascending ? cb.asc(key) : cb.desc(key), ascending ? cb.asc(id) : cb.desc(id));
+
+        List<Long> rows = entityManager.createQuery(query)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        List<Long> content = hasNext ? rows.subList(0, size) : rows;
+        return new SliceImpl<>(content, PageRequest.of(0, size, Sort.by(direction, sortKey.getAttribute(), "id")), hasNext);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<FacetRow> countFacets(ProductFilter filter) {
+        StringBuilder sql = new StringBuilder("SELECT p.brand, c.id, c.name, COUNT(*), GROUPING(p.brand), GROUPING(c.id) "
+                + "FROM tbl_products p JOIN tbl_category c ON c.id = p.category WHERE TRUE");
+        Map<String, Object> parameters = new HashMap<>();
+        appendFilter(sql, parameters, filter);
+        // one scan of the matching rows, aggregated per brand, per category and overall
+        sql.append(" GROUP BY GROUPING SETS ((p.brand), (c.id, c.name), ())");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parameters.forEach(query::setParameter);
+        List<Object[]> rows = query.getResultList();
+        return rows.stream()
+                .map(row -> {
+                    boolean brandGrouped = ((Number) row[4]).intValue() == 0;
+                    boolean categoryGrouped = ((Number) row[5]).intValue() == 0;
+                    return new FacetRow(brandGrouped ? (String) row[0] : null,
+                            categoryGrouped ? ((Number) row[1]).longValue() : null,
+                            categoryGrouped ? (String) row[2] : null,
+                            ((Number) row[3]).longValue(),
+                            !brandGrouped && !categoryGrouped);
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public int updateIfVersion(Long id, Long expectedVersion, Map<String, Object> changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> product = update.from(Product.class);
+        changes.forEach((attribute, value) -> {
+            Path<Object> path = product.get(attribute);
+            if (value == null) {
+                update.<Object>set(path, cb.nullLiteral(path.getJavaType()));
+            } else {
+                update.<Object, Object>set(path, value);
+            }
+        });
+        Path<Long> version = product.get("version");
+        update.set(version, cb.sum(version, 1L));
+
+        Predicate sameId = cb.equal(product.get("id"), id);
+        update.where(expectedVersion == null ? sameId : cb.and(sameId, cb.equal(version, expectedVersion)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int addInventory(Map<Long, Integer> deltas, LocalDateTime now) {
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> product = update.from(Product.class);
+        Path<Long> id = product.get("id");
+        // inventory = inventory + CASE id WHEN :id1 THEN :delta1 ... END WHERE id IN (:ids)
+        CriteriaBuilder.SimpleCase<Long, Integer> delta = cb.selectCase(id);
+        deltas.forEach(delta::when);
+        Path<Integer> inventory = product.get("inventory");
+        update.set(inventory, cb.sum(inventory, delta.otherwise(0)));
+        Path<Long> version = product.get("version");
+        update.set(version, cb.sum(version, 1L));
+        update.set(product.<LocalDateTime>get("updatedAt"), now);
+        update.where(id.in(deltas.keySet()));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> bulkUpdate(ProductBulkUpdateRequest request, LocalDateTime now) {
+        StringBuilder sql = new StringBuilder("UPDATE tbl_products AS p SET version = p.version + 1, updated_at = :now");
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("now", now);
+        if (request.getPricePercent() != null) {
+            sql.append(", price = CAST(ROUND(CAST(p.price * :priceFactor AS numeric), 2) AS real)");
+            parameters.put("priceFactor", 1 + request.getPricePercent() / 100.0);
+        }
+        if (request.getPriceAmount() != null) {
+            sql.append(", price = p.price + :priceAmount");
+            parameters.put("priceAmount", request.getPriceAmount());
+        }
+        if (request.getCategoryId() != null) {
+            sql.append(", category = :categoryId");
+            parameters.put("categoryId", request.getCategoryId());
+        }
+        if (request.getInventory() != null) {
+            sql.append(", inventory = :inventory");
+            parameters.put("inventory", request.getInventory());
+        }
+
+        sql.append(" WHERE TRUE");
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            sql.append(" AND p.id IN (:ids)");
+            parameters.put("ids", request.getIds());
+        }
+        appendFilter(sql, parameters, request.toFilter());
+        if (request.getPriceAmount() != null) {
+            sql.append(" AND p.price + :priceAmount > 0");
+        }
+        // the updated ids come back with the update itself, so exactly those products are evicted from caches
+        sql.append(" RETURNING p.id");
+
+        Query query = entityManager.createNativeQuery(sql.toString());
+        parameters.forEach(query::setParameter);
+        List<Number> ids = query.getResultList();
+        return ids.stream().map(Number::longValue).collect(Collectors.toList());
+    }
+
+    // appends the filter criteria as AND conditions on the tbl_products alias p
+    private static void appendFilter(StringBuilder sql, Map<String, Object> parameters, ProductFilter filter) {
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            sql.append(" AND p.category IN (:categoryIds)");
+            parameters.put("categoryIds", filter.getCategoryIds());
+        }
+        if (filter.getBrands() != null && !filter.getBrands().isEmpty()) {
+            sql.append(" AND p.brand IN (:brands)");
+            parameters.put("brands", filter.getBrands());
+        }
+        if (filter.getUserId() != null) {
+            sql.append(" AND p.user_id = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        if (filter.getMinPrice() != null) {
+            sql.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", filter.getMinPrice());
+        }
+        if (filter.getMaxPrice() != null) {
+            sql.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.getMaxPrice());
+        }
+        if (filter.isInStock()) {
+            sql.append(" AND p.inventory > 0");
+        }
+    }
+
+    private static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Product> product, ProductFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (filter.getCategoryIds() != null && !filter.getCategoryIds().isEmpty()) {
+            predicates.add(product.get("category").get("id").in(filter.getCategoryIds()));
+        }
+        if (filter.getBrands() != null && !filter.getBrands().isEmpty()) {
+            predicates.add(product.get("brand").in(filter.getBrands()));
+        }
+        if (filter.getUserId() != null) {
+            predicates.add(cb.equal(product.get("user").get("id"), filter.getUserId()));
+        }
+        if (filter.getMinPrice() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(product.get("price"), filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            predicates.add(cb.lessThanOrEqualTo(product.get("price"), filter.getMaxPrice()));
+        }
+        if (filter.isInStock()) {
+            predicates.add(cb.greaterThan(product.get("inventory"), 0));
+        }
+        return predicates;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate keysetPredicate(CriteriaBuilder cb, Path<Comparable<Object>> key, Path<Long> id, ProductCursor after, boolean ascending) {
+        Comparable<Object> lastValue = (Comparable<Object>) after.parsedValue();
+        Predicate sameValueLaterId;
+        if (lastValue == null) {
+            // nulls come last ascending and first descending
+            sameValueLaterId = cb.and(cb.isNull(key), beyond(cb, id, after.id(), ascending));
+            return ascending ? sameValueLaterId : cb.or(sameValueLaterId, cb.isNotNull(key));
+        }
+        sameValueLaterId = cb.and(cb.equal(key, lastValue), beyond(cb, id, after.id(), ascending));
+        Predicate laterValue = beyond(cb, key, lastValue, ascending);
+        return ascending
+                ? cb.or(laterValue, sameValueLaterId, cb.isNull(key))
+                : cb.or(laterValue, sameValueLaterId);
+    }
+
+    private static <T extends Comparable<? super T>> Predicate beyond(CriteriaBuilder cb, Path<T> path, T value, boolean ascending) {
+        return ascending ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+    }
+}
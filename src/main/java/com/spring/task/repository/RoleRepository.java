@@ -11,8 +11,10 @@ import java.util.Optional;
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
 
-    Optional<Role> findByNameIgnoreCase(String role);
+    // LOWER rather than the derived query's UPPER, so the unique index on lower(name) is used
+    @Query("SELECT r FROM Role r WHERE LOWER(r.name) = LOWER(:name)")
+    Optional<Role> findByNameIgnoreCase(@Param("name") String role);
 
-    @Query("SELECT COUNT(r) > 0 FROM Role r WHERE LOWER(r.name) = LOWER(:name) AND r.id <> :id")
-    boolean existsByNameIgnoreCaseAndIdNot(@Param("name") String name, @Param("id") Long id);
+    @Query("SELECT COUNT(r) AS rowCount, MAX(r.updatedAt) AS lastModified FROM Role r WHERE r.id = :id")
+    VersionProbe probeVersion(@Param("id") Long id);
 }
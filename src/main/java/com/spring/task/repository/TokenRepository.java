@@ -2,14 +2,34 @@ package com.spring.task.repository;
 
 import com.spring.task.entity.AuthToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TokenRepository extends JpaRepository<AuthToken, Long> {
 
-    Optional<AuthToken> findByToken(String token);
+    Optional<AuthToken> findByTokenDigest(byte[] tokenDigest);
+
+    Optional<AuthToken> findByRefreshTokenDigest(byte[] refreshTokenDigest);
 
     Optional<AuthToken> findByUsername(String username);
+
+    List<AuthToken> findByUsernameIn(Collection<String> usernames);
+
+    @Modifying
+    @Query("UPDATE AuthToken t SET t.tokenDigest = :tokenDigest, t.refreshTokenDigest = :newRefreshTokenDigest, t.expiresAt = :expiresAt " +
+            "WHERE t.id = :id AND t.refreshTokenDigest = :refreshTokenDigest")
+    int rotateTokens(@Param("id") Long id, @Param("refreshTokenDigest") byte[] refreshTokenDigest, @Param("tokenDigest") byte[] tokenDigest,
+                     @Param("newRefreshTokenDigest") byte[] newRefreshTokenDigest, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM tbl_token WHERE id IN (SELECT id FROM tbl_token WHERE expires_at < :now ORDER BY expires_at LIMIT :batchSize)", nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
 }
@@ -2,12 +2,22 @@ package com.spring.task.repository;
 
 import com.spring.task.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByEmail(String username);
+
+    @Query("SELECT u.email FROM User u JOIN u.roles r WHERE r.id = :roleId")
+    List<String> findEmailsByRoleId(@Param("roleId") Long roleId);
+
+    @Query("SELECT u.id FROM User u WHERE u.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,12 @@
+package com.spring.task.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row count and update time of a single row, read instead of the row itself to validate conditional requests.
+ */
+public interface VersionProbe {
+    long getRowCount();
+
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,61 @@
+package com.spring.task.scheduler;
+
+import com.spring.task.service.TokenService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job removing tbl_token rows whose access and refresh tokens have both expired.
+ *
+ * Rows are deleted in batches of {@code token.purge.batch-size}, each in its own transaction, until a batch
+ * comes back short. The number of rows removed and the time taken are logged and published as the
+ * {@code token.purge.deleted} counter and {@code token.purge.duration} timer.
+ */
+@Component
+@ConditionalOnProperty(name = "token.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenPurgeScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(TokenPurgeScheduler.class);
+
+    private final TokenService tokenService;
+    private final int batchSize;
+    private final Counter deletedCounter;
+    private final Timer purgeTimer;
+
+    public TokenPurgeScheduler(TokenService tokenService, @Value("${token.purge.batch-size:1000}") int batchSize, MeterRegistry meterRegistry) {
+        this.tokenService = tokenService;
+        this.batchSize = batchSize;
+        this.deletedCounter = Counter.builder("token.purge.deleted")
+                .description("Expired token rows removed from tbl_token")
+                .register(meterRegistry);
+        this.purgeTimer = Timer.builder("token.purge.duration")
+                .description("Time taken by one purge run")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${token.purge.interval:PT15M}", initialDelayString = "${token.purge.interval:PT15M}")
+    public void purgeExpiredTokens() {
+        long start = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        int totalDeleted = 0;
+        int deleted;
+        do {
+            deleted = tokenService.purgeExpiredTokens(now, batchSize);
+            totalDeleted += deleted;
+        } while (deleted == batchSize);
+
+        long elapsedNanos = System.nanoTime() - start;
+        deletedCounter.increment(totalDeleted);
+        purgeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        logger.info("Purged {} expired token(s) in {} ms", totalDeleted, elapsedNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,131 @@
+package com.spring.task.security;
+
+import com.spring.task.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PasswordEncoder running every hash and verification of the delegate on a fixed-size worker pool with a bounded queue.
+ *
+ * At most {@code poolSize} BCrypt computations run at once whatever the number of concurrent logins and sign-ups, so
+ * they cannot take every CPU from the rest of the API. When the queue is full the call fails immediately with
+ * TooManyRequestsException, answered as 429 with a Retry-After header, instead of piling up request threads.
+ *
+ * Publishes the {@code password.hash.queue.depth} gauge and the {@code password.hash.wait} and
+ * {@code password.hash.duration} timers, the latter two tagged with the operation.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final Timer encodeWaitTimer;
+    private final Timer matchesWaitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, Duration retryAfter, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        executor.prestartAllCoreThreads();
+
+        meterRegistry.gauge("password.hash.queue.depth", executor, pool -> pool.getQueue().size());
+        this.encodeWaitTimer = waitTimer(meterRegistry, "encode");
+        this.matchesWaitTimer = waitTimer(meterRegistry, "matches");
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        logger.info("Password hashing pool initialized with {} thread(s) and queue capacity: {}", poolSize, queueCapacity);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeWaitTimer, encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesWaitTimer, matchesTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T submit(Callable<T> hashing, Timer waitTimer, Timer hashTimer) {
+        long submittedAt = System.nanoTime();
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue is full, rejecting request");
+            throw new TooManyRequestsException("Too many authentication requests, please retry later", retryAfterSeconds);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash.wait")
+                .description("Time a password hashing task spent queued")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("password.hash.duration")
+                .description("Time spent computing a password hash")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hash-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
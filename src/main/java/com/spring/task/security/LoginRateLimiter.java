@@ -0,0 +1,169 @@
+package com.spring.task.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.spring.task.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory throttle for login attempts, keyed separately by email and by client IP.
+ *
+ * Each key owns a token bucket holding {@code capacity} attempts that refills completely over {@code refill-period}.
+ * A bucket is a single AtomicLong updated by compare-and-set, so checks never lock and a rejected attempt costs a
+ * map lookup and a CAS instead of a BCrypt verification. Buckets idle for {@code idle-timeout} are evicted and the
+ * total number of keys is capped by {@code max-keys}, keeping memory bounded under a spray of distinct emails or IPs.
+ *
+ * Throttled attempts are counted by the {@code login.throttled} counter tagged with the key that rejected them.
+ */
+@Component
+public class LoginRateLimiter {
+    private static final Logger logger = LoggerFactory.getLogger(LoginRateLimiter.class);
+    private static final String CACHE_NAME = "loginRateLimiter";
+
+    private final boolean enabled;
+    private final BucketSpec emailSpec;
+    private final BucketSpec ipSpec;
+    private final Cache<String, TokenBucket> buckets;
+    private final LongSupplier nanoClock;
+    private final Counter emailThrottledCounter;
+    private final Counter ipThrottledCounter;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${login.rate-limit.enabled:true}") boolean enabled,
+                            @Value("${login.rate-limit.per-email.capacity:5}") int emailCapacity,
+                            @Value("${login.rate-limit.per-email.refill-period:PT1M}") Duration emailRefillPeriod,
+                            @Value("${login.rate-limit.per-ip.capacity:20}") int ipCapacity,
+                            @Value("${login.rate-limit.per-ip.refill-period:PT1M}") Duration ipRefillPeriod,
+                            @Value("${login.rate-limit.max-keys:1000000}") long maxKeys,
+                            @Value("${login.rate-limit.idle-timeout:PT15M}") Duration idleTimeout,
+                            MeterRegistry meterRegistry) {
+        this(enabled, new BucketSpec(emailCapacity, emailRefillPeriod), new BucketSpec(ipCapacity, ipRefillPeriod),
+                maxKeys, idleTimeout, meterRegistry, System::nanoTime);
+    }
+
+    LoginRateLimiter(boolean enabled, BucketSpec emailSpec, BucketSpec ipSpec, long maxKeys, Duration idleTimeout,
+                     MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.emailSpec = emailSpec;
+        this.ipSpec = ipSpec;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .ticker(nanoClock::getAsLong)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, CACHE_NAME);
+        this.emailThrottledCounter = throttledCounter(meterRegistry, "email");
+        this.ipThrottledCounter = throttledCounter(meterRegistry, "ip");
+        logger.info("Login rate limiter initialized, enabled: {}", enabled);
+    }
+
+    /**
+     * Takes one attempt from the buckets of the client IP and of the email, or from neither: when the email bucket
+     * rejects the attempt, the one taken from the IP bucket is returned, so retries throttled on one account do not
+     * use up the caller's IP allowance.
+     *
+     * @throws TooManyRequestsException if either bucket is empty
+     */
+    public void checkLoginAttempt(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        TokenBucket ipBucket = clientIp != null ? acquire("ip:" + clientIp, ipSpec, ipThrottledCounter) : null;
+        if (email != null) {
+            try {
+                acquire("email:" + email.toLowerCase(Locale.ROOT), emailSpec, emailThrottledCounter);
+            } catch (TooManyRequestsException e) {
+                if (ipBucket != null) {
+                    ipBucket.release(ipSpec);
+                }
+                throw e;
+            }
+        }
+    }
+
+    long size() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private TokenBucket acquire(String key, BucketSpec spec, Counter throttledCounter) {
+        TokenBucket bucket = buckets.get(key, k -> new TokenBucket());
+        long waitNanos = bucket.tryAcquire(spec, nanoClock.getAsLong());
+        if (waitNanos > 0) {
+            throttledCounter.increment();
+            logger.warn("Too many login attempts for {}", key);
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+            throw new TooManyRequestsException("Too many login attempts, please retry later", retryAfterSeconds);
+        }
+        return bucket;
+    }
+
+    private static Counter throttledCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("login.throttled")
+                .description("Login attempts rejected before any password check")
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    record BucketSpec(int capacity, Duration refillPeriod) {
+
+        // time for one attempt to be refilled
+        long emissionIntervalNanos() {
+            return refillPeriod.toNanos() / capacity;
+        }
+
+        // how far ahead of now the bucket may be drawn, i.e. the burst size
+        long burstToleranceNanos() {
+            return emissionIntervalNanos() * (capacity - 1);
+        }
+    }
+
+    /**
+     * Token bucket stored as the instant at which it will be full again (the generic cell rate algorithm form), so the
+     * whole state is one long and an attempt is one compare-and-set.
+     */
+    private static final class TokenBucket {
+        private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+        /**
+         * @return 0 if an attempt was taken, otherwise the nanoseconds until one becomes available
+         */
+        long tryAcquire(BucketSpec spec, long now) {
+            long interval = spec.emissionIntervalNanos();
+            long tolerance = spec.burstToleranceNanos();
+            while (true) {
+                long current = fullAt.get();
+                long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+                long wait = base - now - tolerance;
+                if (wait > 0) {
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, base + interval)) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Gives back an attempt taken by {@link #tryAcquire}.
+         */
+        void release(BucketSpec spec) {
+            fullAt.addAndGet(-spec.emissionIntervalNanos());
+        }
+    }
+}
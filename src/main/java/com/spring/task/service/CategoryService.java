@@ -3,6 +3,7 @@ package com.spring.task.service;
 import com.spring.task.entity.Category;
 import com.spring.task.payload.request.CategoryRequest;
 import com.spring.task.payload.response.CategoryResponse;
+import com.spring.task.util.ResourceVersion;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,8 +15,14 @@ public interface CategoryService {
 
     Optional<Category> getCategoryById(Long id);
 
+    Category getCategoryReference(Long id);
+
     List<CategoryResponse> getAllCategoriesLst();
 
+    Optional<ResourceVersion> getCategoryVersion(Long id);
+
+    ResourceVersion getCategoriesVersion();
+
     void deleteById(Long id);
 
     Category updateCategory(Long id, CategoryRequest categoryRequest);
@@ -0,0 +1,40 @@
+package com.spring.task.service;
+
+import com.spring.task.payload.request.InventoryAdjustment;
+import com.spring.task.payload.request.InventoryItem;
+
+import java.util.List;
+
+public interface InventoryService {
+
+    /**
+     * Takes the items out of stock, all or none.
+     *
+     * @return the items as applied: one per product in ascending ID order, with quantities of repeated products summed
+     * @throws com.spring.task.exception.InsufficientInventoryException if a product has too few items in stock
+     * @throws com.spring.task.exception.ResourceNotFoundException if a product does not exist
+     */
+    List<InventoryItem> reserve(List<InventoryItem> items);
+
+    /**
+     * Puts the items back into stock, all or none.
+     *
+     * @return the items as applied, as for {@link #reserve}
+     * @throws com.spring.task.exception.ResourceNotFoundException if a product does not exist
+     */
+    List<InventoryItem> release(List<InventoryItem> items);
+
+    /**
+     * Adds signed deltas to the inventory of the products, without checking the stock. In write-behind mode the
+     * deltas are buffered and written later; deltas of products deleted by then are dropped.
+     *
+     * @return the deltas as applied: one per product in ascending ID order, with deltas of repeated products summed
+     * @throws com.spring.task.exception.ResourceNotFoundException if a product does not exist
+     */
+    List<InventoryAdjustment> adjust(List<InventoryAdjustment> adjustments);
+
+    /**
+     * Whether {@link #adjust} buffers deltas instead of writing them.
+     */
+    boolean isWriteBehind();
+}
@@ -0,0 +1,9 @@
+package com.spring.task.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface ProductExportService {
+
+    long exportProducts(OutputStream outputStream) throws IOException;
+}
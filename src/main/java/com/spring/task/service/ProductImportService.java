@@ -0,0 +1,12 @@
+package com.spring.task.service;
+
+import com.spring.task.enumration.ImportFormat;
+import com.spring.task.payload.response.ProductImportResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ProductImportService {
+
+    ProductImportResponse importProducts(InputStream inputStream, ImportFormat format) throws IOException;
+}
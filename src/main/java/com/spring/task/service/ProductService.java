@@ -1,8 +1,18 @@
 package com.spring.task.service;
 
 import com.spring.task.entity.Product;
+import com.spring.task.exception.CommonException;
+import com.spring.task.exception.PreconditionFailedException;
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.payload.request.ProductPatch;
 import com.spring.task.payload.request.ProductRequest;
+import com.spring.task.payload.response.ProductFacetsResponse;
+import com.spring.task.payload.response.ProductPageResponse;
 import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.util.ResourceVersion;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,9 +24,47 @@ public interface ProductService {
 
     Optional<Product> getProductById(Long id);
 
+    Optional<ProductResponse> getProductResponseById(Long id);
+
     List<ProductResponse> getAllProductsLst();
 
+    Optional<ResourceVersion> getProductVersion(Long id);
+
+    ResourceVersion getProductsVersion();
+
+    ProductPageResponse getProductsPage(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction, String cursor, int size, boolean withTotal);
+
+    ProductFacetsResponse getProductFacets(ProductFilter filter);
+
+    ProductPageResponse searchProducts(String query, String cursor, int size);
+
     void deleteById(Long id);
 
     Product updateProduct(Long id, ProductRequest productRequest);
+
+    /**
+     * Applies a JSON merge patch in one conditional UPDATE of the changed columns.
+     *
+     * @param ifMatch the If-Match header, or null to patch whatever version is current
+     * @throws PreconditionFailedException if ifMatch does not match the product's current ETag, or the product
+     *                                     changes between checking it and writing
+     */
+    Product patchProduct(Long id, ProductPatch productPatch, String ifMatch);
+
+    /**
+     * Applies the changes to every matching product in one UPDATE. A new inventory replaces any inventory delta still
+     * buffered for the products.
+     *
+     * @return the number of updated products
+     * @throws CommonException if no criterion or no change is given, or both price changes are
+     */
+    int bulkUpdate(ProductBulkUpdateRequest request);
+
+    /**
+     * Deletes the products in one DELETE; ids of products that do not exist are ignored.
+     *
+     * @return the number of deleted products
+     * @throws CommonException if more than 1000 ids are given
+     */
+    int deleteByIds(List<Long> ids);
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.spring.task.service;
 import com.spring.task.entity.Role;
 import com.spring.task.payload.request.RoleRequest;
 import com.spring.task.payload.response.RoleResponse;
+import com.spring.task.util.ResourceVersion;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,6 +19,10 @@ public interface RoleService {
 
     List<RoleResponse> getAllRoles();
 
+    Optional<ResourceVersion> getRoleVersion(Long id);
+
+    ResourceVersion getRolesVersion();
+
     void deleteById(Long id);
 
     Role updateRole(Long id, RoleRequest roleRequest);
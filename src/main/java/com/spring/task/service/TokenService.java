@@ -2,6 +2,7 @@ package com.spring.task.service;
 
 import com.spring.task.entity.AuthToken;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface TokenService {
@@ -9,4 +10,10 @@ public interface TokenService {
     boolean deleteToken(String token);
 
     Optional<AuthToken> findByToken(String token);
+
+    boolean rotateToken(String refreshToken, String newToken, String newRefreshToken);
+
+    void revokeTokensForRole(Long roleId);
+
+    int purgeExpiredTokens(LocalDateTime now, int batchSize);
 }
@@ -2,6 +2,7 @@ package com.spring.task.service;
 
 import com.spring.task.entity.User;
 import com.spring.task.payload.request.AuthRequest;
+import com.spring.task.payload.request.RefreshTokenRequest;
 import com.spring.task.payload.request.UserRequest;
 import com.spring.task.payload.response.JwtResponse;
 import com.spring.task.payload.response.UserResponse;
@@ -17,7 +18,9 @@ public interface UserService {
 
     UserResponse mapEntityToResponse(User user);
 
-    JwtResponse authenticate(AuthRequest authRequest);
+    JwtResponse authenticate(AuthRequest authRequest, String clientIp);
+
+    JwtResponse refreshToken(RefreshTokenRequest refreshTokenRequest);
 
     List<UserResponse> getAllUsers();
 
@@ -26,4 +29,6 @@ public interface UserService {
     String logoutUser(HttpServletRequest request, HttpServletResponse response);
 
     Optional<User> getUserById(String userId);
+
+    User getUserReference(String userId);
 }
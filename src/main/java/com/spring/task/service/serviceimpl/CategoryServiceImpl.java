@@ -1,22 +1,29 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
 import com.spring.task.entity.Category;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.CategoryRequest;
 import com.spring.task.payload.response.CategoryResponse;
 import com.spring.task.repository.CategoryRepository;
+import com.spring.task.repository.VersionProbe;
 import com.spring.task.service.CategoryService;
+import com.spring.task.util.ConstraintViolations;
+import com.spring.task.util.ResourceVersion;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,24 +32,22 @@ public class CategoryServiceImpl implements CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryServiceImpl.class);
 
     private final CategoryRepository categoryRepository;
+    private final ProductResponseCache productResponseCache;
+    private final WriteGenerations writeGenerations;
 
     @Override
     @Transactional
     public Category createCategory(CategoryRequest categoryRequest) {
         logger.info("Creating category: {}", categoryRequest.getName());
-        // validate category exist or not
-        categoryRepository.findByNameIgnoreCase(categoryRequest.getName())
-                .ifPresent(role -> {
-                    logger.error("Category already exists: " + categoryRequest.getName());
-                    throw new ResourceAlreadyExistException("Category already exist" + categoryRequest.getName());
-                });
 
         Category newCategory = new Category();
         BeanUtils.copyProperties(categoryRequest, newCategory);
         newCategory.setUpdatedAt(LocalDateTime.now());
         newCategory.setCreatedAt(LocalDateTime.now());
 
-        return categoryRepository.save(newCategory);
+        Category savedCategory = saveAndFlush(newCategory, () -> new ResourceAlreadyExistException("Category already exist" + categoryRequest.getName()));
+        writeGenerations.advance(WriteGenerations.Resource.CATEGORIES);
+        return savedCategory;
     }
 
     @Override
@@ -50,12 +55,29 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryRepository.findById(id);
     }
 
+    // an unloaded proxy for setting associations; the foreign key constraint checks that the category exists
+    @Override
+    public Category getCategoryReference(Long id) {
+        return categoryRepository.getReferenceById(id);
+    }
+
     @Override
     public List<CategoryResponse> getAllCategoriesLst() {
         return categoryRepository.findAll().stream()
                 .map(this::mapEntityToResponse).collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<ResourceVersion> getCategoryVersion(Long id) {
+        VersionProbe probe = categoryRepository.probeVersion(id);
+        return probe.getRowCount() == 0 ? Optional.empty() : Optional.of(ResourceVersion.of(probe));
+    }
+
+    @Override
+    public ResourceVersion getCategoriesVersion() {
+        return writeGenerations.version(WriteGenerations.Resource.CATEGORIES);
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
@@ -63,6 +85,10 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with Id : " + id));
 
         categoryRepository.delete(category);
+        productResponseCache.invalidateByCategory(id);
+        writeGenerations.advance(WriteGenerations.Resource.CATEGORIES);
+        // the foreign key deletes its products with it
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
     }
 
     @Override
@@ -77,18 +103,30 @@ public class CategoryServiceImpl implements CategoryService {
                     return  new ResourceNotFoundException("Category not found with Id : " + id);
                 });
 
-        // check category name exist or not
-        if (categoryRepository.existsByNameIgnoreCaseAndIdNot(categoryRequest.getName(), id)) {
-            logger.error("Category with name " + categoryRequest.getName() + " already exists");
-            throw new ResourceAlreadyExistException("Category with name " + categoryRequest.getName() + " already exists");
-        }
-
         category.setName(categoryRequest.getName());
         category.setDescription(categoryRequest.getDescription());
         category.setImageUrl(categoryRequest.getImageUrl());
         category.setUpdatedAt(LocalDateTime.now());
 
-        return categoryRepository.save(category);
+        Category savedCategory = saveAndFlush(category, () -> new ResourceAlreadyExistException("Category with name " + categoryRequest.getName() + " already exists"));
+        // cached products embed their category
+        productResponseCache.invalidateByCategory(id);
+        writeGenerations.advance(WriteGenerations.Resource.CATEGORIES);
+
+        return savedCategory;
+    }
+
+    // name uniqueness is enforced by the unique index on lower(name), checked as the row is written
+    private Category saveAndFlush(Category category, Supplier<ResourceAlreadyExistException> nameTaken) {
+        try {
+            return categoryRepository.saveAndFlush(category);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, Category.NAME_UNIQUE_INDEX)) {
+                logger.error("Category with name {} already exists", category.getName());
+                throw nameTaken.get();
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -0,0 +1,172 @@
+package com.spring.task.service.serviceimpl;
+
+import com.spring.task.cache.InventoryDeltaBuffer;
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.exception.InsufficientInventoryException;
+import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.InventoryAdjustment;
+import com.spring.task.payload.request.InventoryItem;
+import com.spring.task.repository.ProductRepository;
+import com.spring.task.service.InventoryService;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Adjusts stock with one conditional UPDATE per product instead of a read-modify-write of the whole product.
+ *
+ * The row lock each UPDATE takes is held until the transaction ends, so the products of a multi-item request are
+ * always updated in ascending ID order: two requests sharing products then lock them in the same order and cannot
+ * deadlock. Requests for a single hot product only wait for each other's one-statement transactions.
+ *
+ * Unchecked adjustments are written with one UPDATE per request or, with {@code inventory.write-behind.enabled},
+ * summed in the {@link InventoryDeltaBuffer} and written in the background; products are checked to exist before
+ * their deltas are accepted, as the direct write does. Reservations lock the product's row,
+ * take its buffered delta and write it together with their conditional decrement.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private final ProductRepository productRepository;
+    private final ProductResponseCache productResponseCache;
+    private final InventoryDeltaBuffer inventoryDeltaBuffer;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteGenerations writeGenerations;
+    private final boolean writeBehind;
+
+    public InventoryServiceImpl(ProductRepository productRepository,
+                                ProductResponseCache productResponseCache,
+                                InventoryDeltaBuffer inventoryDeltaBuffer,
+                                TransactionTemplate transactionTemplate,
+                                WriteGenerations writeGenerations,
+                                @Value("${inventory.write-behind.enabled:false}") boolean writeBehind) {
+        this.productRepository = productRepository;
+        this.productResponseCache = productResponseCache;
+        this.inventoryDeltaBuffer = inventoryDeltaBuffer;
+        this.transactionTemplate = transactionTemplate;
+        this.writeGenerations = writeGenerations;
+        this.writeBehind = writeBehind;
+    }
+
+    @Override
+    @Transactional
+    public List<InventoryItem> reserve(List<InventoryItem> items) {
+        List<InventoryItem> lockOrder = inLockOrder(items);
+        logger.info("Reserving inventory of {} products", lockOrder.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (InventoryItem item : lockOrder) {
+            // a failed item rolls back the ones already reserved
+            // the buffered delta is taken under the row lock and written by this UPDATE, so no concurrent flush can
+            // make it count twice and no absolute write can replace the inventory in between
+            if (inventoryDeltaBuffer.isBuffered(item.getProductId())) {
+                productRepository.lockById(item.getProductId());
+            }
+            int drained = Math.toIntExact(inventoryDeltaBuffer.drain(item.getProductId()));
+            if (productRepository.reserveInventory(item.getProductId(), item.getQuantity(), drained, now) == 0) {
+                if (!productRepository.existsById(item.getProductId())) {
+                    throw productNotFound(item.getProductId());
+                }
+                logger.error("Insufficient inventory of product {} to reserve {}", item.getProductId(), item.getQuantity());
+                throw new InsufficientInventoryException("Insufficient inventory of product with ID: " + item.getProductId());
+            }
+            productResponseCache.invalidate(item.getProductId());
+        }
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return lockOrder;
+    }
+
+    @Override
+    @Transactional
+    public List<InventoryItem> release(List<InventoryItem> items) {
+        List<InventoryItem> lockOrder = inLockOrder(items);
+        logger.info("Releasing inventory of {} products", lockOrder.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        for (InventoryItem item : lockOrder) {
+            if (productRepository.releaseInventory(item.getProductId(), item.getQuantity(), now) == 0) {
+                throw productNotFound(item.getProductId());
+            }
+            productResponseCache.invalidate(item.getProductId());
+        }
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return lockOrder;
+    }
+
+    @Override
+    public List<InventoryAdjustment> adjust(List<InventoryAdjustment> adjustments) {
+        Map<Long, Integer> deltas = sumByProduct(adjustments, InventoryAdjustment::getProductId, InventoryAdjustment::getDelta);
+        deltas.values().removeIf(delta -> delta == 0);
+        if (writeBehind) {
+            // products the buffer holds were checked when they entered it, the rest are checked in one query
+            requireExisting(deltas.keySet().stream().filter(id -> !inventoryDeltaBuffer.contains(id)).toList());
+            deltas.forEach(inventoryDeltaBuffer::add);
+        } else if (!deltas.isEmpty()) {
+            // only the direct write needs a transaction, buffering deltas takes a connection at most for the check
+            transactionTemplate.executeWithoutResult(status -> addInventory(deltas));
+        }
+        return deltas.entrySet().stream()
+                .map(entry -> new InventoryAdjustment(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Override
+    public boolean isWriteBehind() {
+        return writeBehind;
+    }
+
+    private void addInventory(Map<Long, Integer> deltas) {
+        logger.info("Adjusting inventory of {} products", deltas.size());
+        if (productRepository.addInventory(deltas, LocalDateTime.now()) < deltas.size()) {
+            Long missing = deltas.keySet().stream()
+                    .filter(id -> !productRepository.existsById(id))
+                    .findFirst()
+                    .orElse(null);
+            throw productNotFound(missing);
+        }
+        deltas.keySet().forEach(productResponseCache::invalidate);
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+    }
+
+    private void requireExisting(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<Long> existing = productRepository.findExistingIds(ids);
+        if (existing.size() < ids.size()) {
+            throw productNotFound(ids.stream().filter(id -> !existing.contains(id)).findFirst().orElse(null));
+        }
+    }
+
+    // one item per product, in ascending product ID order
+    private static List<InventoryItem> inLockOrder(List<InventoryItem> items) {
+        return sumByProduct(items, InventoryItem::getProductId, InventoryItem::getQuantity).entrySet().stream()
+                .map(entry -> new InventoryItem(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private static <T> Map<Long, Integer> sumByProduct(List<T> items, Function<T, Long> productId, ToIntFunction<T> amount) {
+        Map<Long, Integer> sums = new TreeMap<>();
+        for (T item : items) {
+            sums.merge(productId.apply(item), amount.applyAsInt(item), Math::addExact);
+        }
+        return sums;
+    }
+
+    private static ResourceNotFoundException productNotFound(Long id) {
+        logger.error("Product not found with ID: {}", id);
+        return new ResourceNotFoundException("Product not found with ID: " + id);
+    }
+}
@@ -0,0 +1,74 @@
+package com.spring.task.service.serviceimpl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.spring.task.entity.Product;
+import com.spring.task.repository.ProductRepository;
+import com.spring.task.service.ProductExportService;
+import com.spring.task.service.ProductService;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+public class ProductExportServiceImpl implements ProductExportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductExportServiceImpl.class);
+    // products written between two persistence context clears and output flushes
+    static final int CHUNK_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+
+    /**
+     * Writes every product as one JSON document per line (NDJSON) while reading them from a database cursor.
+     *
+     * The persistence context is cleared after each chunk and the output flushed, so memory use does not grow with the
+     * catalog and the client receives data as soon as the first chunk is read.
+     *
+     * @return the number of products written
+     */
+    @Override
+    @Transactional
+    public long exportProducts(OutputStream outputStream) throws IOException {
+        long start = System.nanoTime();
+        long count = 0;
+        try (Stream<Product> products = productRepository.streamAllForExport();
+             SequenceWriter writer = objectMapper.writer()
+                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                     .withRootValueSeparator("\n")
+                     .writeValues(outputStream)) {
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.write(productService.mapEntityToResponse(iterator.next()));
+                count++;
+                if (count % CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+                if (count == 1 || count % CHUNK_SIZE == 0) {
+                    writer.flush();
+                }
+            }
+            if (count > 0) {
+                outputStream.write('\n');
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        outputStream.flush();
+        logger.info("Exported {} product(s) in {} ms", count, (System.nanoTime() - start) / 1_000_000);
+        return count;
+    }
+}
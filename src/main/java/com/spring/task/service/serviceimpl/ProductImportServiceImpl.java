@@ -0,0 +1,353 @@
+package com.spring.task.service.serviceimpl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.spring.task.cache.ProductSuggestIndex;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.entity.Product;
+import com.spring.task.enumration.ImportFormat;
+import com.spring.task.payload.request.ProductRequest;
+import com.spring.task.payload.response.ProductImportError;
+import com.spring.task.payload.response.ProductImportResponse;
+import com.spring.task.payload.response.ProductSuggestion;
+import com.spring.task.repository.CategoryRepository;
+import com.spring.task.repository.ProductRepository;
+import com.spring.task.repository.UserRepository;
+import com.spring.task.service.ProductImportService;
+import com.spring.task.util.ConstraintViolations;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products from CSV (with a header row naming ProductRequest fields) or NDJSON uploads.
+ *
+ * Rows are parsed and bean-validated one by one, then checked and written per batch: the referenced categories and
+ * users and the product names of a whole batch are each resolved with one IN query, and the valid rows are inserted
+ * with a single JDBC batch in their own transaction. Rows failing any check are reported with their row number and
+ * skipped, the other rows are imported. A batch that loses a race with a concurrent write of the same name, or the
+ * deletion of a referenced category or user, is inserted again row by row, reporting the rows that lost.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportServiceImpl implements ProductImportService {
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportServiceImpl.class);
+    static final int BATCH_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 10000;
+    static final String INSERT_SQL = "INSERT INTO tbl_products (id, sku, name, description, price, weight, weight_unit, brand, "
+            + "category, expiry_date, user_id, inventory, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String RESERVE_IDS_SQL = "SELECT nextval('" + Product.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+
+    private static final CsvMapper CSV_MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final WriteGenerations writeGenerations;
+
+    @Override
+    public ProductImportResponse importProducts(InputStream inputStream, ImportFormat format) throws IOException {
+        long start = System.nanoTime();
+        ImportContext context = new ImportContext();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        if (format == ImportFormat.CSV) {
+            readCsv(reader, context);
+        } else {
+            readNdjson(reader, context);
+        }
+        context.flush();
+
+        ProductImportResponse report = context.report;
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Imported {} of {} product row(s) in {} ms ({} rows/s)", report.getImportedRows(), report.getTotalRows(),
+                elapsedMillis, report.getTotalRows() * 1000 / elapsedMillis);
+        return report;
+    }
+
+    private void readNdjson(BufferedReader reader, ImportContext context) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long rowNumber = context.nextRowNumber();
+            try {
+                context.accept(rowNumber, objectMapper.readValue(line, ProductRequest.class));
+            } catch (JsonProcessingException e) {
+                context.reject(rowNumber, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportContext context) throws IOException {
+        CsvSchema schema = CsvSchema.emptySchema().withHeader();
+        try (MappingIterator<ProductRequest> rows = CSV_MAPPER.readerFor(ProductRequest.class).with(schema).readValues(reader)) {
+            JsonLocation lastFailure = null;
+            while (true) {
+                long rowNumber;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    rowNumber = context.nextRowNumber();
+                    try {
+                        context.accept(rowNumber, rows.nextValue());
+                    } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+                        JsonLocation location = rows.getCurrentLocation();
+                        context.reject(rowNumber, "Malformed row: " + e.getMessage().lines().findFirst().orElse(""));
+                        // the parser could not move past the broken row, so the rest of the file is unreadable
+                        if (location.equals(lastFailure)) {
+                            break;
+                        }
+                        lastFailure = location;
+                    }
+                } catch (JsonProcessingException e) {
+                    context.reject(context.nextRowNumber(), "Unreadable CSV: " + e.getOriginalMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void importBatch(List<ImportRow> batch, Set<String> importedNames, ProductImportResponse report) {
+        Set<Long> categoryIds = batch.stream().map(row -> row.request.getCategoryId()).collect(Collectors.toSet());
+        Set<Long> userIds = batch.stream().map(row -> row.userId).collect(Collectors.toSet());
+        Set<String> names = batch.stream().map(row -> row.lowerCaseName).collect(Collectors.toSet());
+
+        List<ImportRow> validRows = new ArrayList<>(batch.size());
+        try {
+            transactionTemplate.execute(status -> {
+                Set<Long> existingCategoryIds = new HashSet<>(categoryRepository.findExistingIds(categoryIds));
+                Set<Long> existingUserIds = new HashSet<>(userRepository.findExistingIds(userIds));
+                Set<String> existingNames = new HashSet<>(productRepository.findExistingNamesIgnoreCase(names));
+
+                for (ImportRow row : batch) {
+                    String error = null;
+                    if (existingNames.contains(row.lowerCaseName) || importedNames.contains(row.lowerCaseName)) {
+                        error = "Product " + row.request.getName() + " already exists";
+                    } else if (!existingCategoryIds.contains(row.request.getCategoryId())) {
+                        error = "Category Not found with ID: " + row.request.getCategoryId();
+                    } else if (!existingUserIds.contains(row.userId)) {
+                        error = "User not found with ID: " + row.request.getUserId();
+                    }
+                    if (error != null) {
+                        addError(report, row.rowNumber, error);
+                    } else {
+                        importedNames.add(row.lowerCaseName);
+                        validRows.add(row);
+                    }
+                }
+                insert(validRows);
+                return null;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // the checks above do not lock anything, so a concurrent write can still win
+            if (!isConflict(e)) {
+                throw e;
+            }
+            logger.warn("Batch of {} product row(s) conflicted with concurrent writes, inserting them one by one", validRows.size());
+            validRows.removeIf(row -> !insertAlone(row, importedNames, report));
+        }
+        report.setImportedRows(report.getImportedRows() + validRows.size());
+        productSuggestIndex.putAll(validRows.stream()
+                .map(row -> new ProductSuggestion(row.id, row.request.getName(), row.request.getBrand()))
+                .collect(Collectors.toList()));
+    }
+
+    // inserts the row in its own transaction; returns false if it lost to a concurrent write, which is reported
+    private boolean insertAlone(ImportRow row, Set<String> importedNames, ProductImportResponse report) {
+        try {
+            transactionTemplate.execute(status -> {
+                insert(List.of(row));
+                return null;
+            });
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            if (!isConflict(e)) {
+                throw e;
+            }
+            importedNames.remove(row.lowerCaseName);
+            addError(report, row.rowNumber, conflictError(row, e));
+            return false;
+        }
+    }
+
+    // whether a write made concurrently with the batch check broke one of the checked constraints
+    private static boolean isConflict(DataIntegrityViolationException e) {
+        return ConstraintViolations.violates(e, Product.NAME_UNIQUE_INDEX)
+                || ConstraintViolations.violatesForeignKeyTo(e, "tbl_category")
+                || ConstraintViolations.violatesForeignKeyTo(e, "tbl_user");
+    }
+
+    // the same error the batch check reports for the constraint
+    private static String conflictError(ImportRow row, DataIntegrityViolationException e) {
+        if (ConstraintViolations.violates(e, Product.NAME_UNIQUE_INDEX)) {
+            return "Product " + row.request.getName() + " already exists";
+        }
+        if (ConstraintViolations.violatesForeignKeyTo(e, "tbl_category")) {
+            return "Category Not found with ID: " + row.request.getCategoryId();
+        }
+        return "User not found with ID: " + row.request.getUserId();
+    }
+
+    private void insert(List<ImportRow> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        // rows inserted again after a failed batch keep the ids they were given
+        List<ImportRow> unassigned = rows.stream().filter(row -> row.id == null).toList();
+        if (!unassigned.isEmpty()) {
+            Iterator<Long> ids = reserveIds(unassigned.size()).iterator();
+            unassigned.forEach(row -> row.id = ids.next());
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ProductRequest request = row.request;
+            ps.setLong(1, row.id);
+            ps.setString(2, UUID.randomUUID().toString());
+            ps.setString(3, request.getName());
+            ps.setString(4, request.getDescription());
+            ps.setFloat(5, request.getPrice());
+            ps.setFloat(6, request.getWeight());
+            ps.setString(7, request.getWeightUnit());
+            ps.setString(8, request.getBrand());
+            ps.setLong(9, request.getCategoryId());
+            ps.setTimestamp(10, request.getExpiryDate() != null ? Timestamp.valueOf(request.getExpiryDate()) : null);
+            ps.setLong(11, row.userId);
+            ps.setInt(12, request.getInventory());
+            ps.setTimestamp(13, now);
+            ps.setTimestamp(14, now);
+        });
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+    }
+
+    /**
+     * Reserves ids from the product sequence the same way Hibernate's pooled optimizer does: every sequence value v
+     * owns the block (v - ID_ALLOCATION_SIZE, v], so imported rows never collide with ids handed out by the entity
+     * manager and one round trip covers the whole batch.
+     */
+    private List<Long> reserveIds(int count) {
+        int blocks = (count + Product.ID_ALLOCATION_SIZE - 1) / Product.ID_ALLOCATION_SIZE;
+        List<Long> ids = new ArrayList<>(blocks * Product.ID_ALLOCATION_SIZE);
+        for (Long high : jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, blocks)) {
+            for (long id = high - Product.ID_ALLOCATION_SIZE + 1; id <= high; id++) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static void addError(ProductImportResponse report, long rowNumber, String error) {
+        report.setFailedRows(report.getFailedRows() + 1);
+        if (report.getErrors().size() < MAX_REPORTED_ERRORS) {
+            report.getErrors().add(new ProductImportError(rowNumber, error));
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+
+    private static final class ImportRow {
+        private final long rowNumber;
+        private final ProductRequest request;
+        private final Long userId;
+        private final String lowerCaseName;
+        // assigned from the product sequence when the row is inserted
+        private Long id;
+
+        private ImportRow(long rowNumber, ProductRequest request, Long userId) {
+            this.rowNumber = rowNumber;
+            this.request = request;
+            this.userId = userId;
+            this.lowerCaseName = request.getName().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /**
+     * Running state of one import: the report, the pending batch and the names imported so far, which catch
+     * duplicates within the upload itself.
+     */
+    private final class ImportContext {
+        private final ProductImportResponse report = new ProductImportResponse();
+        private final Set<String> importedNames = new HashSet<>();
+        private List<ImportRow> batch = new ArrayList<>(BATCH_SIZE);
+
+        private long nextRowNumber() {
+            report.setTotalRows(report.getTotalRows() + 1);
+            return report.getTotalRows();
+        }
+
+        private void accept(long rowNumber, ProductRequest request) {
+            if (request == null) {
+                reject(rowNumber, "Empty row");
+                return;
+            }
+            Set<ConstraintViolation<ProductRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                reject(rowNumber, violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " : " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining("; ")));
+                return;
+            }
+            Long userId;
+            try {
+                userId = Long.parseLong(request.getUserId().trim());
+            } catch (NumberFormatException e) {
+                reject(rowNumber, "User not found with ID: " + request.getUserId());
+                return;
+            }
+            batch.add(new ImportRow(rowNumber, request, userId));
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void reject(long rowNumber, String error) {
+            addError(report, rowNumber, error);
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                importBatch(batch, importedNames, report);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+    }
+}
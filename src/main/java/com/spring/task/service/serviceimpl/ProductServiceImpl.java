@@ -1,38 +1,69 @@
 package com.spring.task.service.serviceimpl;
 
-import com.spring.task.entity.Category;
+import com.spring.task.cache.InventoryDeltaBuffer;
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.ProductSuggestIndex;
+import com.spring.task.cache.WriteGenerations;
 import com.spring.task.entity.Product;
-import com.spring.task.entity.User;
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.exception.CommonException;
+import com.spring.task.exception.PreconditionFailedException;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.payload.request.ProductPatch;
 import com.spring.task.payload.request.ProductRequest;
 import com.spring.task.payload.response.CategoryResponse;
+import com.spring.task.payload.response.FacetCount;
+import com.spring.task.payload.response.ProductFacetsResponse;
+import com.spring.task.payload.response.ProductPageResponse;
 import com.spring.task.payload.response.ProductResponse;
 import com.spring.task.repository.ProductRepository;
+import com.spring.task.repository.ProductRepositoryCustom;
 import com.spring.task.service.CategoryService;
 import com.spring.task.service.ProductService;
 import com.spring.task.service.UserService;
+import com.spring.task.util.ConstraintViolations;
+import com.spring.task.util.ProductCursor;
+import com.spring.task.util.ProductSearchCursor;
+import com.spring.task.util.ResourceVersion;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ProductServiceImpl implements ProductService {
     private static final Logger logger = LoggerFactory.getLogger(ProductServiceImpl.class);
+    private static final int MAX_BULK_DELETE_IDS = 1000;
 
     private final ProductRepository productRepository;
     private final CategoryService categoryService;
     private final UserService userService;
+    private final ProductSuggestIndex productSuggestIndex;
+    private final ProductResponseCache productResponseCache;
+    private final InventoryDeltaBuffer inventoryDeltaBuffer;
+    private final WriteGenerations writeGenerations;
 
     @Override
     @Transactional
@@ -44,52 +75,199 @@ public class ProductServiceImpl implements ProductService {
         product.setCreatedAt(LocalDateTime.now());
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepository.save(product);
+        Product savedProduct = saveAndFlush(product, productRequest,
+                () -> new ResourceAlreadyExistException(productRequest.getName() + " is already exist"));
+        productSuggestIndex.put(savedProduct.getId(), savedProduct.getName(), savedProduct.getBrand());
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return savedProduct;
     }
 
     private Product validateProductRequest(ProductRequest productRequest) {
         logger.info("Validating product request for product: {}", productRequest.getName());
 
-        // validate product exist or not
-        productRepository.findByNameIgnoreCase(productRequest.getName())
-                .ifPresent(role -> {
-                    logger.error("Product {} already exists", productRequest.getName());
-                    throw new ResourceAlreadyExistException(productRequest.getName() + " is already exist");
-                });
-
-        // validate category exist or not
-        Category category = categoryService.getCategoryById(productRequest.getCategoryId())
-                .orElseThrow(() -> {
-                    logger.error("Category not found with ID: {}", productRequest.getCategoryId());
-                    return new ResourceNotFoundException("Category Not found with ID: " + productRequest.getCategoryId());
-                });
-
-        // validate user
-        User user = userService.getUserById(productRequest.getUserId())
-                .orElseThrow(() -> {
-                    logger.error("User not found with ID: {}", productRequest.getUserId());
-                    return new ResourceNotFoundException("User not found with ID: " + productRequest.getUserId());
-                });
-
+        // name uniqueness and the category and user are checked by the database constraints on write
         Product newProduct = new Product();
         BeanUtils.copyProperties(productRequest, newProduct);
-        newProduct.setCategory(category);
-        newProduct.setUser(user);
-        logger.info("Product request validated successfully for product: {}", productRequest.getName());
+        newProduct.setCategory(categoryService.getCategoryReference(productRequest.getCategoryId()));
+        newProduct.setUser(userService.getUserReference(productRequest.getUserId()));
         return newProduct;
     }
 
+    /**
+     * Writes the product right away so constraint violations surface here: the unique index on lower(name) becomes
+     * the given ResourceAlreadyExistException, a missing category or user a ResourceNotFoundException.
+     */
+    private Product saveAndFlush(Product product, ProductRequest productRequest, Supplier<ResourceAlreadyExistException> nameTaken) {
+        try {
+            return productRepository.saveAndFlush(product);
+        } catch (DataIntegrityViolationException e) {
+            throw translateViolation(e, productRequest.getName(), productRequest.getCategoryId(), productRequest.getUserId(), nameTaken);
+        }
+    }
+
+    // violations other than of the name index and the category and user foreign keys are returned unchanged
+    private RuntimeException translateViolation(DataIntegrityViolationException e, String name, Long categoryId, String userId,
+                                                Supplier<ResourceAlreadyExistException> nameTaken) {
+        if (ConstraintViolations.violates(e, Product.NAME_UNIQUE_INDEX)) {
+            logger.error("Product {} already exists", name);
+            return nameTaken.get();
+        }
+        if (ConstraintViolations.violatesForeignKeyTo(e, "tbl_category")) {
+            logger.error("Category not found with ID: {}", categoryId);
+            return new ResourceNotFoundException("Category Not found with ID: " + categoryId);
+        }
+        if (ConstraintViolations.violatesForeignKeyTo(e, "tbl_user")) {
+            logger.error("User not found with ID: {}", userId);
+            return new ResourceNotFoundException("User not found with ID: " + userId);
+        }
+        return e;
+    }
+
     @Override
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
+    @Override
+    @Transactional
+    public Optional<ProductResponse> getProductResponseById(Long id) {
+        // cached as stored, buffered inventory deltas are added to a copy
+        return Optional.ofNullable(productResponseCache.get(id,
+                key -> getProductById(key).map(this::mapStoredToResponse).orElse(null)))
+                .map(this::withBufferedInventory);
+    }
+
     @Override
     public List<ProductResponse> getAllProductsLst() {
         return productRepository.findAll().stream()
                 .map(this::mapEntityToResponse).collect(Collectors.toList());
     }
 
+    // taken from the cached response, so a hit validates without touching the database
+    @Override
+    @Transactional
+    public Optional<ResourceVersion> getProductVersion(Long id) {
+        // read before the response: a write in between then leaves the tag behind the response, never ahead of it
+        ResourceVersion embedded = embeddedVersion();
+        return getProductResponseById(id)
+                .map(response -> productVersion(id, response.getVersion(), response.getInventory(), response.getUpdatedAt(), embedded));
+    }
+
+    /**
+     * The version of the representation GET returns, which PATCH validates If-Match against: the product's optimistic
+     * lock version and its inventory including buffered deltas, followed by the generations of what it embeds.
+     */
+    private ResourceVersion productVersion(Long id, Long version, long inventory, LocalDateTime updatedAt, ResourceVersion embedded) {
+        ResourceVersion stored = ResourceVersion.of(Long.toString(version, 36) + "." + Long.toString(inventory, 36), updatedAt);
+        long lastModified = inventoryDeltaBuffer.pending(id) != 0
+                ? Math.max(stored.lastModified(), inventoryDeltaBuffer.lastDeltaMillis()) : stored.lastModified();
+        return new ResourceVersion(stored.tag(), lastModified).and(embedded);
+    }
+
+    // responses embed the category and the owner's roles
+    private ResourceVersion embeddedVersion() {
+        return writeGenerations.version(WriteGenerations.Resource.CATEGORIES, WriteGenerations.Resource.ROLES);
+    }
+
+    @Override
+    public ResourceVersion getProductsVersion() {
+        ResourceVersion version = writeGenerations.version(WriteGenerations.Resource.PRODUCTS,
+                WriteGenerations.Resource.CATEGORIES, WriteGenerations.Resource.ROLES);
+        return !inventoryDeltaBuffer.hasPending() ? version
+                : version.and(new ResourceVersion("g" + Long.toString(inventoryDeltaBuffer.generation(), 36), inventoryDeltaBuffer.lastDeltaMillis()));
+    }
+
+    /**
+     * Returns one page of products in keyset order. When a cursor is given, its sort order replaces the requested one
+     * so a listing cannot change order halfway through.
+     */
+    @Override
+    public ProductPageResponse getProductsPage(ProductFilter filter, ProductSortKey sortKey, Sort.Direction direction, String cursor, int size, boolean withTotal) {
+        ProductCursor after = cursor != null ? ProductCursor.decode(cursor) : null;
+        if (after != null) {
+            sortKey = after.sort();
+            direction = after.direction();
+        }
+
+        Slice<Long> slice = productRepository.findIdPageAfter(filter, sortKey, direction, after, size);
+        List<Product> products = findAllInOrder(slice.getContent());
+        String nextCursor = slice.hasNext() && !products.isEmpty()
+                ? ProductCursor.after(products.get(products.size() - 1), sortKey, direction).encode()
+                : null;
+
+        return ProductPageResponse.builder()
+                .content(products.stream().map(this::mapEntityToResponse).collect(Collectors.toList()))
+                .size(products.size())
+                .hasNext(slice.hasNext())
+                .nextCursor(nextCursor)
+                .estimatedTotal(withTotal && filter.isUnrestricted() ? Math.max(0, productRepository.estimateCount()) : null)
+                .build();
+    }
+
+    @Override
+    public ProductFacetsResponse getProductFacets(ProductFilter filter) {
+        long total = 0;
+        List<FacetCount> brands = new ArrayList<>();
+        List<FacetCount> categories = new ArrayList<>();
+        for (ProductRepositoryCustom.FacetRow row : productRepository.countFacets(filter)) {
+            if (row.total()) {
+                total = row.count();
+            } else if (row.categoryId() != null) {
+                categories.add(new FacetCount(row.categoryId(), row.categoryName(), row.count()));
+            } else if (row.brand() != null) {
+                brands.add(new FacetCount(null, row.brand(), row.count()));
+            }
+        }
+        Comparator<FacetCount> mostFrequentFirst = Comparator.comparingLong(FacetCount::getCount).reversed()
+                .thenComparing(FacetCount::getName, Comparator.nullsLast(Comparator.naturalOrder()));
+        brands.sort(mostFrequentFirst);
+        categories.sort(mostFrequentFirst);
+
+        return ProductFacetsResponse.builder()
+                .total(total)
+                .brands(brands)
+                .categories(categories)
+                .build();
+    }
+
+    @Override
+    public ProductPageResponse searchProducts(String query, String cursor, int size) {
+        ProductSearchCursor after = cursor != null ? ProductSearchCursor.decode(cursor, query) : null;
+
+        List<ProductRepository.SearchHit> hits = productRepository.searchIds(query,
+                after != null ? after.score() : Float.POSITIVE_INFINITY, after != null ? after.id() : 0L, size + 1);
+        boolean hasNext = hits.size() > size;
+        if (hasNext) {
+            hits = hits.subList(0, size);
+        }
+        List<Product> products = findAllInOrder(hits.stream().map(ProductRepository.SearchHit::getId).collect(Collectors.toList()));
+        String nextCursor = null;
+        if (hasNext) {
+            ProductRepository.SearchHit last = hits.get(hits.size() - 1);
+            nextCursor = new ProductSearchCursor(query, last.getScore(), last.getId()).encode();
+        }
+
+        return ProductPageResponse.builder()
+                .content(products.stream().map(this::mapEntityToResponse).collect(Collectors.toList()))
+                .size(products.size())
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // loads the products with their associations in one query and restores the order of the ids
+    private List<Product> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Product> productsById = productRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
@@ -101,6 +279,9 @@ public class ProductServiceImpl implements ProductService {
                 });
 
         productRepository.delete(product);
+        productSuggestIndex.remove(id);
+        productResponseCache.invalidate(id);
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
     }
 
     @Override
@@ -113,42 +294,182 @@ public class ProductServiceImpl implements ProductService {
                     return new ResourceNotFoundException("Error: Product is not found.");
                 });
 
-        // check product name exist or not
-        if (productRepository.existsByNameIgnoreCaseAndIdNot(productRequest.getName(), id)) {
-            logger.error("Product with name {} already exists", productRequest.getName());
-            throw new ResourceAlreadyExistException("Product with name " + productRequest.getName() + " already exists");
-        }
-
-        // validate category exist or not
-        Category category = categoryService.getCategoryById(productRequest.getCategoryId())
-                .orElseThrow(() -> {
-                    logger.error("Category not found with ID: {}", productRequest.getCategoryId());
-                    return new ResourceNotFoundException("Category Not found with ID: " + productRequest.getCategoryId());
-                });
-
-        // validate user
-        User user = userService.getUserById(productRequest.getUserId())
-                .orElseThrow(() -> {
-                    logger.error("User not found with ID: {}", productRequest.getUserId());
-                    return new ResourceNotFoundException("User not found with ID: " + productRequest.getUserId());
-                });
-
         product.setName(productRequest.getName());
         product.setDescription(productRequest.getDescription());
         product.setPrice(productRequest.getPrice());
         product.setWeight(productRequest.getWeight());
         product.setWeightUnit(productRequest.getWeightUnit());
         product.setBrand(productRequest.getBrand());
-        product.setCategory(category);
-        product.setUser(user);
+        product.setCategory(categoryService.getCategoryReference(productRequest.getCategoryId()));
+        product.setUser(userService.getUserReference(productRequest.getUserId()));
         product.setInventory(productRequest.getInventory());
         product.setUpdatedAt(LocalDateTime.now());
 
-        return productRepository.save(product);
+        Product savedProduct = saveAndFlush(product, productRequest,
+                () -> new ResourceAlreadyExistException("Product with name " + productRequest.getName() + " already exists"));
+        // the update holds the row lock, so no buffered delta accepted before it can be flushed on top of it
+        inventoryDeltaBuffer.discard(id);
+        productSuggestIndex.put(savedProduct.getId(), savedProduct.getName(), savedProduct.getBrand());
+        productResponseCache.invalidate(id);
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return savedProduct;
+    }
+
+    @Override
+    @Transactional
+    public Product patchProduct(Long id, ProductPatch productPatch, String ifMatch) {
+        logger.info("Patching product with ID: {}", id);
+        ResourceVersion embedded = embeddedVersion();
+        ProductRepository.ProductVersionProbe probe = productRepository.probeVersion(id)
+                .orElseThrow(() -> {
+                    logger.error("Product not found with ID: {}", id);
+                    return new ResourceNotFoundException("Error: Product is not found.");
+                });
+        if (ifMatch != null && !productVersion(id, probe.getVersion(), probe.getInventory() + inventoryDeltaBuffer.pending(id),
+                probe.getUpdatedAt(), embedded).matches(ifMatch)) {
+            logger.error("Product with ID {} does not match {}", id, ifMatch);
+            throw new PreconditionFailedException("Error: Product has been modified.");
+        }
+
+        Map<String, Object> changes = changedAttributes(productPatch);
+        if (!changes.isEmpty()) {
+            changes.put("updatedAt", LocalDateTime.now());
+            // the version read above is only held against the write when the client sent a tag it read
+            Long expectedVersion = ifMatch != null && !ifMatch.trim().equals("*") ? probe.getVersion() : null;
+            int updated;
+            try {
+                updated = productRepository.updateIfVersion(id, expectedVersion, changes);
+            } catch (DataIntegrityViolationException e) {
+                String name = valueOf(productPatch.getName());
+                throw translateViolation(e, name, valueOf(productPatch.getCategoryId()), valueOf(productPatch.getUserId()),
+                        () -> new ResourceAlreadyExistException("Product with name " + name + " already exists"));
+            }
+            if (updated == 0) {
+                logger.error("Product with ID {} was changed concurrently", id);
+                throw expectedVersion != null
+                        ? new PreconditionFailedException("Error: Product has been modified.")
+                        : new ResourceNotFoundException("Error: Product is not found.");
+            }
+        }
+
+        if (changes.containsKey("inventory")) {
+            inventoryDeltaBuffer.discard(id);
+        }
+
+        Product patchedProduct = getProductById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Error: Product is not found."));
+        if (productPatch.getName() != null || productPatch.getBrand() != null) {
+            productSuggestIndex.put(id, patchedProduct.getName(), patchedProduct.getBrand());
+        }
+        productResponseCache.invalidate(id);
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return patchedProduct;
+    }
+
+    // attribute values of the members present in the patch; relations become unloaded references, checked by their foreign keys
+    private Map<String, Object> changedAttributes(ProductPatch productPatch) {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        putIfPresent(changes, "name", productPatch.getName());
+        putIfPresent(changes, "description", productPatch.getDescription());
+        putIfPresent(changes, "price", productPatch.getPrice());
+        putIfPresent(changes, "weight", productPatch.getWeight());
+        putIfPresent(changes, "weightUnit", productPatch.getWeightUnit());
+        putIfPresent(changes, "brand", productPatch.getBrand());
+        putIfPresent(changes, "expiryDate", productPatch.getExpiryDate());
+        putIfPresent(changes, "inventory", productPatch.getInventory());
+        if (productPatch.getCategoryId() != null) {
+            changes.put("category", productPatch.getCategoryId().map(categoryService::getCategoryReference).orElse(null));
+        }
+        if (productPatch.getUserId() != null) {
+            changes.put("user", productPatch.getUserId().map(userService::getUserReference).orElse(null));
+        }
+        return changes;
+    }
+
+    private static void putIfPresent(Map<String, Object> changes, String attribute, Optional<?> member) {
+        if (member != null) {
+            changes.put(attribute, member.orElse(null));
+        }
+    }
+
+    private static <T> T valueOf(Optional<T> member) {
+        return member != null ? member.orElse(null) : null;
+    }
+
+    @Override
+    @Transactional
+    public int bulkUpdate(ProductBulkUpdateRequest request) {
+        if ((request.getIds() == null || request.getIds().isEmpty()) && request.toFilter().isUnrestricted()) {
+            throw new CommonException("At least one of ids, categoryIds, brands or userId is required");
+        }
+        if (request.getPricePercent() == null && request.getPriceAmount() == null && request.getCategoryId() == null
+                && request.getInventory() == null) {
+            throw new CommonException("At least one of pricePercent, priceAmount, categoryId or inventory is required");
+        }
+        if (request.getPricePercent() != null && request.getPriceAmount() != null) {
+            throw new CommonException("Only one of pricePercent and priceAmount can be given");
+        }
+        logger.info("Bulk updating products: {}", request);
+
+        List<Long> updatedIds;
+        try {
+            updatedIds = productRepository.bulkUpdate(request, LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            throw translateViolation(e, null, request.getCategoryId(), null,
+                    () -> new ResourceAlreadyExistException("Product already exists"));
+        }
+        if (request.getInventory() != null) {
+            updatedIds.forEach(inventoryDeltaBuffer::discard);
+        }
+        // name and brand are unchanged, so the suggest index is too
+        updatedIds.forEach(productResponseCache::invalidate);
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return updatedIds.size();
+    }
+
+    @Override
+    @Transactional
+    public int deleteByIds(List<Long> ids) {
+        if (ids.size() > MAX_BULK_DELETE_IDS) {
+            throw new CommonException("At most " + MAX_BULK_DELETE_IDS + " products can be deleted at once");
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        logger.info("Deleting {} products", ids.size());
+        int deleted = productRepository.deleteByIds(ids);
+        ids.forEach(id -> {
+            productSuggestIndex.remove(id);
+            productResponseCache.invalidate(id);
+        });
+        writeGenerations.advance(WriteGenerations.Resource.PRODUCTS);
+        return deleted;
     }
 
     @Override
     public ProductResponse mapEntityToResponse(Product savedProduct) {
+        ProductResponse productResponse = mapStoredToResponse(savedProduct);
+        productResponse.setInventory(bufferedInventory(productResponse));
+        return productResponse;
+    }
+
+    private ProductResponse withBufferedInventory(ProductResponse stored) {
+        int inventory = bufferedInventory(stored);
+        if (inventory == stored.getInventory()) {
+            return stored;
+        }
+        ProductResponse productResponse = new ProductResponse();
+        BeanUtils.copyProperties(stored, productResponse);
+        productResponse.setInventory(inventory);
+        return productResponse;
+    }
+
+    // the stored inventory plus the deltas the write-behind buffer has not written yet
+    private int bufferedInventory(ProductResponse stored) {
+        return Math.toIntExact(stored.getInventory() + inventoryDeltaBuffer.pending(stored.getId()));
+    }
+
+    private ProductResponse mapStoredToResponse(Product savedProduct) {
         CategoryResponse categoryResponse = new CategoryResponse();
         BeanUtils.copyProperties(savedProduct.getCategory(), categoryResponse);
 
@@ -1,21 +1,31 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.UserDetailsCache;
+import com.spring.task.cache.WriteGenerations;
 import com.spring.task.entity.Role;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.RoleRequest;
 import com.spring.task.payload.response.RoleResponse;
 import com.spring.task.repository.RoleRepository;
+import com.spring.task.repository.UserRepository;
+import com.spring.task.repository.VersionProbe;
 import com.spring.task.service.RoleService;
+import com.spring.task.service.TokenService;
+import com.spring.task.util.ConstraintViolations;
+import com.spring.task.util.ResourceVersion;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,23 +34,24 @@ public class RoleServiceImpl implements RoleService {
     private static final Logger logger = LoggerFactory.getLogger(RoleServiceImpl.class);
 
     private final RoleRepository roleRepository;
+    private final TokenService tokenService;
+    private final UserRepository userRepository;
+    private final UserDetailsCache userDetailsCache;
+    private final ProductResponseCache productResponseCache;
+    private final WriteGenerations writeGenerations;
 
     @Override
     @Transactional
     public Role createNewRole(RoleRequest roleRequest) {
         logger.info("Creating new role with name: {}", roleRequest.getName());
 
-        // validate role
-        roleRepository.findByNameIgnoreCase(roleRequest.getName())
-                .ifPresent(role -> {
-                    logger.error("Role already exists with name: {}", roleRequest.getName());
-                    throw new ResourceAlreadyExistException(roleRequest.getName() + " is Role already exist");
-                });
         Role role = new Role();
         role.setName(roleRequest.getName());
         role.setCreatedAt(LocalDateTime.now());
 
-        return roleRepository.save(role);
+        Role savedRole = saveAndFlush(role, () -> new ResourceAlreadyExistException(roleRequest.getName() + " is Role already exist"));
+        writeGenerations.advance(WriteGenerations.Resource.ROLES);
+        return savedRole;
     }
 
     @Override
@@ -51,7 +62,9 @@ public class RoleServiceImpl implements RoleService {
     @Override
     @Transactional
     public Role createRole(Role newRole) {
-        return roleRepository.save(newRole);
+        Role savedRole = roleRepository.save(newRole);
+        writeGenerations.advance(WriteGenerations.Resource.ROLES);
+        return savedRole;
     }
 
     @Override
@@ -65,6 +78,17 @@ public class RoleServiceImpl implements RoleService {
                 .map(this::mapEntityToResponse).collect(Collectors.toList());
     }
 
+    @Override
+    public Optional<ResourceVersion> getRoleVersion(Long id) {
+        VersionProbe probe = roleRepository.probeVersion(id);
+        return probe.getRowCount() == 0 ? Optional.empty() : Optional.of(ResourceVersion.of(probe));
+    }
+
+    @Override
+    public ResourceVersion getRolesVersion() {
+        return writeGenerations.version(WriteGenerations.Resource.ROLES);
+    }
+
     @Override
     @Transactional
     public void deleteById(Long id) {
@@ -74,7 +98,11 @@ public class RoleServiceImpl implements RoleService {
                     return new ResourceNotFoundException("Error: Role is not found.");
                 });
 
+        tokenService.revokeTokensForRole(id);
+        userDetailsCache.invalidateAll(userRepository.findEmailsByRoleId(id));
+        productResponseCache.invalidateByRole(id);
         roleRepository.delete(role);
+        writeGenerations.advance(WriteGenerations.Resource.ROLES);
     }
 
     @Override
@@ -88,15 +116,30 @@ public class RoleServiceImpl implements RoleService {
                     return new ResourceNotFoundException("Error: Role is not found.");
                 });
 
-        // check role name exist or not
-        if (roleRepository.existsByNameIgnoreCaseAndIdNot(roleRequest.getName(), id)) {
-            logger.error("Role with name {} already exists", roleRequest.getName());
-            throw new ResourceAlreadyExistException("Role with name " + roleRequest.getName() + " already exists");
-        }
         role.setName(roleRequest.getName());
         role.setUpdatedAt(LocalDateTime.now());
+        Role savedRole = saveAndFlush(role, () -> new ResourceAlreadyExistException("Role with name " + roleRequest.getName() + " already exists"));
+        tokenService.revokeTokensForRole(id);
+        // the authorities of every holder of the role change with its name
+        userDetailsCache.invalidateAll(userRepository.findEmailsByRoleId(id));
+        // cached products embed their owner's roles
+        productResponseCache.invalidateByRole(id);
+        writeGenerations.advance(WriteGenerations.Resource.ROLES);
+
+        return savedRole;
+    }
 
-        return roleRepository.save(role);
+    // name uniqueness is enforced by the unique index on lower(name), checked as the row is written
+    private Role saveAndFlush(Role role, Supplier<ResourceAlreadyExistException> nameTaken) {
+        try {
+            return roleRepository.saveAndFlush(role);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.violates(e, Role.NAME_UNIQUE_INDEX)) {
+                logger.error("Role already exists with name: {}", role.getName());
+                throw nameTaken.get();
+            }
+            throw e;
+        }
     }
 
     @Override
@@ -1,15 +1,25 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.TokenAllowlistCache;
 import com.spring.task.entity.AuthToken;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.repository.TokenRepository;
+import com.spring.task.repository.UserRepository;
 import com.spring.task.service.TokenService;
+import com.spring.task.util.JwtUtils;
+import com.spring.task.util.TokenHashUtils;
 import jakarta.transaction.Transactional;
 import lombok.AllArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -18,34 +28,158 @@ public class TokenServiceImpl implements TokenService {
     private static final Logger logger = LoggerFactory.getLogger(TokenServiceImpl.class);
 
     private final TokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final TokenAllowlistCache tokenAllowlistCache;
+    private final JwtUtils jwtUtils;
 
     @Override
     @Transactional
     public void saveToken(String token, String refreshToken, String username) {
         AuthToken authToken = tokenRepository.findByUsername(username).orElse(new AuthToken());
-        authToken.setToken(token);
-        authToken.setRefreshToken(refreshToken);
+        // the previous access token of this user is overwritten, so it must no longer be allowed
+        byte[] oldTokenDigest = authToken.getTokenDigest();
+        tokenAllowlistCache.invalidate(oldTokenDigest);
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
+        Instant tokenExpiresAt = jwtUtils.extractExpiration(token).toInstant();
+        Instant refreshTokenExpiresAt = jwtUtils.extractExpiration(refreshToken).toInstant();
+        authToken.setTokenDigest(tokenDigest);
+        authToken.setRefreshTokenDigest(TokenHashUtils.sha256(refreshToken));
         authToken.setUsername(username);
+        authToken.setExpiresAt(LocalDateTime.ofInstant(max(tokenExpiresAt, refreshTokenExpiresAt), ZoneId.systemDefault()));
 
-        tokenRepository.save(authToken);
+        AuthToken savedToken = tokenRepository.save(authToken);
+        // a concurrent request may have re-cached the previous token before the overwrite committed
+        afterCommit(() -> {
+            tokenAllowlistCache.invalidate(oldTokenDigest);
+            tokenAllowlistCache.put(tokenDigest, savedToken, tokenExpiresAt);
+        });
         logger.info("Token saved for user: {}", username);
     }
 
     @Override
     @Transactional
     public boolean deleteToken(String token) {
-        AuthToken authToken = tokenRepository.findByToken(token).orElseThrow(()-> {
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
+        AuthToken authToken = tokenRepository.findByTokenDigest(tokenDigest).orElseThrow(()-> {
             logger.error("Token not found");
             return new ResourceNotFoundException("Token not found");
         });
 
+        tokenAllowlistCache.invalidate(tokenDigest);
         tokenRepository.delete(authToken);
+        // a concurrent request may have re-cached the token before the delete committed
+        afterCommit(() -> tokenAllowlistCache.invalidate(tokenDigest));
         logger.info("Token deleted");
         return Boolean.TRUE;
     }
 
     @Override
     public Optional<AuthToken> findByToken(String token) {
-        return tokenRepository.findByToken(token);
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
+        AuthToken cachedToken = tokenAllowlistCache.get(tokenDigest);
+        if (cachedToken != null) {
+            return Optional.of(cachedToken);
+        }
+
+        Optional<AuthToken> authToken = tokenRepository.findByTokenDigest(tokenDigest);
+        authToken.ifPresent(foundToken -> tokenAllowlistCache.put(tokenDigest, foundToken, jwtUtils.extractExpiration(token).toInstant()));
+        return authToken;
+    }
+
+    /**
+     * Replaces the access/refresh pair stored for the given refresh token with a newly issued pair.
+     *
+     * The rotation is a single conditional UPDATE on the row still holding the presented refresh token, so a
+     * refresh token can be redeemed only once even when two requests race with it.
+     *
+     * @return false if the refresh token is unknown or has already been redeemed
+     */
+    @Override
+    @Transactional
+    public boolean rotateToken(String refreshToken, String newToken, String newRefreshToken) {
+        byte[] refreshTokenDigest = TokenHashUtils.sha256(refreshToken);
+        Optional<AuthToken> authToken = tokenRepository.findByRefreshTokenDigest(refreshTokenDigest);
+        if (authToken.isEmpty()) {
+            logger.error("Refresh token not found");
+            return false;
+        }
+
+        byte[] newTokenDigest = TokenHashUtils.sha256(newToken);
+        Instant tokenExpiresAt = jwtUtils.extractExpiration(newToken).toInstant();
+        Instant refreshTokenExpiresAt = jwtUtils.extractExpiration(newRefreshToken).toInstant();
+        byte[] newRefreshTokenDigest = TokenHashUtils.sha256(newRefreshToken);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(max(tokenExpiresAt, refreshTokenExpiresAt), ZoneId.systemDefault());
+        int rotated = tokenRepository.rotateTokens(authToken.get().getId(), refreshTokenDigest, newTokenDigest, newRefreshTokenDigest, expiresAt);
+        if (rotated == 0) {
+            logger.error("Refresh token already redeemed for user: {}", authToken.get().getUsername());
+            return false;
+        }
+
+        // the access token issued with the redeemed refresh token is replaced as well
+        byte[] oldTokenDigest = authToken.get().getTokenDigest();
+        tokenAllowlistCache.invalidate(oldTokenDigest);
+        AuthToken rotatedToken = new AuthToken(authToken.get().getId(), newTokenDigest, newRefreshTokenDigest, authToken.get().getUsername(), expiresAt);
+        afterCommit(() -> {
+            tokenAllowlistCache.invalidate(oldTokenDigest);
+            tokenAllowlistCache.put(newTokenDigest, rotatedToken, tokenExpiresAt);
+        });
+        logger.info("Tokens rotated for user: {}", authToken.get().getUsername());
+        return true;
+    }
+
+    /**
+     * Revokes the tokens of every user holding the given role, forcing them to authenticate again.
+     *
+     * Only needed in stateless authorization mode, where access tokens carry role names that would otherwise
+     * stay valid after the role is renamed or deleted.
+     */
+    @Override
+    @Transactional
+    public void revokeTokensForRole(Long roleId) {
+        if (!jwtUtils.isStatelessAuthorization()) {
+            return;
+        }
+        List<String> usernames = userRepository.findEmailsByRoleId(roleId);
+        if (usernames.isEmpty()) {
+            return;
+        }
+
+        List<AuthToken> authTokens = tokenRepository.findByUsernameIn(usernames);
+        authTokens.forEach(authToken -> tokenAllowlistCache.invalidate(authToken.getTokenDigest()));
+        tokenRepository.deleteAllInBatch(authTokens);
+        // a concurrent request may have re-cached a token before the delete committed
+        afterCommit(() -> authTokens.forEach(authToken -> tokenAllowlistCache.invalidate(authToken.getTokenDigest())));
+        logger.info("Revoked {} token(s) of users with role id: {}", authTokens.size(), roleId);
+    }
+
+    /**
+     * Deletes one batch of rows whose access and refresh tokens have both expired.
+     *
+     * Each call runs in its own short transaction, so purging a large backlog never holds row locks for long.
+     *
+     * @return the number of rows deleted, lower than batchSize once no expired rows remain
+     */
+    @Override
+    @Transactional
+    public int purgeExpiredTokens(LocalDateTime now, int batchSize) {
+        return tokenRepository.deleteExpiredBatch(now, batchSize);
+    }
+
+    private static Instant max(Instant first, Instant second) {
+        return first.isAfter(second) ? first : second;
+    }
+
+    // cache updates must not get ahead of the rows they describe, so they run once the transaction commits
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.UserDetailsCache;
 import com.spring.task.entity.User;
 import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.repository.UserRepository;
@@ -17,11 +18,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private UserDetailsCache userDetailsCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         logger.debug("Entering in loadUserByUsername Method...");
 
+        return userDetailsCache.get(username, this::loadUser);
+    }
+
+    private CustomUserDetails loadUser(String username) {
         User user = userRepository.findByEmail(username).orElseThrow(()-> {
             logger.error("Username not found: " + username);
             return new UsernameNotFoundException("could not found user..!!");
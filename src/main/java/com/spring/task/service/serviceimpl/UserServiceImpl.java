@@ -1,21 +1,28 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.UserDetailsCache;
 import com.spring.task.entity.Role;
 import com.spring.task.entity.User;
 import com.spring.task.exception.CommonException;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.exception.UnauthorizedException;
 import com.spring.task.exception.UserAlreadyExistsException;
 import com.spring.task.payload.request.AuthRequest;
+import com.spring.task.payload.request.RefreshTokenRequest;
+import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.payload.request.UserRequest;
 import com.spring.task.payload.response.JwtResponse;
 import com.spring.task.payload.response.RoleResponse;
 import com.spring.task.payload.response.UserResponse;
 import com.spring.task.repository.UserRepository;
+import com.spring.task.security.LoginRateLimiter;
 import com.spring.task.service.RoleService;
 import com.spring.task.service.TokenService;
 import com.spring.task.service.UserService;
 import com.spring.task.util.CommonUtils;
 import com.spring.task.util.JwtUtils;
+import com.spring.task.util.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import io.micrometer.common.util.StringUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -50,6 +57,8 @@ public class UserServiceImpl implements UserService {
     private final JwtUtils jwtUtils;
     private final TokenService tokenService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginRateLimiter loginRateLimiter;
+    private final UserDetailsCache userDetailsCache;
 
     @Override
     @Transactional
@@ -58,8 +67,10 @@ public class UserServiceImpl implements UserService {
 
         User validatedForm = validateUserRequest(userRequest);
         validatedForm.setCreatedAt(LocalDateTime.now());
+        User savedUser = userRepository.save(validatedForm);
+        userDetailsCache.invalidate(savedUser.getEmail());
 
-        return userRepository.save(validatedForm);
+        return savedUser;
     }
 
     private User validateUserRequest(UserRequest userRequest) {
@@ -118,12 +129,14 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public JwtResponse authenticate(AuthRequest authRequest) {
+    public JwtResponse authenticate(AuthRequest authRequest, String clientIp) {
         logger.info("Authenticating user with email: {}", authRequest.getEmail());
+        // throttled attempts are rejected here, before the password is verified
+        loginRateLimiter.checkLoginAttempt(authRequest.getEmail(), clientIp);
         Authentication authenticate = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(authRequest.getEmail(), authRequest.getPassword()));
         SecurityContextHolder.getContext().setAuthentication(authenticate);
         if (authenticate.isAuthenticated()) {
-            String accessToken = jwtUtils.generateToken(authRequest.getEmail());
+            String accessToken = jwtUtils.generateToken(authRequest.getEmail(), authenticate.getAuthorities());
             String refreshToken = jwtUtils.generateRefreshToken(authRequest.getEmail());
             logger.info("User authenticated successfully with email: {}", authRequest.getEmail());
             // save token
@@ -139,6 +152,41 @@ public class UserServiceImpl implements UserService {
         }
     }
 
+    /**
+     * Issues a new access/refresh pair in exchange for a refresh token still stored in tbl_token.
+     *
+     * Only the token signature and the stored digest are checked, so no password hash is computed. The presented
+     * refresh token is redeemed by the rotation and cannot be used again.
+     */
+    @Override
+    public JwtResponse refreshToken(RefreshTokenRequest refreshTokenRequest) {
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtUtils.verifyToken(refreshTokenRequest.getRefreshToken());
+        } catch (JwtException e) {
+            logger.error("Invalid refresh token: {}", e.getMessage());
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        String email = verifiedToken.getSubject();
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> {
+                    logger.error("User not found for refresh token: {}", email);
+                    return new UnauthorizedException("Invalid refresh token");
+                });
+
+        String accessToken = jwtUtils.generateToken(email, new CustomUserDetails(user).getAuthorities());
+        String refreshToken = jwtUtils.generateRefreshToken(email);
+        if (!tokenService.rotateToken(refreshTokenRequest.getRefreshToken(), accessToken, refreshToken)) {
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        logger.info("Tokens refreshed for user with email: {}", email);
+
+        return JwtResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .build();
+    }
+
     @Override
     public List<UserResponse> getAllUsers() {
         return userRepository.findAll().stream().map(this::mapEntityToResponse).collect(Collectors.toList());
@@ -175,6 +223,12 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(Long.parseLong(userId));
     }
 
+    // an unloaded proxy for setting associations; the foreign key constraint checks that the user exists
+    @Override
+    public User getUserReference(String userId) {
+        return userRepository.getReferenceById(Long.parseLong(userId));
+    }
+
     @Override
     public UserResponse mapEntityToResponse(User user) {
         Set<RoleResponse> roleResponses = user.getRoles().stream()
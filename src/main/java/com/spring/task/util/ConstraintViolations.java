@@ -0,0 +1,69 @@
+package com.spring.task.util;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+/**
+ * Identifies which database constraint rejected a write, so services can let the database enforce uniqueness and
+ * references and still report the same errors as an up-front check would. Works for writes through Hibernate and
+ * for plain JDBC batches, whose violations only carry the driver's exception.
+ */
+public final class ConstraintViolations {
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Whether the write violated the named unique index or constraint.
+     */
+    public static boolean violates(DataIntegrityViolationException e, String constraintName) {
+        ConstraintViolationException violation = findViolation(e);
+        if (violation != null) {
+            return constraintName.equalsIgnoreCase(violation.getConstraintName());
+        }
+        String constraint = "constraint \"" + constraintName.toLowerCase(Locale.ROOT) + "\"";
+        return anySqlException(e, sqlException -> UNIQUE_VIOLATION.equals(sqlException.getSQLState())
+                && String.valueOf(sqlException.getMessage()).toLowerCase(Locale.ROOT).contains(constraint));
+    }
+
+    /**
+     * Whether the write referenced a row missing from the given table. Matched on the referenced table reported by
+     * Postgres, since foreign keys created by Hibernate have generated names.
+     */
+    public static boolean violatesForeignKeyTo(DataIntegrityViolationException e, String referencedTable) {
+        ConstraintViolationException violation = findViolation(e);
+        Predicate<SQLException> referencesTable = sqlException -> FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())
+                && String.valueOf(sqlException.getMessage()).contains("table \"" + referencedTable + "\"");
+        return violation != null ? referencesTable.test(violation.getSQLException()) : anySqlException(e, referencesTable);
+    }
+
+    private static ConstraintViolationException findViolation(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                return violation;
+            }
+        }
+        return null;
+    }
+
+    // a failed JDBC batch may only report the violation of its failing entry as the batch exception's next exception
+    private static boolean anySqlException(Throwable e, Predicate<SQLException> predicate) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                for (SQLException next = sqlException; next != null; next = next.getNextException()) {
+                    if (predicate.test(next)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,131 @@
+package com.spring.task.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Set of JWT keys identified by key id ({@code kid}), loaded from a local JSON file.
+ *
+ * <pre>
+ * {
+ *   "activeKid": "2024-06",
+ *   "keys": [
+ *     { "kid": "2024-06", "alg": "RS256", "privateKey": "&lt;base64 PKCS#8&gt;", "publicKey": "&lt;base64 X.509&gt;" },
+ *     { "kid": "2024-01", "alg": "HS256", "secret": "&lt;base64&gt;" }
+ *   ]
+ * }
+ * </pre>
+ *
+ * New tokens are signed with the {@code activeKid} key while every listed key is accepted for verification, so a
+ * key can be rotated by adding the new one, making it active and dropping the old one once its tokens expired.
+ * Nodes that only verify tokens need nothing but public keys and no {@code activeKid}, and must set
+ * {@code jwt.verify-only}; a keyring without an active key is rejected otherwise.
+ */
+public final class JwtKeyRing {
+
+    private final Map<String, JwtKey> keys;
+    private final JwtKey signingKey;
+
+    JwtKeyRing(Map<String, JwtKey> keys, String activeKid) {
+        this.keys = Collections.unmodifiableMap(new LinkedHashMap<>(keys));
+        if (activeKid == null) {
+            this.signingKey = null;
+        } else {
+            JwtKey activeKey = keys.get(activeKid);
+            if (activeKey == null || activeKey.signingKey() == null) {
+                throw new IllegalArgumentException("Active key id has no signing key: " + activeKid);
+            }
+            this.signingKey = activeKey;
+        }
+    }
+
+    public static JwtKeyRing load(Path file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file.toFile());
+        Map<String, JwtKey> keys = new LinkedHashMap<>();
+        for (JsonNode keyNode : root.path("keys")) {
+            JwtKey key = parseKey(keyNode);
+            if (keys.putIfAbsent(key.kid(), key) != null) {
+                throw new IllegalArgumentException("Duplicate key id in " + file + ": " + key.kid());
+            }
+        }
+        if (keys.isEmpty()) {
+            throw new IllegalArgumentException("No keys found in " + file);
+        }
+        JsonNode activeKid = root.get("activeKid");
+        return new JwtKeyRing(keys, activeKid != null && !activeKid.isNull() ? activeKid.asText() : null);
+    }
+
+    /**
+     * @return the key new tokens are signed with, or null if this node only verifies tokens
+     */
+    public JwtKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return the key registered under the given id, or null if unknown
+     */
+    public JwtKey getKey(String kid) {
+        return kid != null ? keys.get(kid) : null;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    private static JwtKey parseKey(JsonNode keyNode) {
+        String kid = requiredText(keyNode, "kid");
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(requiredText(keyNode, "alg"));
+        try {
+            if (algorithm.isHmac()) {
+                Key secret = Keys.hmacShaKeyFor(decode(requiredText(keyNode, "secret")));
+                return new JwtKey(kid, algorithm, secret, secret);
+            }
+            if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+                throw new IllegalArgumentException("Unsupported algorithm for key " + kid + ": " + algorithm);
+            }
+            KeyFactory keyFactory = KeyFactory.getInstance(algorithm.getFamilyName().equals("ECDSA") ? "EC" : "RSA");
+            Key publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decode(requiredText(keyNode, "publicKey"))));
+            Key privateKey = keyNode.hasNonNull("privateKey")
+                    ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decode(keyNode.get("privateKey").asText())))
+                    : null;
+            return new JwtKey(kid, algorithm, privateKey, publicKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid key material for key " + kid, e);
+        }
+    }
+
+    private static String requiredText(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || value.isNull() || value.asText().isBlank()) {
+            throw new IllegalArgumentException("Missing '" + field + "' in JWT key entry");
+        }
+        return value.asText();
+    }
+
+    // accepts plain base64 as well as PEM blocks
+    private static byte[] decode(String value) {
+        return Decoders.BASE64.decode(value.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", ""));
+    }
+
+    /**
+     * One keyring entry; signingKey is null for entries that can only verify.
+     */
+    public record JwtKey(String kid, SignatureAlgorithm algorithm, Key signingKey, Key verificationKey) {
+    }
+}
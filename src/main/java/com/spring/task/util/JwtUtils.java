@@ -1,31 +1,99 @@
 package com.spring.task.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.security.Key;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
-    @Value("${jwt.secret-token}")
+    public static final String ROLES_CLAIM = "roles";
+    @Value("${jwt.secret-token:}")
     private String secretToken;
+    @Value("${jwt.keyring-file:}")
+    private String keyRingFile;
     @Value("${jwt.expiration-time}")
     private int tokenExpirationTime;
     @Value("${jwt.refresh-token-expiration-time}")
     private int refreshTokenExpirationTime;
+    @Value("${jwt.stateless-authorization:false}")
+    private boolean statelessAuthorization;
+    @Value("${jwt.verify-only:false}")
+    private boolean verifyOnly;
+
+    // the keys and parser are immutable and thread-safe, so they are built once instead of per token
+    private Key signKey;
+    private JwtKeyRing keyRing;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (secretToken != null && !secretToken.isBlank()) {
+            byte[] keyBytes = Decoders.BASE64.decode(secretToken);
+            this.signKey = Keys.hmacShaKeyFor(keyBytes);
+        }
+        if (keyRingFile != null && !keyRingFile.isBlank()) {
+            this.keyRing = JwtKeyRing.load(Path.of(keyRingFile));
+            logger.info("JWT keyring loaded from {} with {} key(s)", keyRingFile, keyRing.size());
+        }
+        if (signKey == null && keyRing == null) {
+            throw new IllegalStateException("Either jwt.secret-token or jwt.keyring-file must be configured");
+        }
+        // without an active kid the legacy secret would sign, which is never what a keyring is configured for
+        if (keyRing != null && keyRing.getSigningKey() == null && !verifyOnly) {
+            throw new IllegalStateException("jwt.keyring-file has no activeKid: set one to sign tokens with it, "
+                    + "or set jwt.verify-only on nodes that only verify tokens");
+        }
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyRingResolver())
+                .build();
+        logger.info(verifyOnly ? "JWT parser initialized, this node only verifies tokens" : "JWT signing key and parser initialized");
+    }
+
+    /**
+     * Parses the token, checking its signature and expiry, in a single pass.
+     *
+     * @param token the compact JWT string
+     * @return the verified claims of the token
+     * @throws io.jsonwebtoken.JwtException if the token is expired, malformed, unsupported or has an invalid signature
+     */
+    public VerifiedToken verifyToken(String token) {
+        Claims claims = extractAllClaims(token);
+        return new VerifiedToken(claims.getSubject(), toInstant(claims.getIssuedAt()), toInstant(claims.getExpiration()), extractRoles(claims));
+    }
+
+    /**
+     * Whether access tokens carry the user's roles so requests can be authorized from the token alone.
+     */
+    public boolean isStatelessAuthorization() {
+        return statelessAuthorization;
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -41,21 +109,17 @@ public class JwtUtils {
     }
 
     private Claims extractAllClaims(String token) {
-            return Jwts
-                    .parserBuilder()
-                    .setSigningKey(getSignKey())
-                    .build()
+            return jwtParser
                     .parseClaimsJws(token)
                     .getBody();
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public Boolean validateToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+        return (verifiedToken.getSubject().equals(userDetails.getUsername()) && !verifiedToken.isExpired());
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(verifyToken(token), userDetails);
     }
 
     public String generateToken(String username){
@@ -63,6 +127,14 @@ public class JwtUtils {
         return createToken(claims, username, tokenExpirationTime);
     }
 
+    public String generateToken(String username, Collection<? extends GrantedAuthority> authorities) {
+        Map<String, Object> claims = new HashMap<>();
+        if (statelessAuthorization) {
+            claims.put(ROLES_CLAIM, authorities.stream().map(GrantedAuthority::getAuthority).toList());
+        }
+        return createToken(claims, username, tokenExpirationTime);
+    }
+
     public String generateRefreshToken(String email) {
         Map<String, Object> claims = new HashMap<>();
         return createToken(claims, email, refreshTokenExpirationTime);
@@ -70,16 +142,61 @@ public class JwtUtils {
 
     private String createToken(Map<String, Object> claims, String username, int expiredTime) {
 
-        return Jwts.builder()
+        // a random jti keeps tokens issued to the same user within one second distinct, so their digests never collide
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + expiredTime))
-                .signWith(getSignKey(), SignatureAlgorithm.HS256).compact();
+                .setExpiration(new Date(System.currentTimeMillis() + expiredTime));
+
+        JwtKeyRing.JwtKey activeKey = keyRing != null ? keyRing.getSigningKey() : null;
+        if (activeKey != null) {
+            return builder.setHeaderParam(JwsHeader.KEY_ID, activeKey.kid())
+                    .signWith(activeKey.signingKey(), activeKey.algorithm()).compact();
+        }
+        if (verifyOnly || signKey == null) {
+            throw new IllegalStateException("No signing key configured, this node can only verify tokens");
+        }
+        return builder.signWith(signKey, SignatureAlgorithm.HS256).compact();
+    }
+
+    /**
+     * Picks the verification key from the token's kid header. Tokens without a kid were signed with the
+     * jwt.secret-token secret, so they stay valid when a keyring is introduced.
+     */
+    private class KeyRingResolver extends SigningKeyResolverAdapter {
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            String kid = header.getKeyId();
+            if (kid == null) {
+                if (signKey == null) {
+                    throw new UnsupportedJwtException("JWT token has no key id");
+                }
+                return signKey;
+            }
+            JwtKeyRing.JwtKey key = keyRing != null ? keyRing.getKey(kid) : null;
+            if (key == null) {
+                throw new UnsupportedJwtException("Unknown JWT key id: " + kid);
+            }
+            // the algorithm is bound to the key, never taken from the token alone
+            if (!key.algorithm().getValue().equals(header.getAlgorithm())) {
+                throw new UnsupportedJwtException("JWT algorithm does not match key id: " + kid);
+            }
+            return key.verificationKey();
+        }
+    }
+
+    private static List<String> extractRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> roleNames)) {
+            return null;
+        }
+        return roleNames.stream().map(String::valueOf).toList();
     }
 
-    private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretToken);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
     }
-}
\ No newline at end of file
+}
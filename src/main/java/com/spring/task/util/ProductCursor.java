@@ -0,0 +1,52 @@
+package com.spring.task.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spring.task.entity.Product;
+import com.spring.task.enumration.ProductSortKey;
+import org.springframework.data.domain.Sort;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated product listing: the sort order and the sort value and id of the last row returned.
+ *
+ * Clients only see it as an opaque URL-safe token handed back as {@code cursor}; the sort order travels with it, so
+ * following pages need no other parameter.
+ */
+public record ProductCursor(ProductSortKey sort, Sort.Direction direction, String value, Long id) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public static ProductCursor after(Product product, ProductSortKey sort, Sort.Direction direction) {
+        return new ProductCursor(sort, direction, sort.format(product), product.getId());
+    }
+
+    public Comparable<?> parsedValue() {
+        return sort.parse(value);
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode product cursor", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static ProductCursor decode(String token) {
+        try {
+            ProductCursor cursor = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), ProductCursor.class);
+            if (cursor.sort() == null || cursor.direction() == null || cursor.id() == null) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            cursor.parsedValue();
+            return cursor;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.spring.task.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Position in a ranked product search: the query and the relevance score and id of the last hit returned.
+ *
+ * Handed to clients as an opaque URL-safe token; the query travels with it so a cursor cannot be replayed against a
+ * different search.
+ */
+public record ProductSearchCursor(String query, Float score, Long id) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not encode search cursor", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()} for the same query
+     */
+    public static ProductSearchCursor decode(String token, String query) {
+        try {
+            ProductSearchCursor cursor = OBJECT_MAPPER.readValue(Base64.getUrlDecoder().decode(token), ProductSearchCursor.class);
+            if (cursor.score() == null || cursor.id() == null || !query.equals(cursor.query())) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return cursor;
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
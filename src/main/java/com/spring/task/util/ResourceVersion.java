@@ -0,0 +1,59 @@
+package com.spring.task.util;
+
+import com.spring.task.repository.VersionProbe;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * Validators of a representation for conditional requests: an entity tag and a Last-Modified time in epoch millis,
+ * or -1 if unknown.
+ *
+ * A single row is tagged by its version or update time, a collection by the in-memory write generations of the
+ * tables it is assembled from (see WriteGenerations). Update times are stored in the JVM time zone.
+ */
+public record ResourceVersion(String tag, long lastModified) {
+
+    public static ResourceVersion of(VersionProbe probe) {
+        LocalDateTime modified = probe.getLastModified();
+        if (modified == null) {
+            return new ResourceVersion(Long.toString(probe.getRowCount(), 36), -1);
+        }
+        long micros = modified.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + modified.getNano() / 1_000;
+        return of(Long.toString(probe.getRowCount(), 36) + "." + Long.toString(micros, 36), modified);
+    }
+
+    public static ResourceVersion of(String tag, LocalDateTime modified) {
+        return new ResourceVersion(tag, modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1);
+    }
+
+    /**
+     * The tag quoted as an ETag header value.
+     */
+    public String eTag() {
+        return "\"" + tag + "\"";
+    }
+
+    /**
+     * Whether an If-Match header value, {@code *} or a list of entity tags, matches this version. Weak tags never
+     * match, If-Match uses the strong comparison.
+     */
+    public boolean matches(String ifMatch) {
+        String eTag = eTag();
+        for (String candidate : ifMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || trimmed.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version of a representation that also embeds the other one.
+     */
+    public ResourceVersion and(ResourceVersion other) {
+        return new ResourceVersion(tag + "-" + other.tag, Math.max(lastModified, other.lastModified));
+    }
+}
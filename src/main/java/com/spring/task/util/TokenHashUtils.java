@@ -0,0 +1,23 @@
+package com.spring.task.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes tokens into the fixed-width SHA-256 digests stored in tbl_token instead of the raw tokens.
+ */
+public final class TokenHashUtils {
+
+    private TokenHashUtils() {
+    }
+
+    public static byte[] sha256(String token) {
+        try {
+            // MessageDigest instances are not thread-safe, so a new one is taken per call
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by this JVM", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.spring.task.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Immutable view of a JWT whose signature and expiry have already been checked by {@link JwtUtils#verifyToken(String)}.
+ *
+ * Callers pass this object along instead of the raw token so the token is parsed only once per request.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class VerifiedToken {
+
+    private final String subject;
+    private final Instant issuedAt;
+    private final Instant expiration;
+    // role names carried by the token in stateless authorization mode, null when the token has no roles claim
+    private final List<String> roles;
+
+    public boolean isExpired() {
+        return expiration != null && expiration.isBefore(Instant.now());
+    }
+}
@@ -0,0 +1,51 @@
+package com.spring.task.web;
+
+import com.spring.task.util.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Conditional GET support for controllers: validate If-None-Match and If-Modified-Since against a ResourceVersion
+ * obtained without assembling the response, and answer 304 without a body when the client's copy is current.
+ *
+ * <pre>
+ * if (ConditionalRequests.isNotModified(webRequest, version)) {
+ *     return null;
+ * }
+ * ...
+ * return ConditionalRequests.ok(apiResponse);
+ * </pre>
+ */
+public final class ConditionalRequests {
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Checks the request's validators against the version and adds the ETag and Last-Modified headers to the
+     * response. Returns true if the response has been turned into a 304 and the handler should return null.
+     */
+    public static boolean isNotModified(WebRequest webRequest, ResourceVersion version) {
+        return webRequest.checkNotModified(version.tag(), version.lastModified());
+    }
+
+    /**
+     * Like isNotModified, for collections: only If-None-Match is checked and only the ETag header is added. The
+     * latest update time of the members does not move when one of them is deleted, so it is no validator of the list.
+     */
+    public static boolean isCollectionNotModified(WebRequest webRequest, ResourceVersion version) {
+        return webRequest.checkNotModified(version.tag());
+    }
+
+    /**
+     * A 200 response that clients may store but have to revalidate, in place of Spring Security's default no-store.
+     */
+    public static ResponseEntity<ApiResponse> ok(ApiResponse apiResponse) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+        return new ResponseEntity<>(apiResponse, headers, HttpStatus.OK);
+    }
+}
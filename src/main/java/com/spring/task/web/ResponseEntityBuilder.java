@@ -1,5 +1,6 @@
 package com.spring.task.web;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 
 public class ResponseEntityBuilder {
@@ -7,4 +8,8 @@ public class ResponseEntityBuilder {
     public static ResponseEntity<Object> build(ApiError apiError) {
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
+
+    public static ResponseEntity<Object> build(ApiError apiError, HttpHeaders headers) {
+        return new ResponseEntity<>(apiError, headers, apiError.getStatus());
+    }
 }
@@ -0,0 +1,45 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization).
+-- Every statement must be idempotent since the script runs on each startup.
+
+-- tbl_token: tokens are stored as SHA-256 digests only. Sessions saved with raw tokens cannot be
+-- looked up by digest, so they are dropped together with the raw token columns.
+DELETE FROM tbl_token WHERE token_digest IS NULL OR refresh_token_digest IS NULL;
+ALTER TABLE tbl_token DROP COLUMN IF EXISTS token;
+ALTER TABLE tbl_token DROP COLUMN IF EXISTS refresh_token;
+ALTER TABLE tbl_token ALTER COLUMN token_digest SET NOT NULL;
+ALTER TABLE tbl_token ALTER COLUMN refresh_token_digest SET NOT NULL;
+
+-- tbl_token: rows written before expires_at existed get the longest refresh token lifetime, so the
+-- purge job removes them once they can no longer be used.
+UPDATE tbl_token SET expires_at = now() + interval '1 day' WHERE expires_at IS NULL;
+
+-- Ids come from pooled sequences (allocation size 50) instead of identity columns. A sequence
+-- value v owns the ids (v - 50, v], so each sequence is moved past the ids already in its table.
+SELECT setval('tbl_products_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM tbl_products), (SELECT last_value FROM tbl_products_seq)));
+SELECT setval('tbl_category_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM tbl_category), (SELECT last_value FROM tbl_category_seq)));
+SELECT setval('tbl_user_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM tbl_user), (SELECT last_value FROM tbl_user_seq)));
+SELECT setval('tbl_role_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM tbl_role), (SELECT last_value FROM tbl_role_seq)));
+SELECT setval('tbl_token_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM tbl_token), (SELECT last_value FROM tbl_token_seq)));
+
+-- tbl_products: full-text search document, names weighted above brands above descriptions. Kept up to
+-- date by Postgres itself and unmapped in the entity, so Hibernate never writes or drops it.
+ALTER TABLE tbl_products ADD COLUMN IF NOT EXISTS search_vector tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('english', coalesce(name, '')), 'A') ||
+    setweight(to_tsvector('english', coalesce(brand, '')), 'B') ||
+    setweight(to_tsvector('english', coalesce(description, '')), 'C')) STORED;
+CREATE INDEX IF NOT EXISTS idx_products_search_vector ON tbl_products USING GIN (search_vector);
+
+-- tbl_products: in-stock filtering; partial so it only holds the rows the filter can return.
+CREATE INDEX IF NOT EXISTS idx_products_in_stock_category_price ON tbl_products (category, price, id) WHERE inventory > 0;
+
+-- Case-insensitive name uniqueness, enforced on write instead of checked with a query beforehand. The
+-- services translate violations of these indexes into ResourceAlreadyExistException by index name.
+CREATE UNIQUE INDEX IF NOT EXISTS ux_products_lower_name ON tbl_products (lower(name));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_category_lower_name ON tbl_category (lower(name));
+CREATE UNIQUE INDEX IF NOT EXISTS ux_role_lower_name ON tbl_role (lower(name));
+
+-- tbl_products: optimistic lock version. Rows from before the column existed start at 0, as do rows
+-- written by the bulk import, which does not set it.
+UPDATE tbl_products SET version = 0 WHERE version IS NULL;
+ALTER TABLE tbl_products ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE tbl_products ALTER COLUMN version SET NOT NULL;
@@ -0,0 +1,387 @@
+package com.spring.task.cache;
+
+import com.spring.task.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryDeltaBufferTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductResponseCache productResponseCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private InventoryDeltaBuffer inventoryDeltaBuffer;
+
+    @BeforeEach
+    public void setUp() {
+        inventoryDeltaBuffer = buffer(100, 500);
+        // no row is locked by another transaction unless a test says so
+        lenient().when(productRepository.lockUnlockedByIds(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().sorted().toList());
+    }
+
+    private InventoryDeltaBuffer buffer(long flushThreshold, int batchSize) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new InventoryDeltaBuffer(productRepository, productResponseCache, new WriteGenerations(), new TransactionTemplate(transactionManager),
+                flushThreshold, batchSize, meterRegistry);
+    }
+
+    @Test
+    public void testAdd_SumsDeltasPerProduct() {
+        inventoryDeltaBuffer.add(1L, 3);
+        inventoryDeltaBuffer.add(1L, 2);
+        inventoryDeltaBuffer.add(2L, -1);
+
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+        assertEquals(-1, inventoryDeltaBuffer.pending(2L));
+        assertEquals(0, inventoryDeltaBuffer.pending(3L));
+        assertTrue(inventoryDeltaBuffer.hasPending());
+        assertEquals(3, inventoryDeltaBuffer.generation());
+        assertEquals(3.0, meterRegistry.get("inventory.write_behind.pending").gauge().value());
+    }
+
+    @Test
+    public void testFlush_WritesSumsInOneUpdate() {
+        inventoryDeltaBuffer.add(1L, 3);
+        inventoryDeltaBuffer.add(2L, -1);
+        inventoryDeltaBuffer.add(1L, 2);
+        when(productRepository.addInventory(eq(Map.of(1L, 5, 2L, -1)), any())).thenAnswer(invocation -> {
+            // still counted by reads until the flush has committed
+            assertEquals(5, inventoryDeltaBuffer.pending(1L));
+            return 2;
+        });
+
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+        assertFalse(inventoryDeltaBuffer.hasPending());
+        verify(productResponseCache).invalidate(1L);
+        verify(productResponseCache).invalidate(2L);
+        assertEquals(1, meterRegistry.get("inventory.write_behind.lag").timer().count());
+        assertEquals(2.0, meterRegistry.get("inventory.write_behind.flushed").counter().count());
+    }
+
+    @Test
+    public void testFlush_NothingPending() {
+        inventoryDeltaBuffer.add(1L, 2);
+        inventoryDeltaBuffer.add(1L, -2);
+
+        inventoryDeltaBuffer.flush();
+
+        verify(productRepository, never()).addInventory(anyMap(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void testFlush_SplitsIntoBatches() {
+        inventoryDeltaBuffer = buffer(100, 2);
+        inventoryDeltaBuffer.add(3L, 1);
+        inventoryDeltaBuffer.add(1L, 1);
+        inventoryDeltaBuffer.add(2L, 1);
+        when(productRepository.addInventory(eq(Map.of(1L, 1, 2L, 1)), any())).thenReturn(2);
+        when(productRepository.addInventory(eq(Map.of(3L, 1)), any())).thenReturn(1);
+
+        inventoryDeltaBuffer.flush();
+
+        assertFalse(inventoryDeltaBuffer.hasPending());
+    }
+
+    @Test
+    public void testFlush_FailureKeepsDeltasForNextFlush() {
+        inventoryDeltaBuffer.add(1L, 5);
+        when(productRepository.addInventory(eq(Map.of(1L, 5)), any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(1);
+
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+        verify(productResponseCache, never()).invalidate(1L);
+
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+        verify(productResponseCache).invalidate(1L);
+    }
+
+    @Test
+    public void testAdd_ThresholdStartsFlush() {
+        inventoryDeltaBuffer = buffer(2, 500);
+        when(productRepository.addInventory(eq(Map.of(1L, 2)), any())).thenReturn(1);
+
+        inventoryDeltaBuffer.add(1L, 1);
+        inventoryDeltaBuffer.add(1L, 1);
+
+        verify(productResponseCache, timeout(5000)).invalidate(1L);
+    }
+
+    @Test
+    public void testShutdown_FlushesPendingDeltas() throws InterruptedException {
+        inventoryDeltaBuffer.add(1L, 4);
+        when(productRepository.addInventory(eq(Map.of(1L, 4)), any())).thenReturn(1);
+
+        inventoryDeltaBuffer.shutdown();
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testDrain_RestoresSumWhenTransactionRollsBack() {
+        inventoryDeltaBuffer.add(1L, 5);
+
+        assertEquals(5, inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            long drained = inventoryDeltaBuffer.drain(1L);
+            assertEquals(0, inventoryDeltaBuffer.drain(1L));
+            // still counted by reads until the transaction completes
+            assertEquals(5, inventoryDeltaBuffer.pending(1L));
+            return drained;
+        }));
+
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+        assertEquals(5, inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> inventoryDeltaBuffer.drain(1L)));
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testDrain_RequiresTransaction() {
+        assertEquals(0, inventoryDeltaBuffer.drain(1L));
+
+        inventoryDeltaBuffer.add(1L, 5);
+
+        assertThrows(IllegalStateException.class, () -> inventoryDeltaBuffer.drain(1L));
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testDrain_WhileFlushRunningTakesOnlyNewDeltas() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        when(productRepository.addInventory(eq(Map.of(1L, 5)), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(commit.await(5, TimeUnit.SECONDS));
+            return 1;
+        });
+        inventoryDeltaBuffer.add(1L, 5);
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(inventoryDeltaBuffer::flush);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        inventoryDeltaBuffer.add(1L, 2);
+
+        // the flushed 5 reaches a reservation through the row once the flush commits, never through the buffer
+        assertEquals(2, inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            long drained = inventoryDeltaBuffer.drain(1L);
+            assertEquals(7, inventoryDeltaBuffer.pending(1L));
+            return drained;
+        }));
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+
+        commit.countDown();
+        flush.get(5, TimeUnit.SECONDS);
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testFlush_DefersProductsLockedByOtherTransactions() {
+        inventoryDeltaBuffer.add(1L, 5);
+        inventoryDeltaBuffer.add(2L, 3);
+        doReturn(List.of(1L)).when(productRepository).lockUnlockedByIds(any());
+        when(productRepository.findExistingIds(List.of(2L))).thenReturn(List.of(2L));
+        when(productRepository.addInventory(eq(Map.of(1L, 5)), any())).thenReturn(1);
+
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+        assertEquals(3, inventoryDeltaBuffer.pending(2L));
+        assertTrue(inventoryDeltaBuffer.hasPending());
+        verify(productResponseCache, never()).invalidate(2L);
+    }
+
+    @Test
+    public void testFlush_DropsDeltasOfDeletedProducts() {
+        inventoryDeltaBuffer.add(1L, 5);
+        doReturn(List.of()).when(productRepository).lockUnlockedByIds(any());
+        when(productRepository.findExistingIds(List.of(1L))).thenReturn(List.of());
+
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+        assertFalse(inventoryDeltaBuffer.hasPending());
+        verify(productRepository, never()).addInventory(anyMap(), any());
+    }
+
+    @Test
+    public void testFlush_RemovesIdleEntries() {
+        inventoryDeltaBuffer.add(1L, 5);
+        when(productRepository.addInventory(eq(Map.of(1L, 5)), any())).thenReturn(1);
+
+        inventoryDeltaBuffer.flush();
+        assertTrue(inventoryDeltaBuffer.contains(1L));
+
+        inventoryDeltaBuffer.flush();
+        assertFalse(inventoryDeltaBuffer.contains(1L));
+
+        inventoryDeltaBuffer.add(1L, 2);
+        assertEquals(2, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testFlush_RemovingEntriesLosesNoConcurrentDelta() throws Exception {
+        AtomicLong written = new AtomicLong();
+        when(productRepository.addInventory(anyMap(), any())).thenAnswer(invocation -> {
+            Map<Long, Integer> sums = invocation.getArgument(0);
+            sums.values().forEach(written::addAndGet);
+            return sums.size();
+        });
+        AtomicBoolean adding = new AtomicBoolean(true);
+        CompletableFuture<Void> flusher = CompletableFuture.runAsync(() -> {
+            while (adding.get()) {
+                inventoryDeltaBuffer.flush();
+            }
+        });
+
+        List<CompletableFuture<Void>> adders = LongStream.range(0, 4)
+                .mapToObj(thread -> CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        inventoryDeltaBuffer.add(i % 3 + 1L, 1);
+                    }
+                }))
+                .toList();
+        CompletableFuture.allOf(adders.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        adding.set(false);
+        flusher.get(30, TimeUnit.SECONDS);
+        inventoryDeltaBuffer.flush();
+
+        assertEquals(80_000, written.get());
+        assertFalse(inventoryDeltaBuffer.hasPending());
+    }
+
+    @Test
+    public void testDiscard_DropsSumTakenBeforeItOnceCommitted() throws Exception {
+        inventoryDeltaBuffer.add(1L, 5);
+        CountDownLatch drained = new CountDownLatch(1);
+        CountDownLatch discarded = new CountDownLatch(1);
+
+        // a reservation takes the sum, then rolls back only after an absolute write replaced the inventory
+        CompletableFuture<Long> reservation = CompletableFuture.supplyAsync(() ->
+                inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+                    long sum = inventoryDeltaBuffer.drain(1L);
+                    drained.countDown();
+                    awaitQuietly(discarded);
+                    return sum;
+                }));
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            inventoryDeltaBuffer.discard(1L);
+            discarded.countDown();
+            assertEquals(5, reservation.join());
+            assertEquals(0, inventoryDeltaBuffer.pending(1L));
+            return 0;
+        });
+        inventoryDeltaBuffer.add(1L, 2);
+
+        assertEquals(2, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testDiscard_RestoresSumTakenBeforeItWhenRolledBack() throws Exception {
+        inventoryDeltaBuffer.add(1L, 5);
+        CountDownLatch drained = new CountDownLatch(1);
+        CountDownLatch discarded = new CountDownLatch(1);
+
+        CompletableFuture<Long> reservation = CompletableFuture.supplyAsync(() ->
+                inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+                    long sum = inventoryDeltaBuffer.drain(1L);
+                    drained.countDown();
+                    awaitQuietly(discarded);
+                    return sum;
+                }));
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        inventoryDeltaBuffer.add(1L, 2);
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            inventoryDeltaBuffer.discard(1L);
+            discarded.countDown();
+            return reservation.join();
+        });
+
+        assertEquals(7, inventoryDeltaBuffer.pending(1L));
+    }
+
+    @Test
+    public void testDiscard_DropsSumUnlessTransactionRollsBack() {
+        inventoryDeltaBuffer.add(1L, 5);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            inventoryDeltaBuffer.discard(1L);
+            assertEquals(0, inventoryDeltaBuffer.pending(1L));
+            return 0;
+        });
+        assertEquals(5, inventoryDeltaBuffer.pending(1L));
+
+        inTransaction(TransactionSynchronization.STATUS_COMMITTED, () -> {
+            inventoryDeltaBuffer.discard(1L);
+            inventoryDeltaBuffer.discard(2L);
+            return 0;
+        });
+        assertEquals(0, inventoryDeltaBuffer.pending(1L));
+        inventoryDeltaBuffer.flush();
+        verify(productRepository, never()).addInventory(anyMap(), any());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long inTransaction(int completionStatus, LongSupplier work) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            long result = work.getAsLong();
+            TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.afterCompletion(completionStatus));
+            return result;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
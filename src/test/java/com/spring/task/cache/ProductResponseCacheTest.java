@@ -0,0 +1,172 @@
+package com.spring.task.cache;
+
+import com.spring.task.payload.response.CategoryResponse;
+import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.payload.response.RoleResponse;
+import com.spring.task.payload.response.UserResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductResponseCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductResponseCache productResponseCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        productResponseCache = new ProductResponseCache(1 << 20, Duration.ofMinutes(10), meterRegistry);
+    }
+
+    @Test
+    public void testGet_LoadsOnceThenHits() {
+        ProductResponse first = productResponseCache.get(1L, this::load);
+        ProductResponse second = productResponseCache.get(1L, this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("cache", "productResponse").gauge().value());
+    }
+
+    @Test
+    public void testGet_MissingProductIsNotCached() {
+        assertNull(productResponseCache.get(1L, id -> null));
+
+        assertEquals(0, productResponseCache.size());
+        assertNotNull(productResponseCache.get(1L, this::load));
+    }
+
+    @Test
+    public void testGet_ConcurrentMissesLoadOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<ProductResponse> first = executor.submit(() -> productResponseCache.get(1L, id -> {
+                loading.countDown();
+                await(release);
+                return load(id);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            Future<ProductResponse> second = executor.submit(() -> productResponseCache.get(1L, this::load));
+            Future<ProductResponse> third = executor.submit(() -> productResponseCache.get(1L, this::load));
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertSame(first.get(), third.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testInvalidate_ForcesReload() {
+        ProductResponse first = productResponseCache.get(1L, this::load);
+        productResponseCache.get(2L, this::load);
+
+        productResponseCache.invalidate(1L);
+
+        assertNotSame(first, productResponseCache.get(1L, this::load));
+        productResponseCache.get(2L, this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testInvalidateByCategory_EvictsProductsOfThatCategoryOnly() {
+        productResponseCache.get(1L, this::load);
+        productResponseCache.get(2L, this::load);
+
+        // odd ids are in category 1, even ids in category 2
+        productResponseCache.invalidateByCategory(1L);
+        productResponseCache.get(1L, this::load);
+        productResponseCache.get(2L, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testInvalidateByRole_EvictsProductsOfHoldersOfThatRole() {
+        productResponseCache.get(1L, this::load);
+        productResponseCache.get(2L, this::load);
+
+        // only even ids are owned by a holder of role 7
+        productResponseCache.invalidateByRole(7L);
+        productResponseCache.get(1L, this::load);
+        productResponseCache.get(2L, this::load);
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testGet_LoadOverlappingScanIsReloadedOnNextRead() {
+        ProductResponse stale = productResponseCache.get(1L, id -> {
+            // the category changes while the product is being read
+            productResponseCache.invalidateByCategory(1L);
+            return load(id);
+        });
+
+        ProductResponse fresh = productResponseCache.get(1L, this::load);
+
+        assertNotSame(stale, fresh);
+        assertSame(fresh, productResponseCache.get(1L, this::load));
+    }
+
+    @Test
+    public void testGet_EvictsBeyondMaxBytes() {
+        productResponseCache = new ProductResponseCache(4096, Duration.ofMinutes(10), meterRegistry);
+
+        for (long id = 1; id <= 100; id++) {
+            productResponseCache.get(id, this::load);
+        }
+        productResponseCache.get(101L, this::load);
+
+        assertTrue(productResponseCache.size() < 100);
+    }
+
+    private ProductResponse load(Long id) {
+        loads.incrementAndGet();
+        CategoryResponse category = new CategoryResponse();
+        category.setId(id % 2 == 1 ? 1L : 2L);
+        category.setName("Category " + category.getId());
+
+        RoleResponse role = new RoleResponse();
+        role.setId(id % 2 == 1 ? 3L : 7L);
+        role.setName("ROLE_" + role.getId());
+        UserResponse user = new UserResponse();
+        user.setId(id + 100);
+        user.setName("Owner");
+        user.setEmail("owner@example.com");
+        user.setRoles(Set.of(role));
+
+        ProductResponse response = new ProductResponse();
+        response.setId(id);
+        response.setName("Product " + id);
+        response.setBrand("Brand");
+        response.setDescription("A product used in cache tests");
+        response.setCategory(category);
+        response.setUserResponse(user);
+        return response;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.spring.task.cache;
+
+import com.spring.task.payload.response.ProductSuggestion;
+import com.spring.task.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ProductSuggestIndexTest {
+
+    private ProductSuggestIndex productSuggestIndex;
+
+    @BeforeEach
+    public void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findAllNamesAndBrands()).thenReturn(List.of(
+                product(1L, "Wildflower Honey", "Farm Fresh"),
+                product(2L, "Honey", "Hill Apiary"),
+                product(3L, "Oat Granola", "Honeycomb Foods"),
+                product(4L, "Sourdough Bread", "Bakery"),
+                product(5L, "Honey Mustard", "Farm Fresh")));
+        productSuggestIndex = new ProductSuggestIndex(productRepository, 1000, new SimpleMeterRegistry());
+        productSuggestIndex.load();
+    }
+
+    @Test
+    public void testSuggest_PrefixRankedByNamePrefixThenLength() {
+        assertEquals(List.of(2L, 5L, 3L, 1L), ids(productSuggestIndex.suggest("hon", 10)));
+    }
+
+    @Test
+    public void testSuggest_EveryWordMustMatch() {
+        assertEquals(List.of(5L, 1L), ids(productSuggestIndex.suggest("Farm ho", 10)));
+        assertEquals(List.of(), ids(productSuggestIndex.suggest("bread honey", 10)));
+    }
+
+    @Test
+    public void testSuggest_RespectsLimit() {
+        assertEquals(List.of(2L, 5L), ids(productSuggestIndex.suggest("honey", 2)));
+    }
+
+    @Test
+    public void testSuggest_ToleratesTypos() {
+        assertEquals(List.of(4L), ids(productSuggestIndex.suggest("sourdugh", 10)));
+        assertEquals(List.of(4L), ids(productSuggestIndex.suggest("bakrey", 10)));
+        // no typo tolerance for very short words
+        assertEquals(List.of(), ids(productSuggestIndex.suggest("bx", 10)));
+    }
+
+    @Test
+    public void testSuggest_ExactMatchesBeforeTypos() {
+        List<ProductSuggestion> suggestions = productSuggestIndex.suggest("grano", 10);
+
+        assertEquals(3L, suggestions.get(0).getId());
+    }
+
+    @Test
+    public void testPutAndRemove_ShadowSnapshot() {
+        productSuggestIndex.put(4L, "Rye Bread", "Bakery");
+        productSuggestIndex.put(6L, "Honey Roasted Nuts", "Nutty");
+        productSuggestIndex.remove(2L);
+
+        assertEquals(List.of(5L, 6L, 3L, 1L), ids(productSuggestIndex.suggest("hon", 10)));
+        assertEquals(List.of(), ids(productSuggestIndex.suggest("sourdough", 10)));
+        assertEquals(List.of(4L), ids(productSuggestIndex.suggest("rye", 10)));
+        assertEquals(5, productSuggestIndex.size());
+    }
+
+    @Test
+    public void testRebuild_MergesOverlay() {
+        productSuggestIndex.put(6L, "Honey Roasted Nuts", "Nutty");
+        productSuggestIndex.remove(2L);
+        long bytesBefore = productSuggestIndex.estimatedBytes();
+
+        productSuggestIndex.rebuild();
+
+        assertEquals(List.of(5L, 6L, 3L, 1L), ids(productSuggestIndex.suggest("hon", 10)));
+        assertEquals(5, productSuggestIndex.size());
+        assertTrue(productSuggestIndex.estimatedBytes() > 0);
+        assertTrue(productSuggestIndex.estimatedBytes() < bytesBefore);
+    }
+
+    @Test
+    public void testPrefixDistance() {
+        assertEquals(0, ProductSuggestIndex.prefixDistance("hon", "honey", 1));
+        assertEquals(1, ProductSuggestIndex.prefixDistance("hony", "honey", 1));
+        assertEquals(1, ProductSuggestIndex.prefixDistance("hoeny", "honey", 2));
+        assertTrue(ProductSuggestIndex.prefixDistance("bread", "honey", 1) > 1);
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+
+    private static ProductRepository.NameAndBrand product(Long id, String name, String brand) {
+        return new ProductRepository.NameAndBrand() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getBrand() {
+                return brand;
+            }
+        };
+    }
+}
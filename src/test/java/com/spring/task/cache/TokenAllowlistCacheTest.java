@@ -0,0 +1,71 @@
+package com.spring.task.cache;
+
+import com.spring.task.entity.AuthToken;
+import com.spring.task.util.TokenHashUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenAllowlistCacheTest {
+
+    private static final byte[] TOKEN_DIGEST = TokenHashUtils.sha256("token");
+
+    private MeterRegistry meterRegistry;
+    private TokenAllowlistCache tokenAllowlistCache;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenAllowlistCache = new TokenAllowlistCache(100, meterRegistry);
+    }
+
+    @Test
+    public void testPutAndGet() {
+        AuthToken authToken = new AuthToken();
+        authToken.setUsername("test@example.com");
+
+        tokenAllowlistCache.put(TOKEN_DIGEST, authToken, Instant.now().plusSeconds(60));
+
+        assertSame(authToken, tokenAllowlistCache.get(TOKEN_DIGEST));
+        assertNull(tokenAllowlistCache.get(TokenHashUtils.sha256("otherToken")));
+    }
+
+    @Test
+    public void testPut_AlreadyExpiredTokenIsNotCached() {
+        tokenAllowlistCache.put(TOKEN_DIGEST, new AuthToken(), Instant.now().minusSeconds(1));
+
+        assertNull(tokenAllowlistCache.get(TOKEN_DIGEST));
+    }
+
+    @Test
+    public void testGet_KeyedByDigestContent() {
+        AuthToken authToken = new AuthToken();
+        tokenAllowlistCache.put(TOKEN_DIGEST, authToken, Instant.now().plusSeconds(60));
+
+        assertSame(authToken, tokenAllowlistCache.get(TokenHashUtils.sha256("token")));
+    }
+
+    @Test
+    public void testInvalidate() {
+        tokenAllowlistCache.put(TOKEN_DIGEST, new AuthToken(), Instant.now().plusSeconds(60));
+
+        tokenAllowlistCache.invalidate(TOKEN_DIGEST);
+
+        assertNull(tokenAllowlistCache.get(TOKEN_DIGEST));
+    }
+
+    @Test
+    public void testHitAndMissCountersArePublished() {
+        tokenAllowlistCache.put(TOKEN_DIGEST, new AuthToken(), Instant.now().plusSeconds(60));
+        tokenAllowlistCache.get(TOKEN_DIGEST);
+        tokenAllowlistCache.get(TokenHashUtils.sha256("missing"));
+
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tokenAllowlist").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "tokenAllowlist").tag("result", "miss").functionCounter().count());
+    }
+}
@@ -0,0 +1,98 @@
+package com.spring.task.cache;
+
+import com.spring.task.entity.User;
+import com.spring.task.payload.response.CustomUserDetails;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserDetailsCacheTest {
+
+    private UserDetailsCache userDetailsCache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testGet_LoadsOnceThenHits() {
+        CustomUserDetails first = userDetailsCache.get("test@example.com", this::load);
+        CustomUserDetails second = userDetailsCache.get("test@example.com", this::load);
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testInvalidate_ForcesReload() {
+        CustomUserDetails first = userDetailsCache.get("test@example.com", this::load);
+        userDetailsCache.get("other@example.com", this::load);
+
+        userDetailsCache.invalidate("test@example.com");
+
+        assertNotSame(first, userDetailsCache.get("test@example.com", this::load));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void testInvalidateAll_ForcesReloadOfEveryUser() {
+        userDetailsCache.get("test@example.com", this::load);
+        userDetailsCache.get("other@example.com", this::load);
+
+        userDetailsCache.invalidateAll();
+        userDetailsCache.get("test@example.com", this::load);
+        userDetailsCache.get("other@example.com", this::load);
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void testGet_LoadOverlappingInvalidationIsNotCached() {
+        CustomUserDetails stale = userDetailsCache.get("test@example.com", email -> {
+            // the user changes while it is being read
+            userDetailsCache.invalidate(email);
+            return load(email);
+        });
+
+        CustomUserDetails fresh = userDetailsCache.get("test@example.com", this::load);
+
+        assertNotSame(stale, fresh);
+        assertSame(fresh, userDetailsCache.get("test@example.com", this::load));
+    }
+
+    @Test
+    public void testGet_LoaderFailureIsNotCached() {
+        assertThrows(UsernameNotFoundException.class, () -> userDetailsCache.get("missing@example.com", email -> {
+            throw new UsernameNotFoundException("could not found user..!!");
+        }));
+
+        assertEquals(0, userDetailsCache.size());
+    }
+
+    @Test
+    public void testInvalidateAll_ByEmails() {
+        userDetailsCache.get("test@example.com", this::load);
+        userDetailsCache.get("other@example.com", this::load);
+
+        userDetailsCache.invalidateAll(List.of("test@example.com"));
+        userDetailsCache.get("other@example.com", this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    private CustomUserDetails load(String email) {
+        loads.incrementAndGet();
+        User user = new User();
+        user.setEmail(email);
+        return new CustomUserDetails(user);
+    }
+}
@@ -0,0 +1,50 @@
+package com.spring.task.cache;
+
+import com.spring.task.util.ResourceVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteGenerationsTest {
+
+    private final WriteGenerations writeGenerations = new WriteGenerations();
+
+    @Test
+    public void testAdvance_ChangesOnlyTheTagsOfTheResource() {
+        ResourceVersion categories = writeGenerations.version(WriteGenerations.Resource.CATEGORIES);
+        ResourceVersion products = writeGenerations.version(WriteGenerations.Resource.PRODUCTS, WriteGenerations.Resource.CATEGORIES);
+        ResourceVersion roles = writeGenerations.version(WriteGenerations.Resource.ROLES);
+
+        writeGenerations.advance(WriteGenerations.Resource.CATEGORIES);
+
+        assertNotEquals(categories, writeGenerations.version(WriteGenerations.Resource.CATEGORIES));
+        assertNotEquals(products, writeGenerations.version(WriteGenerations.Resource.PRODUCTS, WriteGenerations.Resource.CATEGORIES));
+        assertEquals(roles.tag(), writeGenerations.version(WriteGenerations.Resource.ROLES).tag());
+        assertTrue(roles.lastModified() > 0);
+    }
+
+    @Test
+    public void testAdvance_AgainAfterCommit() {
+        ResourceVersion readDuringTransaction;
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writeGenerations.advance(WriteGenerations.Resource.ROLES);
+            readDuringTransaction = writeGenerations.version(WriteGenerations.Resource.ROLES);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNotEquals(readDuringTransaction.tag(), writeGenerations.version(WriteGenerations.Resource.ROLES).tag());
+    }
+
+    @Test
+    public void testVersion_TagsDifferBetweenStartups() throws InterruptedException {
+        ResourceVersion before = writeGenerations.version(WriteGenerations.Resource.PRODUCTS);
+        Thread.sleep(2);
+
+        assertNotEquals(before.tag(), new WriteGenerations().version(WriteGenerations.Resource.PRODUCTS).tag());
+    }
+}
@@ -5,6 +5,7 @@ import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.CategoryRequest;
 import com.spring.task.payload.response.CategoryResponse;
 import com.spring.task.service.CategoryService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +14,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -22,7 +26,10 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doNothing;
 
@@ -35,6 +42,12 @@ public class CategoryControllerTest {
     @InjectMocks
     private CategoryController categoryController;
 
+    private static final ResourceVersion VERSION = new ResourceVersion("1.abc", 1_700_000_000_000L);
+
+    private final MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+    private final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    private final ServletWebRequest webRequest = new ServletWebRequest(servletRequest, servletResponse);
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testCreateCategory() {
@@ -58,12 +71,14 @@ public class CategoryControllerTest {
         Long categoryId = 1L;
         Category category = new Category();
 
+        when(categoryService.getCategoryVersion(categoryId)).thenReturn(Optional.of(VERSION));
         when(categoryService.getCategoryById(categoryId)).thenReturn(Optional.of(category));
         when(categoryService.mapEntityToResponse(category)).thenReturn(new CategoryResponse());
 
-        ResponseEntity<ApiResponse> response = categoryController.getCategoryById(categoryId);
+        ResponseEntity<ApiResponse> response = categoryController.getCategoryById(categoryId, webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1.abc\"", servletResponse.getHeader("ETag"));
         assertEquals("Get Category By ID ", response.getBody().getMessage()); // Note the trailing space
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
@@ -74,7 +89,18 @@ public class CategoryControllerTest {
         Long categoryId = 1L;
         when(categoryService.getCategoryById(categoryId)).thenReturn(Optional.empty());
 
-        assertThrows(ResourceNotFoundException.class, () -> categoryController.getCategoryById(categoryId));
+        assertThrows(ResourceNotFoundException.class, () -> categoryController.getCategoryById(categoryId, webRequest));
+    }
+
+    @Test
+    public void testGetCategoryById_NotModified() {
+        Long categoryId = 1L;
+        servletRequest.addHeader("If-None-Match", "\"1.abc\"");
+        when(categoryService.getCategoryVersion(categoryId)).thenReturn(Optional.of(VERSION));
+
+        assertNull(categoryController.getCategoryById(categoryId, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        verify(categoryService, never()).getCategoryById(categoryId);
     }
 
     @Test
@@ -82,9 +108,10 @@ public class CategoryControllerTest {
     public void testGetAllCategories() {
         List<CategoryResponse> allCategoriesLst = new ArrayList<>();
 
+        when(categoryService.getCategoriesVersion()).thenReturn(VERSION);
         when(categoryService.getAllCategoriesLst()).thenReturn(allCategoriesLst);
 
-        ResponseEntity<ApiResponse> response = categoryController.getAllCategories();
+        ResponseEntity<ApiResponse> response = categoryController.getAllCategories(webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Get all Categories", response.getBody().getMessage());
@@ -0,0 +1,82 @@
+package com.spring.task.controller;
+
+import com.spring.task.exception.InsufficientInventoryException;
+import com.spring.task.payload.request.InventoryAdjustment;
+import com.spring.task.payload.request.InventoryAdjustmentRequest;
+import com.spring.task.payload.request.InventoryItem;
+import com.spring.task.payload.request.InventoryRequest;
+import com.spring.task.service.InventoryService;
+import com.spring.task.web.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryControllerTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @InjectMocks
+    private InventoryController inventoryController;
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void testReserveInventory() {
+        List<InventoryItem> items = List.of(new InventoryItem(1L, 2));
+        when(inventoryService.reserve(items)).thenReturn(items);
+
+        ResponseEntity<ApiResponse> response = inventoryController.reserveInventory(new InventoryRequest(items));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Inventory reserved successfully", response.getBody().getMessage());
+        assertEquals(items, response.getBody().getData());
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void testReserveInventory_InsufficientInventory() {
+        List<InventoryItem> items = List.of(new InventoryItem(1L, 2));
+        when(inventoryService.reserve(items)).thenThrow(new InsufficientInventoryException("Insufficient inventory"));
+
+        InventoryRequest request = new InventoryRequest(items);
+
+        assertThrows(InsufficientInventoryException.class, () -> inventoryController.reserveInventory(request));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testReleaseInventory() {
+        List<InventoryItem> items = List.of(new InventoryItem(1L, 2));
+        when(inventoryService.release(items)).thenReturn(items);
+
+        ResponseEntity<ApiResponse> response = inventoryController.releaseInventory(new InventoryRequest(items));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Inventory released successfully", response.getBody().getMessage());
+    }
+
+    @Test
+    @WithMockUser(roles = "MANAGER")
+    public void testAdjustInventory_WriteBehindIsAccepted() {
+        List<InventoryAdjustment> adjustments = List.of(new InventoryAdjustment(1L, -2));
+        when(inventoryService.adjust(adjustments)).thenReturn(adjustments);
+        when(inventoryService.isWriteBehind()).thenReturn(true);
+
+        ResponseEntity<ApiResponse> response = inventoryController.adjustInventory(new InventoryAdjustmentRequest(adjustments));
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(adjustments, response.getBody().getData());
+    }
+}
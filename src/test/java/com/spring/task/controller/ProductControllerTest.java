@@ -1,19 +1,41 @@
 package com.spring.task.controller;
 
+import com.spring.task.cache.ProductSuggestIndex;
 import com.spring.task.entity.Product;
+import com.spring.task.enumration.ImportFormat;
+import com.spring.task.enumration.ProductSortKey;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.payload.request.ProductPatch;
 import com.spring.task.payload.request.ProductRequest;
+import com.spring.task.payload.response.ProductFacetsResponse;
+import com.spring.task.payload.response.ProductImportResponse;
+import com.spring.task.payload.response.ProductPageResponse;
+import com.spring.task.payload.response.ProductSuggestion;
 import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.service.ProductExportService;
+import com.spring.task.service.ProductImportService;
 import com.spring.task.service.ProductService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -22,8 +44,14 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,10 +59,22 @@ public class ProductControllerTest {
 
     @Mock
     private ProductService productService;
+    @Mock
+    private ProductExportService productExportService;
+    @Mock
+    private ProductImportService productImportService;
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
 
     @InjectMocks
     private ProductController productController;
 
+    private static final ResourceVersion VERSION = new ResourceVersion("1.abc", 1_700_000_000_000L);
+
+    private final MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+    private final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    private final ServletWebRequest webRequest = new ServletWebRequest(servletRequest, servletResponse);
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testAddProduct() {
@@ -55,15 +95,18 @@ public class ProductControllerTest {
     @WithMockUser(roles = "ADMIN")
     public void testGetProductById_ProductFound() {
         Long productId = 1L;
-        Product product = new Product();
+        ProductResponse productResponse = new ProductResponse();
 
-        when(productService.getProductById(productId)).thenReturn(Optional.of(product));
-        when(productService.mapEntityToResponse(product)).thenReturn(new ProductResponse());
+        when(productService.getProductVersion(productId)).thenReturn(Optional.of(VERSION));
+        when(productService.getProductResponseById(productId)).thenReturn(Optional.of(productResponse));
 
-        ResponseEntity<ApiResponse> response = productController.getProductById(productId);
+        ResponseEntity<ApiResponse> response = productController.getProductById(productId, webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Get Product By ID ", response.getBody().getMessage());
+        assertEquals(productResponse, response.getBody().getData());
+        assertEquals("\"1.abc\"", servletResponse.getHeader("ETag"));
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
 
@@ -71,20 +114,32 @@ public class ProductControllerTest {
     @WithMockUser(roles = "ADMIN")
     public void testGetProductById_ProductNotFound() {
         Long productId = 1L;
-        when(productService.getProductById(productId)).thenReturn(Optional.empty());
+        when(productService.getProductResponseById(productId)).thenReturn(Optional.empty());
 
-        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> productController.getProductById(productId));
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> productController.getProductById(productId, webRequest));
         assertEquals("Error: Product is not found.", exception.getMessage());
     }
 
+    @Test
+    public void testGetProductById_NotModified() {
+        Long productId = 1L;
+        servletRequest.addHeader("If-None-Match", "\"1.abc\"");
+        when(productService.getProductVersion(productId)).thenReturn(Optional.of(VERSION));
+
+        assertNull(productController.getProductById(productId, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        verify(productService, never()).getProductResponseById(productId);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testGetAllProducts() {
         List<ProductResponse> productResponseList = new ArrayList<>();
 
+        when(productService.getProductsVersion()).thenReturn(VERSION);
         when(productService.getAllProductsLst()).thenReturn(productResponseList);
 
-        ResponseEntity<ApiResponse> response = productController.getAllProducts();
+        ResponseEntity<ApiResponse> response = productController.getAllProducts(null, null, null, null, false, null, null, null, null, null, false, webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Get all products", response.getBody().getMessage());
@@ -92,6 +147,123 @@ public class ProductControllerTest {
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
 
+    @Test
+    public void testGetAllProducts_Page() {
+        ProductPageResponse productPage = ProductPageResponse.builder().content(new ArrayList<>()).build();
+
+        when(productService.getProductsVersion()).thenReturn(VERSION);
+        when(productService.getProductsPage(new ProductFilter(), ProductSortKey.PRICE, Sort.Direction.DESC, null, 100, true)).thenReturn(productPage);
+
+        ResponseEntity<ApiResponse> response = productController.getAllProducts("price", "desc", 500, null, true, null, null, null, null, null, false, webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Get products page", response.getBody().getMessage());
+        assertEquals(productPage, response.getBody().getData());
+        verify(productService, never()).getAllProductsLst();
+    }
+
+    @Test
+    public void testGetAllProducts_FilterSelectsPage() {
+        ProductFilter filter = new ProductFilter(List.of(1L), List.of("Farm"), null, 2f, null, true);
+        ProductPageResponse productPage = ProductPageResponse.builder().content(new ArrayList<>()).build();
+
+        when(productService.getProductsVersion()).thenReturn(VERSION);
+        when(productService.getProductsPage(filter, ProductSortKey.ID, Sort.Direction.ASC, null, 20, false)).thenReturn(productPage);
+
+        ResponseEntity<ApiResponse> response = productController.getAllProducts(null, null, null, null, false, List.of(1L), List.of("Farm"), null, 2f, null, true, webRequest);
+
+        assertEquals(productPage, response.getBody().getData());
+        verify(productService, never()).getAllProductsLst();
+    }
+
+    @Test
+    public void testGetAllProducts_NotModified() {
+        servletRequest.addHeader("If-None-Match", "\"1.abc\"");
+        when(productService.getProductsVersion()).thenReturn(VERSION);
+
+        assertNull(productController.getAllProducts(null, null, null, null, false, null, null, null, null, null, false, webRequest));
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), servletResponse.getStatus());
+        verify(productService, never()).getAllProductsLst();
+    }
+
+    @Test
+    public void testGetProductFacets() {
+        ProductFacetsResponse facets = ProductFacetsResponse.builder().total(3).build();
+
+        when(productService.getProductFacets(new ProductFilter(null, List.of("Farm"), 2L, null, 10f, false))).thenReturn(facets);
+
+        ResponseEntity<ApiResponse> response = productController.getProductFacets(null, List.of("Farm"), 2L, null, 10f, false);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Get product facets", response.getBody().getMessage());
+        assertEquals(facets, response.getBody().getData());
+    }
+
+    @Test
+    public void testSearchProducts() {
+        ProductPageResponse productPage = ProductPageResponse.builder().content(new ArrayList<>()).build();
+
+        when(productService.searchProducts("honey", null, 20)).thenReturn(productPage);
+
+        ResponseEntity<ApiResponse> response = productController.searchProducts(" honey ", null, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Search products", response.getBody().getMessage());
+        assertEquals(productPage, response.getBody().getData());
+    }
+
+    @Test
+    public void testSearchProducts_BlankQuery() {
+        assertThrows(IllegalArgumentException.class, () -> productController.searchProducts("  ", null, null));
+        verify(productService, never()).searchProducts(any(), any(), anyInt());
+    }
+
+    @Test
+    public void testSuggestProducts_LimitIsCapped() {
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(1L, "Honey", "Farm"));
+
+        when(productSuggestIndex.suggest("hon", 20)).thenReturn(suggestions);
+
+        ResponseEntity<ApiResponse> response = productController.suggestProducts("hon", 500);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Suggest products", response.getBody().getMessage());
+        assertEquals(suggestions, response.getBody().getData());
+    }
+
+    @Test
+    public void testImportProducts() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "products.csv", "text/csv", "name\n".getBytes());
+        ProductImportResponse importReport = new ProductImportResponse();
+
+        when(productImportService.importProducts(any(), eq(ImportFormat.CSV))).thenReturn(importReport);
+
+        ResponseEntity<ApiResponse> response = productController.importProducts(file);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Products imported", response.getBody().getMessage());
+        assertEquals(importReport, response.getBody().getData());
+    }
+
+    @Test
+    public void testImportProducts_UnsupportedFile() {
+        MockMultipartFile file = new MockMultipartFile("file", "products.xlsx", "application/octet-stream", new byte[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> productController.importProducts(file));
+    }
+
+    @Test
+    public void testExportProducts() throws Exception {
+        ResponseEntity<StreamingResponseBody> response = productController.exportProducts();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        response.getBody().writeTo(outputStream);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+        verify(productExportService).exportProducts(outputStream);
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testEditProduct() {
@@ -110,6 +282,26 @@ public class ProductControllerTest {
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testPatchProduct() {
+        Long productId = 1L;
+        ProductPatch productPatch = ProductPatch.builder().price(Optional.of(9.5f)).build();
+        Product patchedProduct = new Product();
+        ProductResponse productResponse = new ProductResponse();
+
+        when(productService.patchProduct(productId, productPatch, "\"1.abc\"")).thenReturn(patchedProduct);
+        when(productService.getProductVersion(productId)).thenReturn(Optional.of(new ResourceVersion("2.abd", 1L)));
+        when(productService.mapEntityToResponse(patchedProduct)).thenReturn(productResponse);
+
+        ResponseEntity<ApiResponse> response = productController.patchProduct(productId, productPatch, "\"1.abc\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Product updated successfully", response.getBody().getMessage());
+        assertEquals(productResponse, response.getBody().getData());
+        assertEquals("\"2.abd\"", response.getHeaders().getETag());
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testDeleteProduct() {
@@ -123,4 +315,32 @@ public class ProductControllerTest {
         assertEquals("Delete product: " + productId, response.getBody().getMessage());
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testBulkUpdateProducts() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .brands(List.of("Farm"))
+                .pricePercent(5f)
+                .build();
+        when(productService.bulkUpdate(request)).thenReturn(3);
+
+        ResponseEntity<ApiResponse> response = productController.bulkUpdateProducts(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Products updated: 3", response.getBody().getMessage());
+        assertEquals(3, response.getBody().getData());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    public void testDeleteProducts() {
+        List<Long> ids = List.of(1L, 2L);
+        when(productService.deleteByIds(ids)).thenReturn(2);
+
+        ResponseEntity<ApiResponse> response = productController.deleteProducts(ids);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Products deleted: 2", response.getBody().getMessage());
+    }
 }
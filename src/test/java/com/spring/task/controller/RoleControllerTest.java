@@ -5,6 +5,7 @@ import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.RoleRequest;
 import com.spring.task.payload.response.RoleResponse;
 import com.spring.task.service.RoleService;
+import com.spring.task.util.ResourceVersion;
 import com.spring.task.web.ApiResponse;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +14,10 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
@@ -22,8 +26,11 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,6 +42,12 @@ public class RoleControllerTest {
     @InjectMocks
     private RoleController roleController;
 
+    private static final ResourceVersion VERSION = new ResourceVersion("1.abc", 1_700_000_000_000L);
+
+    private final MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+    private final MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+    private final ServletWebRequest webRequest = new ServletWebRequest(servletRequest, servletResponse);
+
 
     @Test
     @WithMockUser(roles = "ADMIN")
@@ -58,12 +71,14 @@ public class RoleControllerTest {
         Long roleId = 1L;
         Role role = new Role();
 
+        when(roleService.getRoleVersion(roleId)).thenReturn(Optional.of(VERSION));
         when(roleService.getRoleById(roleId)).thenReturn(Optional.of(role));
         when(roleService.mapEntityToResponse(role)).thenReturn(new RoleResponse());
 
-        ResponseEntity<ApiResponse> response = roleController.getRoleById(roleId);
+        ResponseEntity<ApiResponse> response = roleController.getRoleById(roleId, webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1.abc\"", servletResponse.getHeader("ETag"));
         assertEquals("Get all roles", response.getBody().getMessage());
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
@@ -74,7 +89,7 @@ public class RoleControllerTest {
         Long roleId = 1L;
         when(roleService.getRoleById(roleId)).thenReturn(Optional.empty());
 
-        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> roleController.getRoleById(roleId));
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> roleController.getRoleById(roleId, webRequest));
         assertEquals("Error: Role is not found.", exception.getMessage());
     }
 
@@ -82,9 +97,10 @@ public class RoleControllerTest {
     @WithMockUser(roles = "ADMIN")
     public void testGetAllRoles() {
         List<RoleResponse> roleResponseList = new ArrayList<>();
+        when(roleService.getRolesVersion()).thenReturn(VERSION);
         when(roleService.getAllRoles()).thenReturn(roleResponseList);
 
-        ResponseEntity<ApiResponse> response = roleController.getAllRoles();
+        ResponseEntity<ApiResponse> response = roleController.getAllRoles(webRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("Get role", response.getBody().getMessage());
@@ -92,6 +108,19 @@ public class RoleControllerTest {
         assertEquals(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS), response.getBody().getTimestamp().truncatedTo(ChronoUnit.SECONDS));
     }
 
+    @Test
+    public void testGetAllRoles_IgnoresIfModifiedSince() {
+        servletRequest.addHeader("If-Modified-Since", VERSION.lastModified());
+        when(roleService.getRolesVersion()).thenReturn(VERSION);
+        when(roleService.getAllRoles()).thenReturn(new ArrayList<>());
+
+        ResponseEntity<ApiResponse> response = roleController.getAllRoles(webRequest);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"1.abc\"", servletResponse.getHeader("ETag"));
+        assertNull(servletResponse.getHeader("Last-Modified"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     public void testEditRole() {
@@ -3,6 +3,7 @@ package com.spring.task.controller;
 import com.spring.task.entity.User;
 import com.spring.task.exception.UnauthorizedException;
 import com.spring.task.payload.request.AuthRequest;
+import com.spring.task.payload.request.RefreshTokenRequest;
 import com.spring.task.payload.request.UserRequest;
 import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.payload.response.JwtResponse;
@@ -59,9 +60,25 @@ public class UserControllerTest {
         AuthRequest authRequest = new AuthRequest();
         JwtResponse jwtResponse = new JwtResponse();
 
-        when(userService.authenticate(authRequest)).thenReturn(jwtResponse);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+
+        when(request.getRemoteAddr()).thenReturn("127.0.0.1");
+        when(userService.authenticate(authRequest, "127.0.0.1")).thenReturn(jwtResponse);
+
+        ResponseEntity<?> response = userController.authenticateAndGetToken(authRequest, request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(jwtResponse, response.getBody());
+    }
+
+    @Test
+    public void testRefreshToken() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest("refreshToken");
+        JwtResponse jwtResponse = new JwtResponse("newAccessToken", "newRefreshToken");
+
+        when(userService.refreshToken(refreshTokenRequest)).thenReturn(jwtResponse);
 
-        ResponseEntity<?> response = userController.authenticateAndGetToken(authRequest);
+        ResponseEntity<?> response = userController.refreshToken(refreshTokenRequest);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(jwtResponse, response.getBody());
@@ -0,0 +1,134 @@
+package com.spring.task.repository;
+
+import com.spring.task.entity.Category;
+import com.spring.task.entity.Product;
+import com.spring.task.entity.User;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the native bulk UPDATE ... RETURNING and the bulk DELETE against a throwaway Postgres. Skipped when no Docker
+ * daemon is available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class ProductRepositoryBulkUpdateTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Category food;
+    private Category drinks;
+    private Product honey;
+    private Product jam;
+    private Product juice;
+
+    @BeforeEach
+    public void setUp() {
+        food = persistCategory("Food");
+        drinks = persistCategory("Drinks");
+        User user = new User();
+        user.setEmail("owner@example.com");
+        entityManager.persist(user);
+
+        honey = persistProduct("Honey", "Farm", 10f, food, user);
+        jam = persistProduct("Jam", "Farm", 2f, food, user);
+        juice = persistProduct("Juice", "Orchard", 4f, drinks, user);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testBulkUpdate_PercentPriceChangeByBrand() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .brands(List.of("Farm"))
+                .pricePercent(5f)
+                .build();
+
+        List<Long> updated = productRepository.bulkUpdate(request, LocalDateTime.now());
+
+        assertEquals(Set.of(honey.getId(), jam.getId()), Set.copyOf(updated));
+        entityManager.clear();
+        assertEquals(10.5f, productRepository.findById(honey.getId()).orElseThrow().getPrice());
+        assertEquals(2.1f, productRepository.findById(jam.getId()).orElseThrow().getPrice());
+        assertEquals(4f, productRepository.findById(juice.getId()).orElseThrow().getPrice());
+        assertEquals(1L, productRepository.findById(honey.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    public void testBulkUpdate_AmountSkipsProductsThatWouldNotStayPositive() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .categoryIds(List.of(food.getId()))
+                .priceAmount(-3f)
+                .build();
+
+        List<Long> updated = productRepository.bulkUpdate(request, LocalDateTime.now());
+
+        assertEquals(List.of(honey.getId()), updated);
+    }
+
+    @Test
+    public void testBulkUpdate_MovesCategoryAndSetsInventoryById() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .ids(List.of(jam.getId(), juice.getId()))
+                .categoryIds(List.of(food.getId()))
+                .categoryId(drinks.getId())
+                .inventory(7)
+                .build();
+
+        List<Long> updated = productRepository.bulkUpdate(request, LocalDateTime.now());
+
+        assertEquals(List.of(jam.getId()), updated);
+        entityManager.clear();
+        Product moved = productRepository.findById(jam.getId()).orElseThrow();
+        assertEquals(drinks.getId(), moved.getCategory().getId());
+        assertEquals(7, moved.getInventory());
+    }
+
+    @Test
+    public void testDeleteByIds() {
+        int deleted = productRepository.deleteByIds(List.of(honey.getId(), juice.getId(), -1L));
+
+        assertEquals(2, deleted);
+        assertEquals(List.of(jam.getId()), productRepository.findAll().stream().map(Product::getId).toList());
+    }
+
+    private Category persistCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return entityManager.persist(category);
+    }
+
+    private Product persistProduct(String name, String brand, float price, Category category, User user) {
+        Product product = new Product();
+        product.setName(name);
+        product.setBrand(brand);
+        product.setPrice(price);
+        product.setCategory(category);
+        product.setUser(user);
+        return entityManager.persist(product);
+    }
+}
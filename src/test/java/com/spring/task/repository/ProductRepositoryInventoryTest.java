@@ -0,0 +1,180 @@
+package com.spring.task.repository;
+
+import com.spring.task.cache.InventoryDeltaBuffer;
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.entity.Category;
+import com.spring.task.entity.Product;
+import com.spring.task.entity.User;
+import com.spring.task.exception.InsufficientInventoryException;
+import com.spring.task.payload.request.InventoryItem;
+import com.spring.task.service.serviceimpl.InventoryServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races committed reservations of one product against a real Postgres to check the conditional decrement never
+ * oversells, also while write-behind flushes add buffered stock. Skipped when no Docker daemon is available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ProductRepositoryInventoryTest {
+
+    private static final int STOCK = 10;
+    private static final int BUYERS = 32;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private TransactionTemplate transactionTemplate;
+    private Long productId;
+
+    @BeforeEach
+    public void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Category category = new Category();
+        category.setName("Food");
+        category = categoryRepository.save(category);
+        User user = new User();
+        user.setEmail("owner@example.com");
+        user = userRepository.save(user);
+
+        Product product = new Product();
+        product.setName("Honey");
+        product.setCategory(category);
+        product.setUser(user);
+        product.setInventory(STOCK);
+        productId = productRepository.save(product).getId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void testReserveInventory_ConcurrentBuyersNeverOversell() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < BUYERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return transactionTemplate.execute(status ->
+                            productRepository.reserveInventory(productId, 1, 0, LocalDateTime.now()));
+                }));
+            }
+            start.countDown();
+
+            int reserved = 0;
+            for (Future<Integer> result : results) {
+                reserved += result.get();
+            }
+            assertEquals(STOCK, reserved);
+            assertEquals(0, productRepository.findById(productId).orElseThrow().getInventory());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReserve_WhileFlushingBufferedStockNeverOversells() throws Exception {
+        ProductResponseCache productResponseCache = new ProductResponseCache(1 << 20, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        WriteGenerations writeGenerations = new WriteGenerations();
+        InventoryDeltaBuffer inventoryDeltaBuffer = new InventoryDeltaBuffer(productRepository, productResponseCache,
+                writeGenerations, transactionTemplate, 1_000_000, 500, new SimpleMeterRegistry());
+        InventoryServiceImpl inventoryService = new InventoryServiceImpl(productRepository, productResponseCache,
+                inventoryDeltaBuffer, transactionTemplate, writeGenerations, true);
+        transactionTemplate.executeWithoutResult(status ->
+                productRepository.reserveInventory(productId, STOCK, 0, LocalDateTime.now()));
+        // the whole stock waits in the buffer, written by flushes racing with the buyers
+        for (int i = 0; i < STOCK; i++) {
+            inventoryDeltaBuffer.add(productId, 1);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(BUYERS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean buying = new AtomicBoolean(true);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            Future<?> flusher = executor.submit(() -> {
+                start.await();
+                while (buying.get()) {
+                    inventoryDeltaBuffer.flush();
+                }
+                return null;
+            });
+            for (int i = 0; i < BUYERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        transactionTemplate.executeWithoutResult(status ->
+                                inventoryService.reserve(List.of(new InventoryItem(productId, 1))));
+                        return true;
+                    } catch (InsufficientInventoryException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int reserved = 0;
+            for (Future<Boolean> result : results) {
+                reserved += result.get() ? 1 : 0;
+            }
+            buying.set(false);
+            flusher.get();
+            inventoryDeltaBuffer.flush();
+
+            int inventory = productRepository.findById(productId).orElseThrow().getInventory();
+            assertTrue(inventory >= 0);
+            assertEquals(STOCK, reserved + inventory);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
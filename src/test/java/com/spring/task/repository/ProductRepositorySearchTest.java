@@ -0,0 +1,95 @@
+package com.spring.task.repository;
+
+import com.spring.task.entity.Category;
+import com.spring.task.entity.Product;
+import com.spring.task.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the full-text search query against a throwaway Postgres, since the tsvector column and GIN index only exist
+ * there. Skipped when no Docker daemon is available.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+public class ProductRepositorySearchTest {
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product honeyByName;
+    private Product honeyByBrand;
+    private Product honeyInDescription;
+
+    @BeforeEach
+    public void setUp() {
+        Category category = new Category();
+        category.setName("Food");
+        entityManager.persist(category);
+        User user = new User();
+        user.setEmail("owner@example.com");
+        entityManager.persist(user);
+
+        honeyInDescription = persistProduct("Granola", "Oats baked with honey", "Farm", category, user);
+        honeyByBrand = persistProduct("Jam", "Strawberry jam", "Honey Hill", category, user);
+        honeyByName = persistProduct("Wildflower Honey", "Raw", "Farm", category, user);
+        persistProduct("Bread", "Sourdough", "Bakery", category, user);
+        entityManager.flush();
+    }
+
+    @Test
+    public void testSearchIds_RanksNameAboveBrandAboveDescription() {
+        List<ProductRepository.SearchHit> hits = productRepository.searchIds("honey", Float.POSITIVE_INFINITY, 0L, 10);
+
+        assertEquals(List.of(honeyByName.getId(), honeyByBrand.getId(), honeyInDescription.getId()),
+                hits.stream().map(ProductRepository.SearchHit::getId).toList());
+    }
+
+    @Test
+    public void testSearchIds_PagesAfterLastHit() {
+        List<ProductRepository.SearchHit> firstPage = productRepository.searchIds("honey", Float.POSITIVE_INFINITY, 0L, 2);
+        ProductRepository.SearchHit last = firstPage.get(firstPage.size() - 1);
+
+        List<ProductRepository.SearchHit> secondPage = productRepository.searchIds("honey", last.getScore(), last.getId(), 2);
+
+        assertEquals(List.of(honeyInDescription.getId()), secondPage.stream().map(ProductRepository.SearchHit::getId).toList());
+    }
+
+    @Test
+    public void testSearchIds_WebSearchSyntax() {
+        List<ProductRepository.SearchHit> hits = productRepository.searchIds("honey -jam", Float.POSITIVE_INFINITY, 0L, 10);
+
+        assertFalse(hits.stream().anyMatch(hit -> hit.getId().equals(honeyByBrand.getId())));
+        assertEquals(2, hits.size());
+    }
+
+    private Product persistProduct(String name, String description, String brand, Category category, User user) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription(description);
+        product.setBrand(brand);
+        product.setCategory(category);
+        product.setUser(user);
+        return entityManager.persist(product);
+    }
+}
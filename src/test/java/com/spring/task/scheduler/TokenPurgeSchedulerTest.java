@@ -0,0 +1,56 @@
+package com.spring.task.scheduler;
+
+import com.spring.task.service.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenPurgeSchedulerTest {
+
+    @Mock
+    private TokenService tokenService;
+
+    private MeterRegistry meterRegistry;
+    private TokenPurgeScheduler tokenPurgeScheduler;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        tokenPurgeScheduler = new TokenPurgeScheduler(tokenService, 100, meterRegistry);
+    }
+
+    @Test
+    public void testPurgeExpiredTokens_DeletesInBatchesUntilShortBatch() {
+        when(tokenService.purgeExpiredTokens(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 7);
+
+        tokenPurgeScheduler.purgeExpiredTokens();
+
+        verify(tokenService, times(3)).purgeExpiredTokens(any(LocalDateTime.class), eq(100));
+        assertEquals(207.0, meterRegistry.get("token.purge.deleted").counter().count());
+        assertEquals(1, meterRegistry.get("token.purge.duration").timer().count());
+    }
+
+    @Test
+    public void testPurgeExpiredTokens_NothingToDelete() {
+        when(tokenService.purgeExpiredTokens(any(LocalDateTime.class), eq(100))).thenReturn(0);
+
+        tokenPurgeScheduler.purgeExpiredTokens();
+
+        verify(tokenService).purgeExpiredTokens(any(LocalDateTime.class), eq(100));
+        assertEquals(0.0, meterRegistry.get("token.purge.deleted").counter().count());
+    }
+}
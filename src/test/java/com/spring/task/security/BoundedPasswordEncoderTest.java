@@ -0,0 +1,105 @@
+package com.spring.task.security;
+
+import com.spring.task.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+    private BlockingPasswordEncoder delegate;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        delegate = new BlockingPasswordEncoder();
+        passwordEncoder = new BoundedPasswordEncoder(delegate, 1, 1, Duration.ofSeconds(2), meterRegistry);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        delegate.release.countDown();
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    public void testEncodeAndMatchesRunOnPool() {
+        delegate.release.countDown();
+
+        assertEquals("{hashed}password", passwordEncoder.encode("password"));
+        assertTrue(passwordEncoder.matches("password", "{hashed}password"));
+        assertFalse(passwordEncoder.matches("other", "{hashed}password"));
+        assertTrue(delegate.lastThreadName.startsWith("password-hash-"));
+        assertEquals(1, meterRegistry.get("password.hash.duration").tag("operation", "encode").timer().count());
+        assertEquals(2, meterRegistry.get("password.hash.wait").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("first"));
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("second"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (passwordEncoder.getQueueDepth() < 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1.0, meterRegistry.get("password.hash.queue.depth").gauge().value());
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class, () -> passwordEncoder.matches("third", "{hashed}third"));
+        assertEquals(2, exception.getRetryAfterSeconds());
+
+        delegate.release.countDown();
+        assertEquals("{hashed}first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("{hashed}second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDelegateExceptionIsRethrown() {
+        delegate.release.countDown();
+
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.encode(null));
+    }
+
+    private static final class BlockingPasswordEncoder implements PasswordEncoder {
+        private final CountDownLatch started = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile String lastThreadName;
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            if (rawPassword == null) {
+                throw new IllegalArgumentException("rawPassword cannot be null");
+            }
+            await();
+            return "{hashed}" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            await();
+            return ("{hashed}" + rawPassword).equals(encodedPassword);
+        }
+
+        private void await() {
+            lastThreadName = Thread.currentThread().getName();
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.spring.task.security;
+
+import com.spring.task.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+    private MeterRegistry meterRegistry;
+    private LoginRateLimiter loginRateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginRateLimiter = newLimiter(true);
+    }
+
+    @Test
+    public void testAllowsBurstThenThrottlesEmail() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0." + i);
+        }
+
+        TooManyRequestsException exception = assertThrows(TooManyRequestsException.class,
+                () -> loginRateLimiter.checkLoginAttempt("TEST@example.com", "10.0.0.9"));
+        assertEquals(20, exception.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("login.throttled").tag("key", "email").counter().count());
+
+        loginRateLimiter.checkLoginAttempt("other@example.com", "10.0.0.9");
+    }
+
+    @Test
+    public void testThrottlesClientIpAcrossEmails() {
+        for (int i = 0; i < 10; i++) {
+            loginRateLimiter.checkLoginAttempt("user" + i + "@example.com", "10.0.0.1");
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> loginRateLimiter.checkLoginAttempt("new@example.com", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("login.throttled").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    public void testThrottledEmailDoesNotUseClientIpAllowance() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1");
+        }
+        for (int i = 0; i < 20; i++) {
+            assertThrows(TooManyRequestsException.class, () -> loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1"));
+        }
+
+        // 3 of the IP's 10 attempts were used by logins the email bucket let through
+        for (int i = 0; i < 7; i++) {
+            loginRateLimiter.checkLoginAttempt("user" + i + "@example.com", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> loginRateLimiter.checkLoginAttempt("new@example.com", "10.0.0.1"));
+        assertEquals(1.0, meterRegistry.get("login.throttled").tag("key", "ip").counter().count());
+    }
+
+    @Test
+    public void testRefillsOverTime() {
+        for (int i = 0; i < 3; i++) {
+            loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1");
+        }
+        assertThrows(TooManyRequestsException.class, () -> loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1"));
+
+        clock.addAndGet(Duration.ofSeconds(20).toNanos());
+
+        loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1");
+        assertThrows(TooManyRequestsException.class, () -> loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1"));
+    }
+
+    @Test
+    public void testIdleBucketsAreEvicted() {
+        loginRateLimiter.checkLoginAttempt("test@example.com", "10.0.0.1");
+        assertEquals(2, loginRateLimiter.size());
+
+        clock.addAndGet(Duration.ofMinutes(6).toNanos());
+
+        assertEquals(0, loginRateLimiter.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        LoginRateLimiter disabled = newLimiter(false);
+
+        for (int i = 0; i < 20; i++) {
+            disabled.checkLoginAttempt("test@example.com", "10.0.0.1");
+        }
+    }
+
+    private LoginRateLimiter newLimiter(boolean enabled) {
+        return new LoginRateLimiter(enabled,
+                new LoginRateLimiter.BucketSpec(3, Duration.ofMinutes(1)),
+                new LoginRateLimiter.BucketSpec(10, Duration.ofMinutes(1)),
+                1000, Duration.ofMinutes(5), meterRegistry, clock::get);
+    }
+}
@@ -1,19 +1,24 @@
 package com.spring.task.service.serviceimpl;
 
 
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
 import com.spring.task.entity.Category;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.CategoryRequest;
 import com.spring.task.payload.response.CategoryResponse;
 import com.spring.task.repository.CategoryRepository;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -27,6 +32,10 @@ public class CategoryServiceImplTest {
 
     @Mock
     private CategoryRepository categoryRepository;
+    @Mock
+    private ProductResponseCache productResponseCache;
+    @Mock
+    private WriteGenerations writeGenerations;
     @InjectMocks
     private CategoryServiceImpl categoryService;
 
@@ -37,14 +46,12 @@ public class CategoryServiceImplTest {
         categoryRequest.setDescription("Test Description");
         categoryRequest.setImageUrl("http://test.com/image.jpg");
 
-        when(categoryRepository.findByNameIgnoreCase(categoryRequest.getName())).thenReturn(Optional.empty());
-
         Category newCategory = new Category();
         BeanUtils.copyProperties(categoryRequest, newCategory);
         newCategory.setUpdatedAt(LocalDateTime.now());
         newCategory.setCreatedAt(LocalDateTime.now());
 
-        when(categoryRepository.save(any(Category.class))).thenReturn(newCategory);
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(newCategory);
 
         Category createdCategory = categoryService.createCategory(categoryRequest);
 
@@ -52,7 +59,7 @@ public class CategoryServiceImplTest {
         assertEquals(categoryRequest.getName(), createdCategory.getName());
         assertEquals(categoryRequest.getDescription(), createdCategory.getDescription());
         assertEquals(categoryRequest.getImageUrl(), createdCategory.getImageUrl());
-        verify(categoryRepository).save(any(Category.class));
+        verify(categoryRepository).saveAndFlush(any(Category.class));
     }
 
     @Test
@@ -60,7 +67,7 @@ public class CategoryServiceImplTest {
         CategoryRequest categoryRequest = new CategoryRequest();
         categoryRequest.setName("Existing Category");
 
-        when(categoryRepository.findByNameIgnoreCase(categoryRequest.getName())).thenReturn(Optional.of(new Category()));
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenThrow(violation(Category.NAME_UNIQUE_INDEX));
 
         assertThrows(ResourceAlreadyExistException.class, () -> categoryService.createCategory(categoryRequest));
     }
@@ -104,6 +111,9 @@ public class CategoryServiceImplTest {
         assertDoesNotThrow(() -> categoryService.deleteById(categoryId));
 
         verify(categoryRepository).delete(category);
+        verify(productResponseCache).invalidateByCategory(categoryId);
+        verify(writeGenerations).advance(WriteGenerations.Resource.CATEGORIES);
+        verify(writeGenerations).advance(WriteGenerations.Resource.PRODUCTS);
     }
 
     @Test
@@ -129,8 +139,7 @@ public class CategoryServiceImplTest {
         existingCategory.setImageUrl("http://test.com/existing.jpg");
 
         when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(existingCategory));
-        when(categoryRepository.existsByNameIgnoreCaseAndIdNot(categoryRequest.getName(), categoryId)).thenReturn(false);
-        when(categoryRepository.save(any(Category.class))).thenReturn(existingCategory);
+        when(categoryRepository.saveAndFlush(any(Category.class))).thenReturn(existingCategory);
 
         Category updatedCategory = categoryService.updateCategory(categoryId, categoryRequest);
 
@@ -138,7 +147,8 @@ public class CategoryServiceImplTest {
         assertEquals(categoryRequest.getName(), updatedCategory.getName());
         assertEquals(categoryRequest.getDescription(), updatedCategory.getDescription());
         assertEquals(categoryRequest.getImageUrl(), updatedCategory.getImageUrl());
-        verify(categoryRepository).save(any(Category.class));
+        verify(categoryRepository).saveAndFlush(any(Category.class));
+        verify(productResponseCache).invalidateByCategory(categoryId);
     }
 
     @Test
@@ -161,11 +171,22 @@ public class CategoryServiceImplTest {
         existingCategory.setId(categoryId);
 
         when(categoryRepository.findById(categoryId)).thenReturn(Optional.of(existingCategory));
-        when(categoryRepository.existsByNameIgnoreCaseAndIdNot(categoryRequest.getName(), categoryId)).thenReturn(true);
+        when(categoryRepository.saveAndFlush(existingCategory)).thenThrow(violation(Category.NAME_UNIQUE_INDEX));
 
         assertThrows(ResourceAlreadyExistException.class, () -> categoryService.updateCategory(categoryId, categoryRequest));
     }
 
+    @Test
+    public void testUpdateCategory_OtherViolationPropagates() {
+        Category existingCategory = new Category();
+        existingCategory.setId(1L);
+
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(existingCategory));
+        when(categoryRepository.saveAndFlush(existingCategory)).thenThrow(violation("some_other_constraint"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> categoryService.updateCategory(1L, new CategoryRequest()));
+    }
+
     @Test
     public void testMapEntityToResponse() {
         Category category = new Category();
@@ -182,4 +203,10 @@ public class CategoryServiceImplTest {
         assertEquals(category.getDescription(), response.getDescription());
         assertEquals(category.getImageUrl(), response.getImageUrl());
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        String message = "duplicate key value violates unique constraint \"" + constraintName + "\"";
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, new SQLException(message, "23505"), constraintName));
+    }
+}
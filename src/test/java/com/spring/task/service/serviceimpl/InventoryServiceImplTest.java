@@ -0,0 +1,202 @@
+package com.spring.task.service.serviceimpl;
+
+import com.spring.task.cache.InventoryDeltaBuffer;
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.exception.InsufficientInventoryException;
+import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.InventoryAdjustment;
+import com.spring.task.payload.request.InventoryItem;
+import com.spring.task.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class InventoryServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductResponseCache productResponseCache;
+
+    @Mock
+    private InventoryDeltaBuffer inventoryDeltaBuffer;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private InventoryServiceImpl inventoryService;
+
+    @BeforeEach
+    public void setUp() {
+        inventoryService = inventoryService(false);
+    }
+
+    private InventoryServiceImpl inventoryService(boolean writeBehind) {
+        return new InventoryServiceImpl(productRepository, productResponseCache, inventoryDeltaBuffer,
+                new TransactionTemplate(transactionManager), new WriteGenerations(), writeBehind);
+    }
+
+    @Test
+    public void testReserve_MergesItemsInProductIdOrder() {
+        when(productRepository.reserveInventory(any(), anyInt(), anyInt(), any())).thenReturn(1);
+
+        List<InventoryItem> reserved = inventoryService.reserve(List.of(
+                new InventoryItem(3L, 1), new InventoryItem(1L, 2), new InventoryItem(3L, 4)));
+
+        assertEquals(List.of(new InventoryItem(1L, 2), new InventoryItem(3L, 5)), reserved);
+        InOrder order = inOrder(productRepository);
+        order.verify(productRepository).reserveInventory(eq(1L), eq(2), anyInt(), any());
+        order.verify(productRepository).reserveInventory(eq(3L), eq(5), anyInt(), any());
+        verify(productResponseCache).invalidate(1L);
+        verify(productResponseCache).invalidate(3L);
+    }
+
+    @Test
+    public void testReserve_InsufficientInventory() {
+        when(productRepository.reserveInventory(eq(1L), eq(2), anyInt(), any())).thenReturn(1);
+        when(productRepository.reserveInventory(eq(2L), eq(9), anyInt(), any())).thenReturn(0);
+        when(productRepository.existsById(2L)).thenReturn(true);
+
+        List<InventoryItem> items = List.of(new InventoryItem(2L, 9), new InventoryItem(1L, 2));
+
+        assertThrows(InsufficientInventoryException.class, () -> inventoryService.reserve(items));
+        verify(productResponseCache, never()).invalidate(2L);
+    }
+
+    @Test
+    public void testReserve_ProductNotFound() {
+        when(productRepository.reserveInventory(eq(1L), eq(1), anyInt(), any())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        List<InventoryItem> items = List.of(new InventoryItem(1L, 1));
+
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.reserve(items));
+    }
+
+    @Test
+    public void testReserve_WritesDrainedBufferedDelta() {
+        when(inventoryDeltaBuffer.isBuffered(1L)).thenReturn(true);
+        when(inventoryDeltaBuffer.drain(1L)).thenReturn(4L);
+        when(productRepository.reserveInventory(eq(1L), eq(3), eq(4), any())).thenReturn(1);
+
+        inventoryService.reserve(List.of(new InventoryItem(1L, 3)));
+
+        // the row is locked before the delta is taken
+        InOrder order = inOrder(productRepository, inventoryDeltaBuffer);
+        order.verify(productRepository).lockById(1L);
+        order.verify(inventoryDeltaBuffer).drain(1L);
+        order.verify(productRepository).reserveInventory(eq(1L), eq(3), eq(4), any());
+        verify(productResponseCache).invalidate(1L);
+    }
+
+    @Test
+    public void testReserve_DoesNotLockWithoutBufferedDelta() {
+        when(productRepository.reserveInventory(eq(1L), eq(3), anyInt(), any())).thenReturn(1);
+
+        inventoryService.reserve(List.of(new InventoryItem(1L, 3)));
+
+        verify(productRepository, never()).lockById(any());
+    }
+
+    @Test
+    public void testRelease() {
+        when(productRepository.releaseInventory(eq(1L), eq(3), any())).thenReturn(1);
+
+        List<InventoryItem> released = inventoryService.release(List.of(new InventoryItem(1L, 3)));
+
+        assertEquals(List.of(new InventoryItem(1L, 3)), released);
+        verify(productResponseCache).invalidate(1L);
+    }
+
+    @Test
+    public void testRelease_ProductNotFound() {
+        when(productRepository.releaseInventory(eq(1L), eq(3), any())).thenReturn(0);
+
+        List<InventoryItem> items = List.of(new InventoryItem(1L, 3));
+
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.release(items));
+        verify(productResponseCache, never()).invalidate(1L);
+    }
+
+    @Test
+    public void testAdjust_WritesSummedDeltasInOneUpdate() {
+        when(productRepository.addInventory(eq(Map.of(1L, -2, 2L, 5)), any())).thenReturn(2);
+
+        List<InventoryAdjustment> adjusted = inventoryService.adjust(List.of(new InventoryAdjustment(2L, 5),
+                new InventoryAdjustment(1L, -3), new InventoryAdjustment(1L, 1), new InventoryAdjustment(3L, 0)));
+
+        assertEquals(List.of(new InventoryAdjustment(1L, -2), new InventoryAdjustment(2L, 5)), adjusted);
+        verify(productResponseCache).invalidate(1L);
+        verify(productResponseCache).invalidate(2L);
+        verify(inventoryDeltaBuffer, never()).add(any(), anyInt());
+    }
+
+    @Test
+    public void testAdjust_ProductNotFound() {
+        when(productRepository.addInventory(anyMap(), any())).thenReturn(0);
+        when(productRepository.existsById(1L)).thenReturn(false);
+
+        List<InventoryAdjustment> adjustments = List.of(new InventoryAdjustment(1L, 3));
+
+        assertThrows(ResourceNotFoundException.class, () -> inventoryService.adjust(adjustments));
+        verify(productResponseCache, never()).invalidate(1L);
+    }
+
+    @Test
+    public void testAdjust_WriteBehindBuffersDeltas() {
+        InventoryServiceImpl writeBehindService = inventoryService(true);
+        when(productRepository.findExistingIds(List.of(1L))).thenReturn(List.of(1L));
+
+        writeBehindService.adjust(List.of(new InventoryAdjustment(1L, 2), new InventoryAdjustment(1L, 3)));
+
+        verify(inventoryDeltaBuffer).add(1L, 5);
+        verify(productRepository, never()).addInventory(anyMap(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void testAdjust_WriteBehindChecksOnlyProductsNotBuffered() {
+        InventoryServiceImpl writeBehindService = inventoryService(true);
+        when(inventoryDeltaBuffer.contains(1L)).thenReturn(true);
+        when(productRepository.findExistingIds(List.of(2L))).thenReturn(List.of(2L));
+
+        writeBehindService.adjust(List.of(new InventoryAdjustment(1L, 2), new InventoryAdjustment(2L, 3)));
+
+        verify(inventoryDeltaBuffer).add(1L, 2);
+        verify(inventoryDeltaBuffer).add(2L, 3);
+    }
+
+    @Test
+    public void testAdjust_WriteBehindRejectsUnknownProduct() {
+        InventoryServiceImpl writeBehindService = inventoryService(true);
+        when(productRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () ->
+                writeBehindService.adjust(List.of(new InventoryAdjustment(1L, 2), new InventoryAdjustment(2L, 3))));
+
+        assertEquals("Product not found with ID: 2", exception.getMessage());
+        verify(inventoryDeltaBuffer, never()).add(any(), anyInt());
+    }
+}
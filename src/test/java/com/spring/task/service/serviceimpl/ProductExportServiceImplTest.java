@@ -0,0 +1,96 @@
+package com.spring.task.service.serviceimpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.spring.task.entity.Product;
+import com.spring.task.payload.response.ProductResponse;
+import com.spring.task.repository.ProductRepository;
+import com.spring.task.service.ProductService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductExportServiceImplTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private ProductService productService;
+    @Mock
+    private EntityManager entityManager;
+
+    private ProductExportServiceImpl productExportService;
+
+    @BeforeEach
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        productExportService = new ProductExportServiceImpl(productRepository, productService, objectMapper, entityManager);
+    }
+
+    @Test
+    public void testExportProducts_WritesOneLinePerProduct() throws Exception {
+        when(productRepository.streamAllForExport()).thenReturn(Stream.of(newProduct(1L), newProduct(2L)));
+        when(productService.mapEntityToResponse(any(Product.class))).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            ProductResponse productResponse = new ProductResponse();
+            productResponse.setId(product.getId());
+            productResponse.setName("Product " + product.getId());
+            return productResponse;
+        });
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        long count = productExportService.exportProducts(outputStream);
+
+        assertEquals(2, count);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Product 1\""));
+        assertTrue(lines[1].contains("\"id\":2"));
+        verify(entityManager, never()).clear();
+    }
+
+    @Test
+    public void testExportProducts_ClearsPersistenceContextPerChunkAndClosesStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Product> products = LongStream.rangeClosed(1, ProductExportServiceImpl.CHUNK_SIZE * 2L + 1)
+                .mapToObj(this::newProduct)
+                .onClose(() -> closed.set(true));
+        when(productRepository.streamAllForExport()).thenReturn(products);
+        when(productService.mapEntityToResponse(any(Product.class))).thenReturn(new ProductResponse());
+
+        long count = productExportService.exportProducts(new ByteArrayOutputStream());
+
+        assertEquals(ProductExportServiceImpl.CHUNK_SIZE * 2L + 1, count);
+        verify(entityManager, times(2)).clear();
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void testExportProducts_Empty() throws Exception {
+        when(productRepository.streamAllForExport()).thenReturn(Stream.empty());
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        assertEquals(0, productExportService.exportProducts(outputStream));
+        assertEquals(0, outputStream.size());
+    }
+
+    private Product newProduct(long id) {
+        Product product = new Product();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,184 @@
+package com.spring.task.service.serviceimpl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.spring.task.cache.ProductSuggestIndex;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.entity.Product;
+import com.spring.task.enumration.ImportFormat;
+import com.spring.task.payload.response.ProductImportError;
+import com.spring.task.payload.response.ProductImportResponse;
+import com.spring.task.repository.CategoryRepository;
+import com.spring.task.repository.ProductRepository;
+import com.spring.task.repository.UserRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.BatchUpdateException;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductImportServiceImplTest {
+
+    private static final String CSV_HEADER = "name,description,price,weight,weightUnit,brand,categoryId,userId,inventory\n";
+
+    @Mock
+    private ProductRepository productRepository;
+    @Mock
+    private CategoryRepository categoryRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+
+    private ProductImportServiceImpl productImportService;
+
+    @BeforeEach
+    public void setUp() {
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        productImportService = new ProductImportServiceImpl(productRepository, categoryRepository, userRepository,
+                jdbcTemplate, transactionTemplate, objectMapper, validator, productSuggestIndex, new WriteGenerations());
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(jdbcTemplate.queryForList(eq(ProductImportServiceImpl.RESERVE_IDS_SQL), eq(Long.class), any()))
+                .thenAnswer(invocation -> {
+                    int blocks = invocation.getArgument(2);
+                    return LongStream.rangeClosed(1, blocks).map(block -> block * Product.ID_ALLOCATION_SIZE).boxed().toList();
+                });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportCsv_ReportsInvalidRowsAndBatchesTheRest() throws Exception {
+        String csv = CSV_HEADER
+                + "Apple,Fresh apple,1.5,0.2,kg,Farm,1,2,10\n"
+                + "Pear,Fresh pear,-1,0.2,kg,Farm,1,2,10\n"
+                + "Banana,Ripe banana,0.5,0.1,kg,Farm,9,2,10\n"
+                + "apple,Duplicate,1.5,0.2,kg,Farm,1,2,10\n"
+                + "Cherry,Red cherry,3,0.1,kg,Farm,1,2,5\n"
+                + "Existing,Already there,3,0.1,kg,Farm,1,2,5\n";
+
+        when(categoryRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(2L));
+        when(productRepository.findExistingNamesIgnoreCase(anyCollection())).thenReturn(List.of("existing"));
+
+        ProductImportResponse report = productImportService.importProducts(toStream(csv), ImportFormat.CSV);
+
+        assertEquals(6, report.getTotalRows());
+        assertEquals(2, report.getImportedRows());
+        assertEquals(4, report.getFailedRows());
+        assertEquals(List.of(2L, 3L, 4L, 6L), report.getErrors().stream().map(ProductImportError::getRow).toList());
+        assertTrue(report.getErrors().get(0).getError().contains("price"));
+        assertEquals("Category Not found with ID: 9", report.getErrors().get(1).getError());
+        assertEquals("Product apple already exists", report.getErrors().get(2).getError());
+
+        ArgumentCaptor<Collection<?>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(eq(ProductImportServiceImpl.INSERT_SQL), rows.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertEquals(2, rows.getValue().size());
+        verify(categoryRepository, times(1)).findExistingIds(anyCollection());
+        verify(productSuggestIndex).putAll(argThat(products -> products.size() == 2));
+    }
+
+    @Test
+    public void testImportNdjson_MalformedAndUnknownUser() throws Exception {
+        String ndjson = "{\"name\":\"Apple\",\"description\":\"Fresh\",\"price\":1.5,\"weight\":0.2,\"weightUnit\":\"kg\",\"brand\":\"Farm\",\"categoryId\":1,\"userId\":\"2\",\"inventory\":1}\n"
+                + "{not json}\n"
+                + "\n"
+                + "{\"name\":\"Kiwi\",\"description\":\"Green\",\"price\":1.5,\"weight\":0.2,\"weightUnit\":\"kg\",\"brand\":\"Farm\",\"categoryId\":1,\"userId\":\"7\",\"inventory\":1}\n";
+
+        when(categoryRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(2L));
+        when(productRepository.findExistingNamesIgnoreCase(anyCollection())).thenReturn(List.of());
+
+        ProductImportResponse report = productImportService.importProducts(toStream(ndjson), ImportFormat.NDJSON);
+
+        assertEquals(3, report.getTotalRows());
+        assertEquals(1, report.getImportedRows());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertTrue(report.getErrors().get(0).getError().startsWith("Malformed row"));
+        assertEquals("User not found with ID: 7", report.getErrors().get(1).getError());
+    }
+
+    @Test
+    public void testImport_SplitsIntoBatches() throws Exception {
+        StringBuilder csv = new StringBuilder(CSV_HEADER);
+        int rows = ProductImportServiceImpl.BATCH_SIZE + 5;
+        for (int i = 0; i < rows; i++) {
+            csv.append("Product ").append(i).append(",Desc,1,1,kg,Brand,1,2,1\n");
+        }
+
+        when(categoryRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(2L));
+        when(productRepository.findExistingNamesIgnoreCase(anyCollection())).thenReturn(List.of());
+
+        ProductImportResponse report = productImportService.importProducts(toStream(csv.toString()), ImportFormat.CSV);
+
+        assertEquals(rows, report.getImportedRows());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(productRepository, times(2)).findExistingNamesIgnoreCase(anyCollection());
+        verify(jdbcTemplate).queryForList(ProductImportServiceImpl.RESERVE_IDS_SQL, Long.class, 20);
+        verify(jdbcTemplate).queryForList(ProductImportServiceImpl.RESERVE_IDS_SQL, Long.class, 1);
+    }
+
+    @Test
+    public void testImport_BatchLosingRaceIsInsertedRowByRow() throws Exception {
+        String csv = CSV_HEADER
+                + "Apple,Fresh apple,1.5,0.2,kg,Farm,1,2,10\n"
+                + "Pear,Fresh pear,1,0.2,kg,Farm,1,2,10\n"
+                + "Kiwi,Green kiwi,2,0.1,kg,Farm,1,2,10\n";
+
+        when(categoryRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(userRepository.findExistingIds(anyCollection())).thenReturn(List.of(2L));
+        when(productRepository.findExistingNamesIgnoreCase(anyCollection())).thenReturn(List.of());
+        // Pear is created concurrently between the name check and the insert
+        BatchUpdateException batchException = new BatchUpdateException("Batch entry 1 was aborted", "23505", new int[0]);
+        batchException.setNextException(new SQLException(
+                "ERROR: duplicate key value violates unique constraint \"" + Product.NAME_UNIQUE_INDEX + "\"", "23505"));
+        DuplicateKeyException duplicate = new DuplicateKeyException("batch failed", batchException);
+        when(jdbcTemplate.batchUpdate(eq(ProductImportServiceImpl.INSERT_SQL), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(duplicate)
+                .thenReturn(new int[][]{{1}})
+                .thenThrow(duplicate)
+                .thenReturn(new int[][]{{1}});
+
+        ProductImportResponse report = productImportService.importProducts(toStream(csv), ImportFormat.CSV);
+
+        assertEquals(2, report.getImportedRows());
+        assertEquals(1, report.getFailedRows());
+        assertEquals(2, report.getErrors().get(0).getRow());
+        assertEquals("Product Pear already exists", report.getErrors().get(0).getError());
+        verify(jdbcTemplate, times(4)).batchUpdate(eq(ProductImportServiceImpl.INSERT_SQL), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        // the rows keep the ids reserved for the failed batch
+        verify(jdbcTemplate, times(1)).queryForList(ProductImportServiceImpl.RESERVE_IDS_SQL, Long.class, 1);
+        verify(productSuggestIndex).putAll(argThat(products -> products.size() == 2));
+    }
+
+    private static ByteArrayInputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,30 +1,59 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.InventoryDeltaBuffer;
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.ProductSuggestIndex;
+import com.spring.task.cache.WriteGenerations;
 import com.spring.task.entity.Category;
 import com.spring.task.entity.Product;
 import com.spring.task.entity.User;
+import com.spring.task.enumration.ProductSortKey;
+import com.spring.task.exception.CommonException;
+import com.spring.task.exception.PreconditionFailedException;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.payload.request.ProductBulkUpdateRequest;
+import com.spring.task.payload.request.ProductFilter;
+import com.spring.task.payload.request.ProductPatch;
 import com.spring.task.payload.request.ProductRequest;
+import com.spring.task.payload.response.FacetCount;
+import com.spring.task.payload.response.ProductFacetsResponse;
+import com.spring.task.payload.response.ProductPageResponse;
 import com.spring.task.payload.response.ProductResponse;
 import com.spring.task.repository.ProductRepository;
+import com.spring.task.repository.ProductRepositoryCustom;
 import com.spring.task.service.CategoryService;
 import com.spring.task.service.UserService;
+import com.spring.task.util.ProductCursor;
+import com.spring.task.util.ProductSearchCursor;
+import com.spring.task.util.ResourceVersion;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
 import java.lang.reflect.Method;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,9 +67,20 @@ public class ProductServiceImplTest {
     private CategoryService categoryService;
     @Mock
     private UserService userService;
+    @Mock
+    private ProductSuggestIndex productSuggestIndex;
+    @Mock
+    private ProductResponseCache productResponseCache;
+
+    @Mock
+    private InventoryDeltaBuffer inventoryDeltaBuffer;
+    @Mock
+    private WriteGenerations writeGenerations;
 
     @InjectMocks
     private ProductServiceImpl productService;
+    @Captor
+    private ArgumentCaptor<Map<String, Object>> changesCaptor;
     @Spy
     private Logger logger;
 
@@ -52,15 +92,13 @@ public class ProductServiceImplTest {
         productRequest.setCategoryId(1L);
         productRequest.setUserId("2");
 
-        when(productRepository.findByNameIgnoreCase(productRequest.getName())).thenReturn(Optional.empty());
-
         Category category = new Category();
         category.setId(1L);
-        when(categoryService.getCategoryById(productRequest.getCategoryId())).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryReference(productRequest.getCategoryId())).thenReturn(category);
 
         User user = new User();
         user.setId(2L);
-        when(userService.getUserById(productRequest.getUserId())).thenReturn(Optional.of(user));
+        when(userService.getUserReference(productRequest.getUserId())).thenReturn(user);
 
         Product validatedProduct = new Product();
         BeanUtils.copyProperties(productRequest, validatedProduct);
@@ -71,14 +109,15 @@ public class ProductServiceImplTest {
         validatedProduct.setUpdatedAt(LocalDateTime.now());
 
         // Ensure the save method is stubbed with the same arguments as the validatedProduct
-        when(productRepository.save(any(Product.class))).thenReturn(validatedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(validatedProduct);
 
         // Act
         Product result = productService.createProduct(productRequest);
 
         // Assert
         assertEquals(validatedProduct, result);
-        verify(productRepository).save(any(Product.class));
+        verify(productRepository).saveAndFlush(any(Product.class));
+        verify(productSuggestIndex).put(validatedProduct.getId(), validatedProduct.getName(), validatedProduct.getBrand());
     }
 
     @Test
@@ -94,11 +133,8 @@ public class ProductServiceImplTest {
 
         User user = new User();
         user.setId(2L);
-        when(userService.getUserById(productRequest.getUserId())).thenReturn(Optional.of(user));
-
-
-        when(productRepository.findByNameIgnoreCase(productRequest.getName())).thenReturn(Optional.empty());
-        when(categoryService.getCategoryById(productRequest.getCategoryId())).thenReturn(Optional.of(category));
+        when(userService.getUserReference(productRequest.getUserId())).thenReturn(user);
+        when(categoryService.getCategoryReference(productRequest.getCategoryId())).thenReturn(category);
 
         Method method = ProductServiceImpl.class.getDeclaredMethod("validateProductRequest", ProductRequest.class);
         method.setAccessible(true);
@@ -116,11 +152,42 @@ public class ProductServiceImplTest {
         productRequest.setName("Existing Product");
         productRequest.setCategoryId(1L);
 
-        when(productRepository.findByNameIgnoreCase(productRequest.getName())).thenReturn(Optional.of(new Product()));
+        when(productRepository.saveAndFlush(any(Product.class)))
+                .thenThrow(violation(Product.NAME_UNIQUE_INDEX, "23505", "duplicate key value violates unique constraint"));
 
         assertThrows(ResourceAlreadyExistException.class, () -> productService.createProduct(productRequest));
     }
 
+    @Test
+    public void testCreateProduct_CategoryNotFound() {
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Product");
+        productRequest.setCategoryId(9L);
+        productRequest.setUserId("2");
+
+        when(productRepository.saveAndFlush(any(Product.class))).thenThrow(violation("fk_generated", "23503",
+                "insert or update on table \"tbl_products\" violates foreign key constraint \"fk_generated\"\n"
+                        + "  Detail: Key (category)=(9) is not present in table \"tbl_category\"."));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> productService.createProduct(productRequest));
+        assertEquals("Category Not found with ID: 9", exception.getMessage());
+        verify(productSuggestIndex, never()).put(any(), any(), any());
+    }
+
+    @Test
+    public void testCreateProduct_UserNotFound() {
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Product");
+        productRequest.setCategoryId(1L);
+        productRequest.setUserId("7");
+
+        when(productRepository.saveAndFlush(any(Product.class))).thenThrow(violation("fk_generated", "23503",
+                "Detail: Key (user_id)=(7) is not present in table \"tbl_user\"."));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> productService.createProduct(productRequest));
+        assertEquals("User not found with ID: 7", exception.getMessage());
+    }
+
     @Test
     public void testGetProductById_Success() {
         Long productId = 1L;
@@ -163,6 +230,193 @@ public class ProductServiceImplTest {
         verify(productRepository).findAll();
     }
 
+    @Test
+    public void testGetProductsPage_FirstPage() {
+        Product product = newProduct(7L, "Apple", 1.5f);
+
+        when(productRepository.findIdPageAfter(new ProductFilter(), ProductSortKey.PRICE, Sort.Direction.ASC, null, 1))
+                .thenReturn(new SliceImpl<>(List.of(7L), PageRequest.of(0, 1), true));
+        when(productRepository.findByIdIn(List.of(7L))).thenReturn(List.of(product));
+        when(productRepository.estimateCount()).thenReturn(42L);
+
+        ProductPageResponse page = productService.getProductsPage(new ProductFilter(), ProductSortKey.PRICE, Sort.Direction.ASC, null, 1, true);
+
+        assertEquals(1, page.getContent().size());
+        assertTrue(page.isHasNext());
+        assertEquals(42L, page.getEstimatedTotal());
+        ProductCursor nextCursor = ProductCursor.decode(page.getNextCursor());
+        assertEquals(ProductSortKey.PRICE, nextCursor.sort());
+        assertEquals(7L, nextCursor.id());
+        assertEquals(1.5f, nextCursor.parsedValue());
+    }
+
+    @Test
+    public void testGetProductsPage_CursorCarriesSortOrder() {
+        ProductCursor cursor = new ProductCursor(ProductSortKey.NAME, Sort.Direction.DESC, "Banana", 3L);
+        Product apple = newProduct(2L, "Apple", 1.5f);
+        Product apricot = newProduct(5L, "Apricot", 2.5f);
+
+        when(productRepository.findIdPageAfter(new ProductFilter(), ProductSortKey.NAME, Sort.Direction.DESC, cursor, 10))
+                .thenReturn(new SliceImpl<>(List.of(5L, 2L), PageRequest.of(0, 10), false));
+        when(productRepository.findByIdIn(List.of(5L, 2L))).thenReturn(List.of(apple, apricot));
+
+        ProductPageResponse page = productService.getProductsPage(new ProductFilter(), ProductSortKey.ID, Sort.Direction.ASC, cursor.encode(), 10, false);
+
+        assertEquals(List.of(5L, 2L), page.getContent().stream().map(ProductResponse::getId).toList());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+        assertNull(page.getEstimatedTotal());
+        verify(productRepository, never()).estimateCount();
+    }
+
+    @Test
+    public void testGetProductsPage_InvalidCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.getProductsPage(new ProductFilter(), ProductSortKey.ID, Sort.Direction.ASC, "not-a-cursor", 10, false));
+    }
+
+    @Test
+    public void testSearchProducts_FirstPage() {
+        Product honey = newProduct(4L, "Honey", 3f);
+
+        when(productRepository.searchIds("honey", Float.POSITIVE_INFINITY, 0L, 2))
+                .thenReturn(List.of(searchHit(4L, 0.6f), searchHit(9L, 0.2f)));
+        when(productRepository.findByIdIn(List.of(4L))).thenReturn(List.of(honey));
+
+        ProductPageResponse page = productService.searchProducts("honey", null, 1);
+
+        assertEquals(List.of(4L), page.getContent().stream().map(ProductResponse::getId).toList());
+        assertTrue(page.isHasNext());
+        ProductSearchCursor nextCursor = ProductSearchCursor.decode(page.getNextCursor(), "honey");
+        assertEquals(0.6f, nextCursor.score());
+        assertEquals(4L, nextCursor.id());
+    }
+
+    @Test
+    public void testSearchProducts_LastPage() {
+        String cursor = new ProductSearchCursor("honey", 0.6f, 4L).encode();
+        Product jam = newProduct(9L, "Jam", 2f);
+
+        when(productRepository.searchIds("honey", 0.6f, 4L, 11)).thenReturn(List.of(searchHit(9L, 0.2f)));
+        when(productRepository.findByIdIn(List.of(9L))).thenReturn(List.of(jam));
+
+        ProductPageResponse page = productService.searchProducts("honey", cursor, 10);
+
+        assertEquals(1, page.getSize());
+        assertFalse(page.isHasNext());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    public void testSearchProducts_CursorOfOtherQuery() {
+        String cursor = new ProductSearchCursor("jam", 0.6f, 4L).encode();
+
+        assertThrows(IllegalArgumentException.class, () -> productService.searchProducts("honey", cursor, 10));
+        verify(productRepository, never()).searchIds(anyString(), anyFloat(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void testGetProductsPage_FilteredHasNoEstimatedTotal() {
+        ProductFilter filter = ProductFilter.builder().brands(List.of("Farm")).inStock(true).build();
+
+        when(productRepository.findIdPageAfter(filter, ProductSortKey.ID, Sort.Direction.ASC, null, 10))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 10), false));
+
+        ProductPageResponse page = productService.getProductsPage(filter, ProductSortKey.ID, Sort.Direction.ASC, null, 10, true);
+
+        assertEquals(0, page.getSize());
+        assertNull(page.getEstimatedTotal());
+        verify(productRepository, never()).estimateCount();
+    }
+
+    @Test
+    public void testGetProductFacets() {
+        ProductFilter filter = ProductFilter.builder().minPrice(1f).build();
+
+        when(productRepository.countFacets(filter)).thenReturn(List.of(
+                new ProductRepositoryCustom.FacetRow("Farm", null, null, 2, false),
+                new ProductRepositoryCustom.FacetRow("Bakery", null, null, 3, false),
+                new ProductRepositoryCustom.FacetRow(null, null, null, 1, false),
+                new ProductRepositoryCustom.FacetRow(null, 1L, "Food", 6, false),
+                new ProductRepositoryCustom.FacetRow(null, null, null, 6, true)));
+
+        ProductFacetsResponse facets = productService.getProductFacets(filter);
+
+        assertEquals(6, facets.getTotal());
+        assertEquals(List.of(new FacetCount(null, "Bakery", 3), new FacetCount(null, "Farm", 2)), facets.getBrands());
+        assertEquals(List.of(new FacetCount(1L, "Food", 6)), facets.getCategories());
+    }
+
+    private static DataIntegrityViolationException violation(String constraintName, String sqlState, String message) {
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, new SQLException(message, sqlState), constraintName));
+    }
+
+    private static ProductRepository.SearchHit searchHit(Long id, float score) {
+        return new ProductRepository.SearchHit() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Float getScore() {
+                return score;
+            }
+        };
+    }
+
+    private Product newProduct(Long id, String name, float price) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setPrice(price);
+        product.setCategory(new Category());
+        product.setUser(new User());
+        return product;
+    }
+
+    @Test
+    public void testGetProductVersion_BuiltFromCachedResponseAndEmbeddedGenerations() {
+        Long productId = 1L;
+        cachedResponse(productId, 4L);
+        when(writeGenerations.version(WriteGenerations.Resource.CATEGORIES, WriteGenerations.Resource.ROLES))
+                .thenReturn(new ResourceVersion("e", Long.MAX_VALUE));
+
+        ResourceVersion version = productService.getProductVersion(productId).orElseThrow();
+
+        assertEquals("4.a-e", version.tag());
+        assertEquals(Long.MAX_VALUE, version.lastModified());
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    public void testGetProductVersion_NotFound() {
+        Long productId = 1L;
+        when(productResponseCache.get(eq(productId), any())).thenReturn(null);
+
+        assertTrue(productService.getProductVersion(productId).isEmpty());
+    }
+
+    @Test
+    public void testGetProductsVersion_UsesWriteGenerations() {
+        ResourceVersion generations = new ResourceVersion("g", 1L);
+        when(writeGenerations.version(WriteGenerations.Resource.PRODUCTS, WriteGenerations.Resource.CATEGORIES,
+                WriteGenerations.Resource.ROLES)).thenReturn(generations);
+
+        assertEquals(generations, productService.getProductsVersion());
+        verifyNoInteractions(productRepository);
+    }
+
+    private void cachedResponse(Long productId, Long version) {
+        ProductResponse response = new ProductResponse();
+        response.setId(productId);
+        response.setInventory(10);
+        response.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0));
+        response.setVersion(version);
+        when(productResponseCache.get(eq(productId), any())).thenReturn(response);
+    }
+
     @Test
     public void testDeleteById_Success() {
         Long productId = 1L;
@@ -174,6 +428,8 @@ public class ProductServiceImplTest {
         assertDoesNotThrow(() -> productService.deleteById(productId));
 
         verify(productRepository).delete(product);
+        verify(productSuggestIndex).remove(productId);
+        verify(productResponseCache).invalidate(productId);
     }
 
     @Test
@@ -184,6 +440,105 @@ public class ProductServiceImplTest {
         assertThrows(ResourceNotFoundException.class, () -> productService.deleteById(productId));
     }
 
+    @Test
+    public void testDeleteByIds() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(productRepository.deleteByIds(ids)).thenReturn(2);
+
+        assertEquals(2, productService.deleteByIds(ids));
+
+        verify(productRepository, never()).delete(any(Product.class));
+        ids.forEach(id -> {
+            verify(productSuggestIndex).remove(id);
+            verify(productResponseCache).invalidate(id);
+        });
+    }
+
+    @Test
+    public void testDeleteByIds_TooManyIds() {
+        List<Long> ids = LongStream.rangeClosed(1, 1001).boxed().toList();
+
+        assertThrows(CommonException.class, () -> productService.deleteByIds(ids));
+        verify(productRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    public void testBulkUpdate_InvalidatesUpdatedProducts() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .brands(List.of("Farm"))
+                .pricePercent(5f)
+                .build();
+        when(productRepository.bulkUpdate(eq(request), any(LocalDateTime.class))).thenReturn(List.of(4L, 7L));
+
+        assertEquals(2, productService.bulkUpdate(request));
+
+        verify(productResponseCache).invalidate(4L);
+        verify(productResponseCache).invalidate(7L);
+        verify(productResponseCache, times(2)).invalidate(any());
+        verify(inventoryDeltaBuffer, never()).discard(any());
+    }
+
+    @Test
+    public void testBulkUpdate_InventoryReplacesBufferedDeltas() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .brands(List.of("Farm"))
+                .inventory(0)
+                .build();
+        when(productRepository.bulkUpdate(eq(request), any(LocalDateTime.class))).thenReturn(List.of(4L, 7L));
+
+        productService.bulkUpdate(request);
+
+        InOrder inOrder = inOrder(inventoryDeltaBuffer, productRepository);
+        inOrder.verify(productRepository).bulkUpdate(eq(request), any(LocalDateTime.class));
+        inOrder.verify(inventoryDeltaBuffer).discard(4L);
+        inOrder.verify(inventoryDeltaBuffer).discard(7L);
+    }
+
+    @Test
+    public void testBulkUpdate_RequiresCriterion() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .inventory(0)
+                .build();
+
+        assertThrows(CommonException.class, () -> productService.bulkUpdate(request));
+        verify(productRepository, never()).bulkUpdate(any(), any());
+    }
+
+    @Test
+    public void testBulkUpdate_RequiresChange() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .ids(List.of(1L))
+                .build();
+
+        assertThrows(CommonException.class, () -> productService.bulkUpdate(request));
+    }
+
+    @Test
+    public void testBulkUpdate_RejectsBothPriceChanges() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .categoryIds(List.of(1L))
+                .pricePercent(5f)
+                .priceAmount(1f)
+                .build();
+
+        assertThrows(CommonException.class, () -> productService.bulkUpdate(request));
+    }
+
+    @Test
+    public void testBulkUpdate_CategoryNotFound() {
+        ProductBulkUpdateRequest request = ProductBulkUpdateRequest.builder()
+                .categoryIds(List.of(1L))
+                .categoryId(9L)
+                .build();
+        when(productRepository.bulkUpdate(eq(request), any(LocalDateTime.class))).thenThrow(violation("fk_generated", "23503",
+                "insert or update on table \"tbl_products\" violates foreign key constraint \"fk_generated\"\n"
+                        + "  Detail: Key (category)=(9) is not present in table \"tbl_category\"."));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> productService.bulkUpdate(request));
+        assertEquals("Category Not found with ID: 9", exception.getMessage());
+        verify(productResponseCache, never()).invalidate(any());
+    }
+
     @Test
     public void testUpdateProduct_Success() {
         Long productId = 1L;
@@ -197,15 +552,13 @@ public class ProductServiceImplTest {
         existingProduct.setName("Old Product Name");
         when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
 
-        when(productRepository.existsByNameIgnoreCaseAndIdNot(productRequest.getName(), productId)).thenReturn(false);
-
         Category category = new Category();
         category.setId(1L);
-        when(categoryService.getCategoryById(productRequest.getCategoryId())).thenReturn(Optional.of(category));
+        when(categoryService.getCategoryReference(productRequest.getCategoryId())).thenReturn(category);
 
         User user = new User();
         user.setId(2L);
-        when(userService.getUserById(productRequest.getUserId())).thenReturn(Optional.of(user));
+        when(userService.getUserReference(productRequest.getUserId())).thenReturn(user);
 
         Product updatedProduct = new Product();
         updatedProduct.setId(productId);
@@ -214,12 +567,16 @@ public class ProductServiceImplTest {
         updatedProduct.setUser(user);
         updatedProduct.setUpdatedAt(LocalDateTime.now());
 
-        when(productRepository.save(any(Product.class))).thenReturn(updatedProduct);
+        when(productRepository.saveAndFlush(any(Product.class))).thenReturn(updatedProduct);
 
         Product result = productService.updateProduct(productId, productRequest);
 
         assertEquals(updatedProduct, result);
-        verify(productRepository).save(any(Product.class));
+        InOrder inOrder = inOrder(inventoryDeltaBuffer, productRepository);
+        inOrder.verify(productRepository).saveAndFlush(any(Product.class));
+        inOrder.verify(inventoryDeltaBuffer).discard(productId);
+        verify(productSuggestIndex).put(productId, "Updated Product", null);
+        verify(productResponseCache).invalidate(productId);
     }
 
     @Test
@@ -243,9 +600,154 @@ public class ProductServiceImplTest {
         existingProduct.setId(productId);
 
         when(productRepository.findById(productId)).thenReturn(Optional.of(existingProduct));
-        when(productRepository.existsByNameIgnoreCaseAndIdNot(productRequest.getName(), productId)).thenReturn(true);
+        when(productRepository.saveAndFlush(existingProduct))
+                .thenThrow(violation(Product.NAME_UNIQUE_INDEX, "23505", "duplicate key value violates unique constraint"));
 
         assertThrows(ResourceAlreadyExistException.class, () -> productService.updateProduct(productId, productRequest));
+        verify(productSuggestIndex, never()).put(any(), any(), any());
+    }
+
+    @Test
+    public void testPatchProduct_WritesOnlyPresentMembers() {
+        Long productId = 1L;
+        ProductRepository.ProductVersionProbe probe = versionProbe(productId, 4L);
+        String eTag = currentETag(probe);
+        ProductPatch productPatch = ProductPatch.builder().price(Optional.of(9.5f)).expiryDate(Optional.empty()).build();
+
+        Product patchedProduct = new Product();
+        patchedProduct.setId(productId);
+        when(productRepository.updateIfVersion(eq(productId), eq(4L), anyMap())).thenReturn(1);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(patchedProduct));
+
+        assertEquals(patchedProduct, productService.patchProduct(productId, productPatch, eTag));
+
+        verify(productRepository).updateIfVersion(eq(productId), eq(4L), changesCaptor.capture());
+        assertEquals(Set.of("price", "expiryDate", "updatedAt"), changesCaptor.getValue().keySet());
+        assertEquals(9.5f, changesCaptor.getValue().get("price"));
+        assertNull(changesCaptor.getValue().get("expiryDate"));
+        verifyNoInteractions(userService);
+        verify(categoryService, never()).getCategoryReference(any());
+        verify(productSuggestIndex, never()).put(any(), any(), any());
+        verify(productResponseCache).invalidate(productId);
+        verify(inventoryDeltaBuffer, never()).discard(any());
+    }
+
+    @Test
+    public void testPatchProduct_InventoryReplacesBufferedDeltas() {
+        Long productId = 1L;
+        versionProbe(productId, 4L);
+        ProductPatch productPatch = ProductPatch.builder().inventory(Optional.of(12)).build();
+
+        Product patchedProduct = new Product();
+        patchedProduct.setId(productId);
+        when(productRepository.updateIfVersion(eq(productId), isNull(), anyMap())).thenReturn(1);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(patchedProduct));
+
+        productService.patchProduct(productId, productPatch, null);
+
+        InOrder inOrder = inOrder(inventoryDeltaBuffer, productRepository);
+        inOrder.verify(productRepository).updateIfVersion(eq(productId), isNull(), anyMap());
+        inOrder.verify(inventoryDeltaBuffer).discard(productId);
+    }
+
+    @Test
+    public void testPatchProduct_RelationsBecomeReferences() {
+        Long productId = 1L;
+        versionProbe(productId, 4L);
+        ProductPatch productPatch = ProductPatch.builder().categoryId(Optional.of(3L)).name(Optional.of("Renamed")).build();
+
+        Category category = new Category();
+        category.setId(3L);
+        when(categoryService.getCategoryReference(3L)).thenReturn(category);
+        Product patchedProduct = new Product();
+        patchedProduct.setId(productId);
+        patchedProduct.setName("Renamed");
+        patchedProduct.setBrand("Brand");
+        when(productRepository.updateIfVersion(eq(productId), isNull(), anyMap())).thenReturn(1);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(patchedProduct));
+
+        productService.patchProduct(productId, productPatch, null);
+
+        verify(productRepository).updateIfVersion(eq(productId), isNull(), changesCaptor.capture());
+        assertSame(category, changesCaptor.getValue().get("category"));
+        verify(productSuggestIndex).put(productId, "Renamed", "Brand");
+    }
+
+    @Test
+    public void testPatchProduct_IfMatchMismatch() {
+        Long productId = 1L;
+        versionProbe(productId, 4L);
+        ProductPatch productPatch = ProductPatch.builder().price(Optional.of(9.5f)).build();
+
+        assertThrows(PreconditionFailedException.class, () -> productService.patchProduct(productId, productPatch, "\"stale\""));
+        verify(productRepository, never()).updateIfVersion(any(), any(), anyMap());
+    }
+
+    @Test
+    public void testPatchProduct_ConcurrentChange() {
+        Long productId = 1L;
+        String eTag = currentETag(versionProbe(productId, 4L));
+        ProductPatch productPatch = ProductPatch.builder().price(Optional.of(9.5f)).build();
+        when(productRepository.updateIfVersion(eq(productId), eq(4L), anyMap())).thenReturn(0);
+
+        assertThrows(PreconditionFailedException.class, () -> productService.patchProduct(productId, productPatch, eTag));
+        verify(productResponseCache, never()).invalidate(productId);
+    }
+
+    @Test
+    public void testPatchProduct_NotFound() {
+        Long productId = 1L;
+        when(productRepository.probeVersion(productId)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> productService.patchProduct(productId, new ProductPatch(), null));
+    }
+
+    @Test
+    public void testPatchProduct_NameAlreadyExists() {
+        Long productId = 1L;
+        versionProbe(productId, 4L);
+        ProductPatch productPatch = ProductPatch.builder().name(Optional.of("Existing Product")).build();
+        when(productRepository.updateIfVersion(eq(productId), isNull(), anyMap()))
+                .thenThrow(violation(Product.NAME_UNIQUE_INDEX, "23505", "duplicate key value violates unique constraint"));
+
+        ResourceAlreadyExistException exception = assertThrows(ResourceAlreadyExistException.class,
+                () -> productService.patchProduct(productId, productPatch, null));
+        assertEquals("Product with name Existing Product already exists", exception.getMessage());
+    }
+
+    @Test
+    public void testPatchProduct_MatchesETagOfGetWhileInventoryDeltasPending() {
+        Long productId = 1L;
+        ProductRepository.ProductVersionProbe probe = versionProbe(productId, 4L);
+        cachedResponse(productId, 4L);
+        when(inventoryDeltaBuffer.pending(productId)).thenReturn(3L);
+        when(inventoryDeltaBuffer.lastDeltaMillis()).thenReturn(1_700_000_000_000L);
+        String eTag = productService.getProductVersion(productId).orElseThrow().eTag();
+        ProductPatch productPatch = ProductPatch.builder().price(Optional.of(9.5f)).build();
+
+        Product patchedProduct = new Product();
+        patchedProduct.setId(productId);
+        when(productRepository.updateIfVersion(eq(productId), eq(4L), anyMap())).thenReturn(1);
+        when(productRepository.findById(productId)).thenReturn(Optional.of(patchedProduct));
+
+        assertEquals(patchedProduct, productService.patchProduct(productId, productPatch, eTag));
+        assertNotEquals(currentETag(probe), eTag);
+    }
+
+    private ProductRepository.ProductVersionProbe versionProbe(Long productId, Long version) {
+        ProductRepository.ProductVersionProbe probe = mock(ProductRepository.ProductVersionProbe.class);
+        lenient().when(probe.getVersion()).thenReturn(version);
+        lenient().when(probe.getInventory()).thenReturn(10);
+        lenient().when(probe.getUpdatedAt()).thenReturn(LocalDateTime.of(2024, 1, 1, 0, 0));
+        when(productRepository.probeVersion(productId)).thenReturn(Optional.of(probe));
+        lenient().when(writeGenerations.version(WriteGenerations.Resource.CATEGORIES, WriteGenerations.Resource.ROLES))
+                .thenReturn(new ResourceVersion("e", 1L));
+        return probe;
+    }
+
+    // the ETag of the stored product, without buffered inventory deltas
+    private static String currentETag(ProductRepository.ProductVersionProbe probe) {
+        return "\"" + Long.toString(probe.getVersion(), 36) + "." + Long.toString(probe.getInventory(), 36) + "-e\"";
     }
 
     @Test
@@ -1,17 +1,25 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.ProductResponseCache;
+import com.spring.task.cache.WriteGenerations;
+import com.spring.task.cache.UserDetailsCache;
 import com.spring.task.entity.Role;
 import com.spring.task.exception.ResourceAlreadyExistException;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.payload.request.RoleRequest;
 import com.spring.task.payload.response.RoleResponse;
 import com.spring.task.repository.RoleRepository;
+import com.spring.task.repository.UserRepository;
+import com.spring.task.service.TokenService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -25,6 +33,16 @@ public class RoleServiceImplTest {
 
     @Mock
     private RoleRepository roleRepository;
+    @Mock
+    private TokenService tokenService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserDetailsCache userDetailsCache;
+    @Mock
+    private ProductResponseCache productResponseCache;
+    @Mock
+    private WriteGenerations writeGenerations;
 
     @InjectMocks
     private RoleServiceImpl roleService;
@@ -34,20 +52,18 @@ public class RoleServiceImplTest {
         RoleRequest roleRequest = new RoleRequest();
         roleRequest.setName("ROLE_TEST");
 
-        when(roleRepository.findByNameIgnoreCase(roleRequest.getName())).thenReturn(Optional.empty());
-
         Role role = new Role();
         role.setName(roleRequest.getName());
         role.setCreatedAt(LocalDateTime.now());
 
-        when(roleRepository.save(any(Role.class))).thenReturn(role);
+        when(roleRepository.saveAndFlush(any(Role.class))).thenReturn(role);
 
         Role createdRole = roleService.createNewRole(roleRequest);
 
         assertNotNull(createdRole);
         assertEquals(role.getName(), createdRole.getName());
-        verify(roleRepository).findByNameIgnoreCase(roleRequest.getName());
-        verify(roleRepository).save(any(Role.class));
+        verify(roleRepository, never()).findByNameIgnoreCase(anyString());
+        verify(roleRepository).saveAndFlush(any(Role.class));
     }
 
     @Test
@@ -55,15 +71,9 @@ public class RoleServiceImplTest {
         RoleRequest roleRequest = new RoleRequest();
         roleRequest.setName("ROLE_TEST");
 
-        Role existingRole = new Role();
-        existingRole.setName(roleRequest.getName());
-
-        when(roleRepository.findByNameIgnoreCase(roleRequest.getName())).thenReturn(Optional.of(existingRole));
+        when(roleRepository.saveAndFlush(any(Role.class))).thenThrow(violation(Role.NAME_UNIQUE_INDEX));
 
         assertThrows(ResourceAlreadyExistException.class, () -> roleService.createNewRole(roleRequest));
-
-        verify(roleRepository).findByNameIgnoreCase(roleRequest.getName());
-        verify(roleRepository, never()).save(any(Role.class));
     }
 
     @Test
@@ -162,6 +172,9 @@ public class RoleServiceImplTest {
         roleService.deleteById(roleId);
 
         verify(roleRepository).delete(role);
+        verify(tokenService).revokeTokensForRole(roleId);
+        verify(userDetailsCache).invalidateAll(Collections.emptyList());
+        verify(productResponseCache).invalidateByRole(roleId);
     }
 
     @Test
@@ -184,8 +197,7 @@ public class RoleServiceImplTest {
         existingRole.setName("Existing Role");
 
         when(roleRepository.findById(roleId)).thenReturn(Optional.of(existingRole));
-        when(roleRepository.existsByNameIgnoreCaseAndIdNot(roleRequest.getName(), roleId)).thenReturn(false);
-        when(roleRepository.save(existingRole)).thenReturn(existingRole);
+        when(roleRepository.saveAndFlush(existingRole)).thenReturn(existingRole);
 
         // When
         Role updatedRole = roleService.updateRole(roleId, roleRequest);
@@ -194,7 +206,10 @@ public class RoleServiceImplTest {
         assertNotNull(updatedRole);
         assertEquals(roleRequest.getName(), updatedRole.getName());
         assertNotNull(updatedRole.getUpdatedAt());
-        verify(roleRepository).save(existingRole);
+        verify(roleRepository).saveAndFlush(existingRole);
+        verify(tokenService).revokeTokensForRole(roleId);
+        verify(userDetailsCache).invalidateAll(Collections.emptyList());
+        verify(productResponseCache).invalidateByRole(roleId);
     }
 
     @Test
@@ -219,9 +234,10 @@ public class RoleServiceImplTest {
         existingRole.setName("Current Role");
 
         when(roleRepository.findById(roleId)).thenReturn(Optional.of(existingRole));
-        when(roleRepository.existsByNameIgnoreCaseAndIdNot(roleRequest.getName(), roleId)).thenReturn(true);
+        when(roleRepository.saveAndFlush(existingRole)).thenThrow(violation(Role.NAME_UNIQUE_INDEX));
 
         assertThrows(ResourceAlreadyExistException.class, () -> roleService.updateRole(roleId, roleRequest));
+        verify(tokenService, never()).revokeTokensForRole(roleId);
     }
 
     @Test
@@ -242,4 +258,10 @@ public class RoleServiceImplTest {
         assertEquals(roleName, roleResponse.getName());
         assertEquals(createdAt, roleResponse.getCreatedAt());
     }
-}
\ No newline at end of file
+
+    private static DataIntegrityViolationException violation(String constraintName) {
+        String message = "duplicate key value violates unique constraint \"" + constraintName + "\"";
+        return new DataIntegrityViolationException(message,
+                new ConstraintViolationException(message, new SQLException(message, "23505"), constraintName));
+    }
+}
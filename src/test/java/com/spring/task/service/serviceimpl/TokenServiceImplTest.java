@@ -1,18 +1,34 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.TokenAllowlistCache;
 import com.spring.task.entity.AuthToken;
 import com.spring.task.exception.ResourceNotFoundException;
 import com.spring.task.repository.TokenRepository;
+import com.spring.task.repository.UserRepository;
+import com.spring.task.util.JwtUtils;
+import com.spring.task.util.TokenHashUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -20,6 +36,12 @@ public class TokenServiceImplTest {
 
     @Mock
     private TokenRepository tokenRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private TokenAllowlistCache tokenAllowlistCache;
+    @Mock
+    private JwtUtils jwtUtils;
 
     @InjectMocks
     private TokenServiceImpl tokenService;
@@ -29,39 +51,102 @@ public class TokenServiceImplTest {
         String token = "testToken";
         String refreshToken = "testRefreshToken";
         String username = "testUser";
+        byte[] oldDigest = TokenHashUtils.sha256("oldToken");
 
         AuthToken authToken = new AuthToken();
-        authToken.setToken(token);
-        authToken.setRefreshToken(refreshToken);
+        authToken.setTokenDigest(oldDigest);
         authToken.setUsername(username);
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+        Date refreshExpiration = new Date(System.currentTimeMillis() + 120000);
 
         when(tokenRepository.findByUsername(username)).thenReturn(Optional.of(authToken));
+        when(tokenRepository.save(authToken)).thenReturn(authToken);
+        when(jwtUtils.extractExpiration(token)).thenReturn(expiration);
+        when(jwtUtils.extractExpiration(refreshToken)).thenReturn(refreshExpiration);
 
         tokenService.saveToken(token, refreshToken, username);
 
         verify(tokenRepository).save(authToken);
+        assertArrayEquals(TokenHashUtils.sha256(token), authToken.getTokenDigest());
+        assertArrayEquals(TokenHashUtils.sha256(refreshToken), authToken.getRefreshTokenDigest());
+        verify(tokenAllowlistCache, times(2)).invalidate(oldDigest);
+        verify(tokenAllowlistCache).put(TokenHashUtils.sha256(token), authToken, expiration.toInstant());
+        assertEquals(LocalDateTime.ofInstant(refreshExpiration.toInstant(), ZoneId.systemDefault()), authToken.getExpiresAt());
+    }
+
+    @Test
+    public void testSaveToken_InvalidatesPreviousTokenAgainAfterCommit() {
+        String token = "testToken";
+        String refreshToken = "testRefreshToken";
+        byte[] oldDigest = TokenHashUtils.sha256("oldToken");
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenDigest(oldDigest);
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+
+        when(tokenRepository.findByUsername("testUser")).thenReturn(Optional.of(authToken));
+        when(tokenRepository.save(authToken)).thenReturn(authToken);
+        when(jwtUtils.extractExpiration(any())).thenReturn(expiration);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenService.saveToken(token, refreshToken, "testUser");
+            verify(tokenAllowlistCache, times(1)).invalidate(oldDigest);
+
+            // a request missing the cache before the commit re-caches the previous token from the committed row
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(tokenAllowlistCache, times(2)).invalidate(oldDigest);
+        verify(tokenAllowlistCache).put(TokenHashUtils.sha256(token), authToken, expiration.toInstant());
     }
 
     @Test
     public void testDeleteToken_Success() {
         String token = "testToken";
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
         AuthToken authToken = new AuthToken();
-        authToken.setToken(token);
+        authToken.setTokenDigest(tokenDigest);
 
-        when(tokenRepository.findByToken(token)).thenReturn(Optional.of(authToken));
+        when(tokenRepository.findByTokenDigest(tokenDigest)).thenReturn(Optional.of(authToken));
 
         boolean result = tokenService.deleteToken(token);
 
         assertTrue(result);
         verify(tokenRepository).delete(authToken);
+        // outside a transaction the after-commit invalidation runs right away
+        verify(tokenAllowlistCache, times(2)).invalidate(tokenDigest);
+    }
+
+    @Test
+    public void testDeleteToken_InvalidatesAgainAfterCommit() {
+        String token = "testToken";
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenDigest(tokenDigest);
+
+        when(tokenRepository.findByTokenDigest(tokenDigest)).thenReturn(Optional.of(authToken));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenService.deleteToken(token);
+            verify(tokenAllowlistCache, times(1)).invalidate(tokenDigest);
 
+            // a request missing the cache before the commit re-caches the still committed row
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(tokenAllowlistCache, times(2)).invalidate(tokenDigest);
     }
 
     @Test
     public void testDeleteToken_NotFound() {
         String token = "testToken";
 
-        when(tokenRepository.findByToken(token)).thenReturn(Optional.empty());
+        when(tokenRepository.findByTokenDigest(TokenHashUtils.sha256(token))).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> tokenService.deleteToken(token));
     }
@@ -69,27 +154,128 @@ public class TokenServiceImplTest {
     @Test
     public void testFindByToken_Success() {
         String token = "testToken";
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenDigest(tokenDigest);
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+
+        when(tokenRepository.findByTokenDigest(tokenDigest)).thenReturn(Optional.of(authToken));
+        when(jwtUtils.extractExpiration(token)).thenReturn(expiration);
+
+        Optional<AuthToken> result = tokenService.findByToken(token);
+
+        assertTrue(result.isPresent());
+        assertEquals(authToken, result.get());
+        verify(tokenRepository).findByTokenDigest(tokenDigest);
+        verify(tokenAllowlistCache).put(tokenDigest, authToken, expiration.toInstant());
+    }
+
+    @Test
+    public void testFindByToken_CacheHit() {
+        String token = "testToken";
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
         AuthToken authToken = new AuthToken();
-        authToken.setToken(token);
+        authToken.setTokenDigest(tokenDigest);
 
-        when(tokenRepository.findByToken(token)).thenReturn(Optional.of(authToken));
+        when(tokenAllowlistCache.get(tokenDigest)).thenReturn(authToken);
 
         Optional<AuthToken> result = tokenService.findByToken(token);
 
         assertTrue(result.isPresent());
         assertEquals(authToken, result.get());
-        verify(tokenRepository).findByToken(token);
+        verify(tokenRepository, never()).findByTokenDigest(any());
     }
 
     @Test
     public void testFindByToken_NotFound() {
         String token = "testToken";
+        byte[] tokenDigest = TokenHashUtils.sha256(token);
 
-        when(tokenRepository.findByToken(token)).thenReturn(Optional.empty());
+        when(tokenRepository.findByTokenDigest(tokenDigest)).thenReturn(Optional.empty());
 
         Optional<AuthToken> result = tokenService.findByToken(token);
 
         assertFalse(result.isPresent());
-        verify(tokenRepository).findByToken(token);
+        verify(tokenRepository).findByTokenDigest(tokenDigest);
+        verify(tokenAllowlistCache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    public void testRotateToken_Success() {
+        byte[] oldTokenDigest = TokenHashUtils.sha256("oldToken");
+        byte[] oldRefreshTokenDigest = TokenHashUtils.sha256("oldRefreshToken");
+        AuthToken authToken = new AuthToken(1L, oldTokenDigest, oldRefreshTokenDigest, "testUser", LocalDateTime.now());
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+        Date refreshExpiration = new Date(System.currentTimeMillis() + 120000);
+        LocalDateTime expiresAt = LocalDateTime.ofInstant(refreshExpiration.toInstant(), ZoneId.systemDefault());
+
+        when(tokenRepository.findByRefreshTokenDigest(oldRefreshTokenDigest)).thenReturn(Optional.of(authToken));
+        when(jwtUtils.extractExpiration("newToken")).thenReturn(expiration);
+        when(jwtUtils.extractExpiration("newRefreshToken")).thenReturn(refreshExpiration);
+        when(tokenRepository.rotateTokens(1L, oldRefreshTokenDigest, TokenHashUtils.sha256("newToken"),
+                TokenHashUtils.sha256("newRefreshToken"), expiresAt)).thenReturn(1);
+
+        assertTrue(tokenService.rotateToken("oldRefreshToken", "newToken", "newRefreshToken"));
+        verify(tokenAllowlistCache, atLeastOnce()).invalidate(oldTokenDigest);
+        verify(tokenAllowlistCache).put(any(), any(), any());
+    }
+
+    @Test
+    public void testRotateToken_AlreadyRedeemed() {
+        byte[] oldRefreshTokenDigest = TokenHashUtils.sha256("oldRefreshToken");
+        AuthToken authToken = new AuthToken(1L, TokenHashUtils.sha256("oldToken"), oldRefreshTokenDigest, "testUser", LocalDateTime.now());
+        Date expiration = new Date(System.currentTimeMillis() + 60000);
+
+        when(tokenRepository.findByRefreshTokenDigest(oldRefreshTokenDigest)).thenReturn(Optional.of(authToken));
+        when(jwtUtils.extractExpiration(any())).thenReturn(expiration);
+        when(tokenRepository.rotateTokens(anyLong(), any(), any(), any(), any())).thenReturn(0);
+
+        assertFalse(tokenService.rotateToken("oldRefreshToken", "newToken", "newRefreshToken"));
+        verify(tokenAllowlistCache, never()).put(any(), any(), any());
+    }
+
+    @Test
+    public void testRotateToken_NotFound() {
+        when(tokenRepository.findByRefreshTokenDigest(any())).thenReturn(Optional.empty());
+
+        assertFalse(tokenService.rotateToken("oldRefreshToken", "newToken", "newRefreshToken"));
+        verify(tokenRepository, never()).rotateTokens(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testRevokeTokensForRole_StatelessMode() {
+        Long roleId = 1L;
+        byte[] tokenDigest = TokenHashUtils.sha256("testToken");
+        AuthToken authToken = new AuthToken();
+        authToken.setTokenDigest(tokenDigest);
+        authToken.setUsername("test@example.com");
+        List<AuthToken> authTokens = List.of(authToken);
+
+        when(jwtUtils.isStatelessAuthorization()).thenReturn(true);
+        when(userRepository.findEmailsByRoleId(roleId)).thenReturn(List.of("test@example.com"));
+        when(tokenRepository.findByUsernameIn(List.of("test@example.com"))).thenReturn(authTokens);
+
+        tokenService.revokeTokensForRole(roleId);
+
+        verify(tokenRepository).deleteAllInBatch(authTokens);
+        verify(tokenAllowlistCache, atLeastOnce()).invalidate(tokenDigest);
+    }
+
+    @Test
+    public void testRevokeTokensForRole_NotStatelessMode() {
+        when(jwtUtils.isStatelessAuthorization()).thenReturn(false);
+
+        tokenService.revokeTokensForRole(1L);
+
+        verifyNoInteractions(userRepository, tokenRepository);
+    }
+
+    @Test
+    public void testPurgeExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+
+        when(tokenRepository.deleteExpiredBatch(now, 500)).thenReturn(42);
+
+        assertEquals(42, tokenService.purgeExpiredTokens(now, 500));
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.spring.task.service.serviceimpl;
 
+import com.spring.task.cache.UserDetailsCache;
 import com.spring.task.entity.User;
 import com.spring.task.payload.response.CustomUserDetails;
 import com.spring.task.repository.UserRepository;
@@ -7,16 +8,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +30,8 @@ public class UserDetailsServiceImplTest {
     private Logger logger = LoggerFactory.getLogger(UserDetailsServiceImplTest.class);
     @Mock
     private UserRepository userRepository;
+    @Spy
+    private UserDetailsCache userDetailsCache = new UserDetailsCache(100, Duration.ofMinutes(10), new SimpleMeterRegistry());
     @InjectMocks
     private UserDetailsServiceImpl userDetailsService;
 
@@ -44,6 +51,25 @@ public class UserDetailsServiceImplTest {
         verify(userRepository).findByEmail(username);
     }
 
+    @Test
+    public void testLoadUserByUsername_CachedAfterFirstLoad() {
+        String username = "test@example.com";
+        User user = new User();
+        user.setEmail(username);
+
+        when(userRepository.findByEmail(username)).thenReturn(Optional.of(user));
+
+        UserDetails first = userDetailsService.loadUserByUsername(username);
+        UserDetails second = userDetailsService.loadUserByUsername(username);
+
+        assertSame(first, second);
+        verify(userRepository, times(1)).findByEmail(username);
+
+        userDetailsCache.invalidate(username);
+        assertNotSame(first, userDetailsService.loadUserByUsername(username));
+        verify(userRepository, times(2)).findByEmail(username);
+    }
+
     @Test
     public void testLoadUserByUsername_NotFound() {
         String username = "nonexistent@example.com";
@@ -1,18 +1,25 @@
 package com.spring.task.service.serviceimpl;
 
 
+import com.spring.task.cache.UserDetailsCache;
 import com.spring.task.entity.Role;
 import com.spring.task.entity.User;
 import com.spring.task.exception.ResourceNotFoundException;
+import com.spring.task.exception.TooManyRequestsException;
+import com.spring.task.exception.UnauthorizedException;
 import com.spring.task.payload.request.AuthRequest;
+import com.spring.task.payload.request.RefreshTokenRequest;
 import com.spring.task.payload.request.UserRequest;
 import com.spring.task.payload.response.JwtResponse;
 import com.spring.task.payload.response.UserResponse;
 import com.spring.task.repository.RoleRepository;
 import com.spring.task.repository.UserRepository;
+import com.spring.task.security.LoginRateLimiter;
 import com.spring.task.service.RoleService;
 import com.spring.task.service.TokenService;
 import com.spring.task.util.JwtUtils;
+import com.spring.task.util.VerifiedToken;
+import io.jsonwebtoken.MalformedJwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.Test;
@@ -28,6 +35,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -52,6 +60,10 @@ public class UserServiceImplTest {
     private TokenService tokenService;
     @Mock
     private PasswordEncoder passwordEncoder;
+    @Mock
+    private LoginRateLimiter loginRateLimiter;
+    @Mock
+    private UserDetailsCache userDetailsCache;
 
     @InjectMocks
     private UserServiceImpl userService;
@@ -79,6 +91,7 @@ public class UserServiceImplTest {
         assertNotNull(createdUser);
         assertEquals(userRequest.getEmail(), createdUser.getEmail());
         verify(userRepository).save(any(User.class));
+        verify(userDetailsCache).invalidate("test@example.com");
     }
 
     @Test
@@ -125,16 +138,16 @@ public class UserServiceImplTest {
         String accessToken = "accessToken";
         String refreshToken = "refreshToken";
 
-        when(jwtUtils.generateToken(authRequest.getEmail())).thenReturn(accessToken);
+        when(jwtUtils.generateToken(eq(authRequest.getEmail()), anyCollection())).thenReturn(accessToken);
         when(jwtUtils.generateRefreshToken(authRequest.getEmail())).thenReturn(refreshToken);
 
-        JwtResponse jwtResponse = userService.authenticate(authRequest);
+        JwtResponse jwtResponse = userService.authenticate(authRequest, "127.0.0.1");
 
         assertNotNull(jwtResponse);
         assertEquals(accessToken, jwtResponse.getAccessToken());
         assertEquals(refreshToken, jwtResponse.getRefreshToken());
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtUtils).generateToken(authRequest.getEmail());
+        verify(jwtUtils).generateToken(eq(authRequest.getEmail()), anyCollection());
         verify(jwtUtils).generateRefreshToken(authRequest.getEmail());
         verify(tokenService).saveToken(accessToken, refreshToken, authRequest.getEmail());
     }
@@ -149,11 +162,70 @@ public class UserServiceImplTest {
         when(authentication.isAuthenticated()).thenReturn(false);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
 
-        assertThrows(BadCredentialsException.class, () -> userService.authenticate(authRequest));
+        assertThrows(BadCredentialsException.class, () -> userService.authenticate(authRequest, "127.0.0.1"));
 
         verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
     }
 
+    @Test
+    public void testAuthenticate_Throttled() {
+        AuthRequest authRequest = new AuthRequest();
+        authRequest.setEmail("test@example.com");
+        authRequest.setPassword("password");
+
+        doThrow(new TooManyRequestsException("Too many login attempts, please retry later", 12))
+                .when(loginRateLimiter).checkLoginAttempt("test@example.com", "127.0.0.1");
+
+        assertThrows(TooManyRequestsException.class, () -> userService.authenticate(authRequest, "127.0.0.1"));
+
+        verifyNoInteractions(authenticationManager, tokenService);
+    }
+
+    @Test
+    public void testRefreshToken_Success() {
+        RefreshTokenRequest refreshTokenRequest = new RefreshTokenRequest("oldRefreshToken");
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setRoles(new HashSet<>());
+        VerifiedToken verifiedToken = new VerifiedToken("test@example.com", Instant.now(), Instant.now().plusSeconds(60), null);
+
+        when(jwtUtils.verifyToken("oldRefreshToken")).thenReturn(verifiedToken);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(jwtUtils.generateToken(eq("test@example.com"), anyCollection())).thenReturn("accessToken");
+        when(jwtUtils.generateRefreshToken("test@example.com")).thenReturn("refreshToken");
+        when(tokenService.rotateToken("oldRefreshToken", "accessToken", "refreshToken")).thenReturn(true);
+
+        JwtResponse jwtResponse = userService.refreshToken(refreshTokenRequest);
+
+        assertEquals("accessToken", jwtResponse.getAccessToken());
+        assertEquals("refreshToken", jwtResponse.getRefreshToken());
+        verifyNoInteractions(authenticationManager, passwordEncoder);
+    }
+
+    @Test
+    public void testRefreshToken_InvalidToken() {
+        when(jwtUtils.verifyToken("badToken")).thenThrow(new MalformedJwtException("malformed"));
+
+        assertThrows(UnauthorizedException.class, () -> userService.refreshToken(new RefreshTokenRequest("badToken")));
+        verifyNoInteractions(tokenService);
+    }
+
+    @Test
+    public void testRefreshToken_AlreadyRedeemed() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        user.setRoles(new HashSet<>());
+        VerifiedToken verifiedToken = new VerifiedToken("test@example.com", Instant.now(), Instant.now().plusSeconds(60), null);
+
+        when(jwtUtils.verifyToken("oldRefreshToken")).thenReturn(verifiedToken);
+        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(user));
+        when(jwtUtils.generateToken(eq("test@example.com"), anyCollection())).thenReturn("accessToken");
+        when(jwtUtils.generateRefreshToken("test@example.com")).thenReturn("refreshToken");
+        when(tokenService.rotateToken("oldRefreshToken", "accessToken", "refreshToken")).thenReturn(false);
+
+        assertThrows(UnauthorizedException.class, () -> userService.refreshToken(new RefreshTokenRequest("oldRefreshToken")));
+    }
+
     @Test
     public void testGetAllUsers() {
         User user1 = new User();
@@ -0,0 +1,184 @@
+package com.spring.task.util;
+
+import com.spring.task.entity.User;
+import com.spring.task.payload.response.CustomUserDetails;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilsTest {
+
+    private static final String SECRET = "357638792F423F4428472B4B6250655368566D597133743677397A1234569870";
+
+    private JwtUtils jwtUtils;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        jwtUtils = newJwtUtils(1800000);
+    }
+
+    private JwtUtils newJwtUtils(int expirationTime) throws IOException {
+        return newJwtUtils(expirationTime, SECRET, null);
+    }
+
+    private JwtUtils newJwtUtils(int expirationTime, String secret, Path keyRingFile) throws IOException {
+        return newJwtUtils(expirationTime, secret, keyRingFile, false);
+    }
+
+    private JwtUtils newJwtUtils(int expirationTime, String secret, Path keyRingFile, boolean verifyOnly) throws IOException {
+        JwtUtils utils = new JwtUtils();
+        ReflectionTestUtils.setField(utils, "verifyOnly", verifyOnly);
+        ReflectionTestUtils.setField(utils, "secretToken", secret);
+        ReflectionTestUtils.setField(utils, "keyRingFile", keyRingFile != null ? keyRingFile.toString() : null);
+        ReflectionTestUtils.setField(utils, "tokenExpirationTime", expirationTime);
+        ReflectionTestUtils.setField(utils, "refreshTokenExpirationTime", 86400000);
+        utils.init();
+        return utils;
+    }
+
+    private Path writeKeyRing(String name, String activeKid, String... keys) throws IOException {
+        String json = "{" + (activeKid != null ? "\"activeKid\": \"" + activeKid + "\", " : "")
+                + "\"keys\": [" + String.join(", ", keys) + "]}";
+        return Files.writeString(tempDir.resolve(name), json);
+    }
+
+    private static String rsaKey(String kid, KeyPair keyPair, boolean withPrivateKey) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return "{\"kid\": \"" + kid + "\", \"alg\": \"RS256\", \"publicKey\": \"" + encoder.encodeToString(keyPair.getPublic().getEncoded()) + "\""
+                + (withPrivateKey ? ", \"privateKey\": \"" + encoder.encodeToString(keyPair.getPrivate().getEncoded()) + "\"" : "") + "}";
+    }
+
+    @Test
+    public void testVerifyToken_Success() {
+        String token = jwtUtils.generateToken("test@example.com");
+
+        VerifiedToken verifiedToken = jwtUtils.verifyToken(token);
+
+        assertEquals("test@example.com", verifiedToken.getSubject());
+        assertNotNull(verifiedToken.getIssuedAt());
+        assertTrue(verifiedToken.getExpiration().isAfter(verifiedToken.getIssuedAt()));
+        assertFalse(verifiedToken.isExpired());
+    }
+
+    @Test
+    public void testVerifyToken_Expired() throws IOException {
+        String token = newJwtUtils(-1000).generateToken("test@example.com");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtils.verifyToken(token));
+    }
+
+    @Test
+    public void testVerifyToken_TamperedSignature() {
+        String token = jwtUtils.generateToken("test@example.com");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThrows(JwtException.class, () -> jwtUtils.verifyToken(tampered));
+    }
+
+    @Test
+    public void testValidateToken_WithVerifiedToken() {
+        User user = new User();
+        user.setEmail("test@example.com");
+        CustomUserDetails userDetails = new CustomUserDetails(user);
+        VerifiedToken verifiedToken = jwtUtils.verifyToken(jwtUtils.generateToken("test@example.com"));
+
+        assertTrue(jwtUtils.validateToken(verifiedToken, userDetails));
+
+        user.setEmail("other@example.com");
+        assertFalse(jwtUtils.validateToken(verifiedToken, new CustomUserDetails(user)));
+    }
+
+    @Test
+    public void testRefreshToken_VerifiedBySameParser() {
+        String refreshToken = jwtUtils.generateRefreshToken("test@example.com");
+
+        assertEquals("test@example.com", jwtUtils.verifyToken(refreshToken).getSubject());
+    }
+
+    @Test
+    public void testGenerateToken_StatelessAuthorizationEmbedsRoles() {
+        ReflectionTestUtils.setField(jwtUtils, "statelessAuthorization", true);
+
+        String token = jwtUtils.generateToken("test@example.com", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        assertEquals(List.of("ROLE_ADMIN"), jwtUtils.verifyToken(token).getRoles());
+    }
+
+    @Test
+    public void testGenerateToken_WithoutStatelessAuthorizationHasNoRoles() {
+        String token = jwtUtils.generateToken("test@example.com", List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+        assertNull(jwtUtils.verifyToken(token).getRoles());
+    }
+
+    @Test
+    public void testKeyRing_SignsWithActiveKidAndVerifiesLegacyTokens() throws IOException {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        String legacyToken = jwtUtils.generateToken("test@example.com");
+        JwtUtils keyRingUtils = newJwtUtils(1800000, SECRET, writeKeyRing("keys.json", "k1", rsaKey("k1", keyPair, true)));
+
+        String token = keyRingUtils.generateToken("test@example.com");
+
+        assertEquals("k1", Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build().parseClaimsJws(token).getHeader().getKeyId());
+        assertEquals("test@example.com", keyRingUtils.verifyToken(token).getSubject());
+        assertEquals("test@example.com", keyRingUtils.verifyToken(legacyToken).getSubject());
+    }
+
+    @Test
+    public void testKeyRing_VerifierNodeNeedsOnlyPublicKeys() throws IOException {
+        KeyPair oldKeyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        KeyPair newKeyPair = Keys.keyPairFor(SignatureAlgorithm.RS256);
+        JwtUtils oldSigner = newJwtUtils(1800000, null, writeKeyRing("old.json", "k1", rsaKey("k1", oldKeyPair, true)));
+        JwtUtils newSigner = newJwtUtils(1800000, null, writeKeyRing("new.json", "k2", rsaKey("k2", newKeyPair, true), rsaKey("k1", oldKeyPair, false)));
+        JwtUtils verifier = newJwtUtils(1800000, null, writeKeyRing("verify.json", null, rsaKey("k1", oldKeyPair, false), rsaKey("k2", newKeyPair, false)), true);
+
+        assertEquals("old@example.com", verifier.verifyToken(oldSigner.generateToken("old@example.com")).getSubject());
+        assertEquals("new@example.com", verifier.verifyToken(newSigner.generateToken("new@example.com")).getSubject());
+        assertThrows(UnsupportedJwtException.class, () -> verifier.verifyToken(jwtUtils.generateToken("test@example.com")));
+        assertThrows(IllegalStateException.class, () -> verifier.generateToken("test@example.com"));
+    }
+
+    @Test
+    public void testKeyRing_UnknownKidRejected() throws IOException {
+        JwtUtils signer = newJwtUtils(1800000, null, writeKeyRing("signer.json", "k1", rsaKey("k1", Keys.keyPairFor(SignatureAlgorithm.RS256), true)));
+        JwtUtils verifier = newJwtUtils(1800000, SECRET, writeKeyRing("verify.json", null, rsaKey("k2", Keys.keyPairFor(SignatureAlgorithm.RS256), false)), true);
+
+        assertThrows(UnsupportedJwtException.class, () -> verifier.verifyToken(signer.generateToken("test@example.com")));
+    }
+
+    @Test
+    public void testKeyRing_WithoutActiveKidFailsUnlessVerifyOnly() throws IOException {
+        Path keyRingFile = writeKeyRing("verify.json", null, rsaKey("k1", Keys.keyPairFor(SignatureAlgorithm.RS256), false));
+
+        assertThrows(IllegalStateException.class, () -> newJwtUtils(1800000, SECRET, keyRingFile));
+    }
+
+    @Test
+    public void testKeyRing_VerifyOnlyNodeNeverSignsWithLegacySecret() throws IOException {
+        JwtUtils verifier = newJwtUtils(1800000, SECRET,
+                writeKeyRing("verify.json", null, rsaKey("k1", Keys.keyPairFor(SignatureAlgorithm.RS256), false)), true);
+
+        assertThrows(IllegalStateException.class, () -> verifier.generateToken("test@example.com"));
+        assertEquals("test@example.com", verifier.verifyToken(jwtUtils.generateToken("test@example.com")).getSubject());
+    }
+}
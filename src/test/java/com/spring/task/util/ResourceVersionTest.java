@@ -0,0 +1,68 @@
+package com.spring.task.util;
+
+import com.spring.task.repository.VersionProbe;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResourceVersionTest {
+
+    private static final LocalDateTime MODIFIED = LocalDateTime.of(2024, 5, 1, 12, 30, 15, 123_456_000);
+
+    @Test
+    public void testOf_TagChangesWithCountAndUpdateTime() {
+        ResourceVersion version = ResourceVersion.of(probe(3, MODIFIED));
+
+        assertEquals(version, ResourceVersion.of(probe(3, MODIFIED)));
+        assertNotEquals(version.tag(), ResourceVersion.of(probe(2, MODIFIED)).tag());
+        assertNotEquals(version.tag(), ResourceVersion.of(probe(3, MODIFIED.plusNanos(1_000))).tag());
+        assertEquals(MODIFIED.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), version.lastModified());
+    }
+
+    @Test
+    public void testOf_EmptyTableHasNoLastModified() {
+        ResourceVersion version = ResourceVersion.of(probe(0, null));
+
+        assertEquals("0", version.tag());
+        assertEquals(-1, version.lastModified());
+    }
+
+    @Test
+    public void testAnd_CombinesTagsAndKeepsLatestTime() {
+        ResourceVersion version = new ResourceVersion("a", 10).and(new ResourceVersion("b", 20));
+
+        assertEquals("a-b", version.tag());
+        assertEquals(20, version.lastModified());
+    }
+
+    @Test
+    public void testMatches_IfMatchValues() {
+        ResourceVersion version = new ResourceVersion("1.abc", 10);
+
+        assertTrue(version.matches("\"1.abc\""));
+        assertTrue(version.matches("\"0.abb\", \"1.abc\""));
+        assertTrue(version.matches("*"));
+        assertFalse(version.matches("W/\"1.abc\""));
+        assertFalse(version.matches("\"1.abd\""));
+    }
+
+    private static VersionProbe probe(long rowCount, LocalDateTime lastModified) {
+        return new VersionProbe() {
+            @Override
+            public long getRowCount() {
+                return rowCount;
+            }
+
+            @Override
+            public LocalDateTime getLastModified() {
+                return lastModified;
+            }
+        };
+    }
+}